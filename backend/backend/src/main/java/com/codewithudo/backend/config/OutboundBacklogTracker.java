@@ -0,0 +1,84 @@
+package com.codewithudo.backend.config;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports, per WebSocket session, the bytes waiting in the session's send buffer, i.e. the
+ * {@link ConcurrentWebSocketSessionDecorator} that holds frames while a slow client is still
+ * reading earlier ones. A session whose buffer keeps growing belongs to a slow consumer;
+ * {@link #backlog(String)} reports the worst session of a user so senders can shed load
+ * before the buffer reaches its limit and the connection is closed.
+ *
+ * <p>Sessions are registered by {@link SessionBufferTrackingPostProcessor} as they are decorated.
+ */
+@Component
+public class OutboundBacklogTracker {
+
+    private final Map<String, ConcurrentWebSocketSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    public void register(ConcurrentWebSocketSessionDecorator session) {
+        sessions.put(session.getId(), session);
+    }
+
+    public void unregister(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user != null && sessionId != null) {
+            sessionsByUser.computeIfAbsent(user.getName(), name -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+        Principal user = event.getUser();
+        if (user != null) {
+            sessionsByUser.computeIfPresent(user.getName(), (name, userSessions) -> {
+                userSessions.remove(event.getSessionId());
+                return userSessions.isEmpty() ? null : userSessions;
+            });
+        }
+    }
+
+    /**
+     * Largest number of buffered, unsent bytes across the user's sessions on this node.
+     */
+    public int backlog(String userName) {
+        Set<String> userSessions = sessionsByUser.get(userName);
+        if (userSessions == null) {
+            return 0;
+        }
+        int worst = 0;
+        for (String sessionId : userSessions) {
+            ConcurrentWebSocketSessionDecorator session = sessions.get(sessionId);
+            if (session != null) {
+                worst = Math.max(worst, session.getBufferSize());
+            }
+        }
+        return worst;
+    }
+
+    public long totalBacklog() {
+        return sessions.values().stream().mapToLong(ConcurrentWebSocketSessionDecorator::getBufferSize).sum();
+    }
+
+    public int backloggedSessions() {
+        return (int) sessions.values().stream().filter(session -> session.getBufferSize() > 0).count();
+    }
+}
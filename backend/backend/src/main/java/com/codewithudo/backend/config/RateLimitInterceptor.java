@@ -0,0 +1,176 @@
+package com.codewithudo.backend.config;
+
+import com.codewithudo.backend.security.UserPrincipal;
+import com.codewithudo.backend.util.TokenBucket;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token buckets on hot write endpoints, so one client cannot monopolize the
+ * connection pool. Each configured route has its own capacity and refill rate, and every
+ * authenticated user (or remote address, for anonymous calls) gets a separate bucket per
+ * route. Rejected calls get 429 with a Retry-After hint.
+ *
+ * <p>Routes are configured as comma-separated {@code METHOD PATTERN CAPACITY PER_SECOND}
+ * entries, e.g. {@code POST /api/matches/request 5 0.1}. Buckets live in a concurrent map;
+ * when it reaches its bound, buckets that have refilled completely are evicted first, since
+ * a full bucket behaves exactly like a new one.
+ */
+@Component
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Route> routes = new ArrayList<>();
+    private final int maxBuckets;
+
+    private final Map<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder evicted = new LongAdder();
+
+    public RateLimitInterceptor(@Value("${app.rate-limit.routes:}") String routeConfig,
+                                @Value("${app.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+        for (String entry : routeConfig.split(",")) {
+            if (StringUtils.hasText(entry)) {
+                routes.add(Route.parse(entry.trim(), routes.size()));
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Route route = match(request);
+        if (route == null) {
+            return true;
+        }
+
+        TokenBucket bucket = bucket(new BucketKey(route.index, clientKey(request)), route);
+        long waitNanos = bucket.tryTake(1);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(route.capacity));
+        if (waitNanos == 0) {
+            route.allowed.increment();
+            response.setHeader("X-RateLimit-Remaining", String.valueOf((long) bucket.availableTokens()));
+            return true;
+        }
+
+        route.rejected.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setHeader("X-RateLimit-Remaining", "0");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry in " + retryAfterSeconds + " s");
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> isFull(entry.getValue()));
+        evicted.add(before - buckets.size());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("buckets", buckets.size());
+        stats.put("evicted", evicted.sum());
+        Map<String, Object> perRoute = new HashMap<>();
+        for (Route route : routes) {
+            perRoute.put(route.method + " " + route.pattern, Map.of(
+                    "capacity", route.capacity,
+                    "perSecond", route.perSecond,
+                    "allowed", route.allowed.sum(),
+                    "rejected", route.rejected.sum()));
+        }
+        stats.put("routes", perRoute);
+        return stats;
+    }
+
+    private Route match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if (route.method.equalsIgnoreCase(request.getMethod()) && pathMatcher.match(route.pattern, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "u:" + principal.getUserId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucket(BucketKey key, Route route) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            evictIdle();
+            if (buckets.size() >= maxBuckets) {
+                log.warn("Rate limit buckets still at {} after evicting idle ones, clearing", buckets.size());
+                buckets.clear();
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(route.capacity, route.perSecond));
+    }
+
+    private boolean isFull(TokenBucket bucket) {
+        return bucket.availableTokens() >= bucket.getCapacity();
+    }
+
+    private record BucketKey(int route, String client) {
+    }
+
+    private static final class Route {
+
+        private final int index;
+        private final String method;
+        private final String pattern;
+        private final long capacity;
+        private final double perSecond;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Route(int index, String method, String pattern, long capacity, double perSecond) {
+            this.index = index;
+            this.method = method;
+            this.pattern = pattern;
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+        }
+
+        private static Route parse(String entry, int index) {
+            String[] parts = entry.split("\\s+");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Rate limit route must be 'METHOD PATTERN CAPACITY PER_SECOND': " + entry);
+            }
+            return new Route(index, parts[0], parts[1], Long.parseLong(parts[2]), Double.parseDouble(parts[3]));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.codewithudo.backend.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Replaces the STOMP {@link SubProtocolWebSocketHandler} with one that hands every session's
+ * {@link ConcurrentWebSocketSessionDecorator} to the {@link OutboundBacklogTracker}. The
+ * decorator is created inside the handler and not exposed otherwise, so this is the only
+ * place its send buffer can be observed.
+ *
+ * <p>The swap happens before the handler is initialized, while nothing but its channels has
+ * been set, so the rest of the STOMP setup configures the replacement as usual.
+ */
+@Component
+public class SessionBufferTrackingPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean.getClass() != SubProtocolWebSocketHandler.class) {
+            return bean;
+        }
+        return new TrackingSubProtocolWebSocketHandler(
+                beanFactory.getBean("clientInboundChannel", MessageChannel.class),
+                beanFactory.getBean("clientOutboundChannel", SubscribableChannel.class),
+                beanFactory.getBean(OutboundBacklogTracker.class));
+    }
+
+    static class TrackingSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+        private final OutboundBacklogTracker tracker;
+
+        TrackingSubProtocolWebSocketHandler(MessageChannel clientInboundChannel,
+                                            SubscribableChannel clientOutboundChannel,
+                                            OutboundBacklogTracker tracker) {
+            super(clientInboundChannel, clientOutboundChannel);
+            this.tracker = tracker;
+        }
+
+        @Override
+        protected WebSocketSession decorateSession(WebSocketSession session) {
+            WebSocketSession decorated = super.decorateSession(session);
+            if (decorated instanceof ConcurrentWebSocketSessionDecorator concurrent) {
+                tracker.register(concurrent);
+            }
+            return decorated;
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+            tracker.unregister(session.getId());
+            super.afterConnectionClosed(session, closeStatus);
+        }
+    }
+}
@@ -1,22 +1,108 @@
 package com.codewithudo.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    // Broadcast destinations used to share user sessions between nodes in relay mode
+    public static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+    public static final String UNRESOLVED_USER_BROADCAST = "/topic/unresolved-user-destination";
+    
+    // "simple" keeps the in-process broker (single node); "relay" forwards to an external STOMP broker
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+    
+    @Value("${app.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+    
+    @Value("${app.websocket.broker.relay.port:61613}")
+    private int relayPort;
+    
+    @Value("${app.websocket.broker.relay.client-login:guest}")
+    private String clientLogin;
+    
+    @Value("${app.websocket.broker.relay.client-passcode:guest}")
+    private String clientPasscode;
+    
+    @Value("${app.websocket.broker.relay.system-login:guest}")
+    private String systemLogin;
+    
+    @Value("${app.websocket.broker.relay.system-passcode:guest}")
+    private String systemPasscode;
+    
+    @Value("${app.websocket.broker.relay.virtual-host:}")
+    private String virtualHost;
+    
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+    
+    @Value("${app.websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+    
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+    
+    // Per-session limits; a session exceeding them is closed instead of holding up others
+    @Value("${app.websocket.session.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+    
+    @Value("${app.websocket.session.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    
+    @Value("${app.websocket.session.message-size-limit:65536}")
+    private int messageSizeLimit;
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    // Messages for users connected to another node are rebroadcast there,
+                    // and every node publishes its connected users to the others
+                    .setUserDestinationBroadcast(UNRESOLVED_USER_BROADCAST)
+                    .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST);
+            if (StringUtils.hasText(virtualHost)) {
+                relay.setVirtualHost(virtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
     
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Bounded queue: when it is full sends fail fast instead of piling up in memory
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+    
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+    
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
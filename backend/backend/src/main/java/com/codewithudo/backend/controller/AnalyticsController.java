@@ -1,15 +1,24 @@
 package com.codewithudo.backend.controller;
 
+import com.codewithudo.backend.config.RateLimitInterceptor;
 import com.codewithudo.backend.dto.AnalyticsResponseDTO;
 import com.codewithudo.backend.entity.AnalyticsData;
+import com.codewithudo.backend.entity.PlatformAnalytics;
 import com.codewithudo.backend.service.AnalyticsService;
+import com.codewithudo.backend.service.DataExportService;
+import com.codewithudo.backend.service.PlatformAnalyticsService;
+import com.codewithudo.backend.service.RetentionService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,6 +29,18 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private PlatformAnalyticsService platformAnalyticsService;
+
+    @Autowired
+    private DataExportService dataExportService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
     @GetMapping("/company/{companyId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('HR_MANAGER')")
     public ResponseEntity<Map<String, Object>> getCompanyOverview(@PathVariable Long companyId) {
@@ -117,17 +138,117 @@ public class AnalyticsController {
 
     @GetMapping("/company/{companyId}/export")
     @PreAuthorize("hasRole('ADMIN') or hasRole('HR_MANAGER')")
-    public ResponseEntity<String> exportAnalytics(
+    public void exportAnalytics(
             @PathVariable Long companyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(defaultValue = "CSV") String format) {
-        
+            @RequestParam(defaultValue = "CSV") String format,
+            HttpServletResponse response) throws IOException {
+        DataExportService.ExportFormat exportFormat = prepareExport(response, "analytics", companyId, format);
+        if (exportFormat != null) {
+            dataExportService.exportAnalyticsData(companyId, startDate, endDate, exportFormat, response.getOutputStream());
+        }
+    }
+
+    @GetMapping("/company/{companyId}/export/activity")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HR_MANAGER')")
+    public void exportActivityLogs(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") String format,
+            HttpServletResponse response) throws IOException {
+        DataExportService.ExportFormat exportFormat = prepareExport(response, "activity", companyId, format);
+        if (exportFormat != null) {
+            dataExportService.exportActivityLogs(companyId, startDate, endDate, exportFormat, response.getOutputStream());
+        }
+    }
+
+    @GetMapping("/company/{companyId}/export/behaviors")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HR_MANAGER')")
+    public void exportUserBehaviors(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") String format,
+            HttpServletResponse response) throws IOException {
+        DataExportService.ExportFormat exportFormat = prepareExport(response, "behaviors", companyId, format);
+        if (exportFormat != null) {
+            dataExportService.exportUserBehaviors(companyId, startDate, endDate, exportFormat, response.getOutputStream());
+        }
+    }
+
+    // Returns null after answering 400 when the format is unknown; matched case-insensitively
+    private DataExportService.ExportFormat prepareExport(HttpServletResponse response, String dataset, Long companyId,
+                                                         String formatName) throws IOException {
+        DataExportService.ExportFormat format;
         try {
-            // TODO: Implement export functionality
-            return ResponseEntity.ok("Export functionality coming soon");
+            format = DataExportService.ExportFormat.valueOf(formatName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + formatName);
+            return null;
+        }
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + dataset + "-" + companyId + "." + format.getExtension() + "\"");
+        return format;
+    }
+
+    // Platform-wide snapshots are built nightly; these endpoints only read stored rows
+    @GetMapping("/platform")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<PlatformAnalytics>> getPlatformSnapshots(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.getSnapshots(startDate, endDate));
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Failed to export analytics");
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/platform/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PlatformAnalytics> getPlatformSnapshot(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        PlatformAnalytics snapshot = platformAnalyticsService.getSnapshot(date);
+        if (snapshot == null) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(snapshot);
+    }
+
+    @PostMapping("/platform/snapshot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PlatformAnalytics> rebuildPlatformSnapshot(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(platformAnalyticsService.buildSnapshot(date));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/retention/compact")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> compactRawHistory() {
+        try {
+            return ResponseEntity.ok(retentionService.compact());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/retention/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRetentionStats() {
+        return ResponseEntity.ok(retentionService.getStats());
+    }
+
+    @GetMapping("/rate-limits/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitInterceptor.getStats());
     }
 }
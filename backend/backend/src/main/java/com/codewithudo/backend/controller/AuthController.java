@@ -4,13 +4,23 @@ import com.codewithudo.backend.dto.AuthResponseDto;
 import com.codewithudo.backend.dto.UserLoginDto;
 import com.codewithudo.backend.dto.UserProfileDto;
 import com.codewithudo.backend.dto.UserRegistrationDto;
+import com.codewithudo.backend.security.PasswordHashingExecutor;
+import com.codewithudo.backend.security.VerifiedTokenCache;
 import com.codewithudo.backend.service.AuthService;
-import com.codewithudo.backend.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*")
@@ -20,28 +30,30 @@ public class AuthController {
     private AuthService authService;
     
     @Autowired
-    private UserService userService;
+    private VerifiedTokenCache tokenCache;
+    
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
     
+    // Registration hashes the password, so it goes through the same bounded pools as login
     @PostMapping("/register")
-    public ResponseEntity<AuthResponseDto> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
-        try {
-            UserProfileDto userProfile = userService.registerUser(registrationDto);
-            // For registration, we'll return a success message without a token
-            // User will need to login to get a token
-            return ResponseEntity.ok(new AuthResponseDto(null, userProfile, "Registration successful. Please login."));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AuthResponseDto(null, null, e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
+        return authService.register(registrationDto)
+                // For registration, we'll return a success message without a token
+                // User will need to login to get a token
+                .thenApply(userProfile -> ResponseEntity.ok(new AuthResponseDto(null, userProfile, "Registration successful. Please login.")))
+                .exceptionally(e -> isOverloaded(e)
+                        ? overloaded()
+                        : ResponseEntity.badRequest().body(new AuthResponseDto(null, null, unwrap(e).getMessage())));
     }
     
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> loginUser(@Valid @RequestBody UserLoginDto loginDto) {
-        try {
-            AuthResponseDto response = authService.login(loginDto);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new AuthResponseDto(null, null, "Invalid credentials"));
-        }
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> loginUser(@Valid @RequestBody UserLoginDto loginDto) {
+        return authService.login(loginDto)
+                .thenApply(response -> ResponseEntity.ok(response))
+                .exceptionally(e -> isOverloaded(e)
+                        ? overloaded()
+                        : ResponseEntity.badRequest().body(new AuthResponseDto(null, null, "Invalid credentials")));
     }
     
     @GetMapping("/me")
@@ -53,4 +65,41 @@ public class AuthController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutUser(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        try {
+            authService.logout(authorization);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/token-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTokenCacheStats() {
+        return ResponseEntity.ok(tokenCache.getStats());
+    }
+    
+    @GetMapping("/password-hashing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingExecutor.getStats());
+    }
+    
+    private static boolean isOverloaded(Throwable e) {
+        Throwable cause = unwrap(e);
+        return cause instanceof RejectedExecutionException || cause instanceof TimeoutException;
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
+    private static ResponseEntity<AuthResponseDto> overloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new AuthResponseDto(null, null, "Too many requests right now, please retry shortly"));
+    }
 }
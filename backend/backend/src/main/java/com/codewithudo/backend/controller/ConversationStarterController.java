@@ -2,9 +2,8 @@ package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.ConversationStarterDTO;
 import com.codewithudo.backend.entity.ConversationStarter;
-import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.ConversationStarterService;
-import com.codewithudo.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -20,7 +19,6 @@ import java.util.stream.Collectors;
 public class ConversationStarterController {
     
     private final ConversationStarterService conversationStarterService;
-    private final UserService userService;
     
     @GetMapping("/personalized/{targetUserId}")
     public ResponseEntity<List<ConversationStarterDTO>> getPersonalizedStarters(
@@ -28,11 +26,10 @@ public class ConversationStarterController {
             @PathVariable Long targetUserId,
             @RequestParam(defaultValue = "5") int count) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
         List<ConversationStarter> starters = conversationStarterService
-            .generatePersonalizedStarters(currentUser.getId(), targetUserId, count);
+            .generatePersonalizedStarters(currentUserId, targetUserId, count);
         
         List<ConversationStarterDTO> starterDTOs = starters.stream()
             .map(this::convertToDTO)
@@ -1,14 +1,18 @@
 package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.*;
+import com.codewithudo.backend.security.UserPrincipal;
+import com.codewithudo.backend.service.ActivityLogDispatcher;
 import com.codewithudo.backend.service.BadgeService;
 import com.codewithudo.backend.service.GamificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/gamification")
@@ -18,24 +22,25 @@ public class GamificationController {
     
     private final GamificationService gamificationService;
     private final BadgeService badgeService;
+    private final ActivityLogDispatcher activityLogDispatcher;
     
     @GetMapping("/summary")
     public ResponseEntity<GamificationSummaryDTO> getGamificationSummary(Authentication authentication) {
-        Long userId = Long.parseLong(authentication.getName());
+        Long userId = UserPrincipal.of(authentication).getUserId();
         GamificationSummaryDTO summary = gamificationService.getUserGamificationSummary(userId);
         return ResponseEntity.ok(summary);
     }
     
     @GetMapping("/streaks")
     public ResponseEntity<List<UserStreakDTO>> getUserStreaks(Authentication authentication) {
-        Long userId = Long.parseLong(authentication.getName());
+        Long userId = UserPrincipal.of(authentication).getUserId();
         List<UserStreakDTO> streaks = gamificationService.getUserStreaks(userId);
         return ResponseEntity.ok(streaks);
     }
     
     @GetMapping("/badges")
     public ResponseEntity<List<UserBadgeDTO>> getUserBadges(Authentication authentication) {
-        Long userId = Long.parseLong(authentication.getName());
+        Long userId = UserPrincipal.of(authentication).getUserId();
         List<UserBadgeDTO> badges = gamificationService.getUserBadges(userId);
         return ResponseEntity.ok(badges);
     }
@@ -48,7 +53,7 @@ public class GamificationController {
     
     @PostMapping("/badges/{badgeId}/toggle-display")
     public ResponseEntity<Void> toggleBadgeDisplay(@PathVariable Long badgeId, Authentication authentication) {
-        Long userId = Long.parseLong(authentication.getName());
+        Long userId = UserPrincipal.of(authentication).getUserId();
         badgeService.toggleBadgeDisplay(userId, badgeId);
         return ResponseEntity.ok().build();
     }
@@ -61,7 +66,7 @@ public class GamificationController {
     
     @GetMapping("/badges/{badgeId}/progress")
     public ResponseEntity<BadgeProgressDTO> getBadgeProgress(@PathVariable Long badgeId, Authentication authentication) {
-        Long userId = Long.parseLong(authentication.getName());
+        Long userId = UserPrincipal.of(authentication).getUserId();
         BadgeProgressDTO progress = badgeService.getBadgeProgress(userId, badgeId);
         if (progress != null) {
             return ResponseEntity.ok(progress);
@@ -95,4 +100,10 @@ public class GamificationController {
         List<LeaderboardEntryDTO> leaderboard = gamificationService.getLeaderboard(limit);
         return ResponseEntity.ok(leaderboard);
     }
+    
+    @GetMapping("/activity-queue/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getActivityQueueStats() {
+        return ResponseEntity.ok(activityLogDispatcher.getStats());
+    }
 }
@@ -1,12 +1,12 @@
 package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.*;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.LoungeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -52,6 +52,20 @@ public class LoungeController {
         }
     }
     
+    @GetMapping("/browse")
+    public ResponseEntity<Slice<LoungeDto>> browseLounges(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Long currentUserId = getCurrentUserId();
+            Slice<LoungeDto> lounges = loungeService.getLoungeSlice(category, page, size, currentUserId);
+            return ResponseEntity.ok(lounges);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<List<LoungeDto>> searchLounges(@RequestParam String q) {
         try {
@@ -164,10 +178,6 @@ public class LoungeController {
     }
     
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        // This is a simplified approach - in production, you'd want to get the user ID from the JWT token
-        // For now, we'll return a placeholder
-        return 1L; // Placeholder - implement proper user ID extraction
+        return UserPrincipal.current().getUserId();
     }
 }
@@ -5,12 +5,11 @@ import com.codewithudo.backend.dto.MatchRequestDto;
 import com.codewithudo.backend.dto.MatchResponseDto;
 import com.codewithudo.backend.dto.UserPreferencesDto;
 import com.codewithudo.backend.entity.Match;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.MatchingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -103,10 +102,6 @@ public class MatchController {
     }
     
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        // This is a simplified approach - in production, you'd want to get the user ID from the JWT token
-        // For now, we'll return a placeholder
-        return 1L; // Placeholder - implement proper user ID extraction
+        return UserPrincipal.current().getUserId();
     }
 }
@@ -2,9 +2,8 @@ package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.MatchFeedbackDTO;
 import com.codewithudo.backend.entity.MatchFeedback;
-import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.MatchFeedbackService;
-import com.codewithudo.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -20,7 +19,6 @@ import java.util.stream.Collectors;
 public class MatchFeedbackController {
     
     private final MatchFeedbackService matchFeedbackService;
-    private final UserService userService;
     
     @PostMapping("/submit")
     public ResponseEntity<MatchFeedbackDTO> submitFeedback(
@@ -34,11 +32,10 @@ public class MatchFeedbackController {
             @RequestParam(required = false) String improvementSuggestions,
             @RequestParam(required = false) String tags) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
         MatchFeedback feedback = matchFeedbackService.submitFeedback(
-            matchId, currentUser.getId(), qualityRating, conversationRating,
+            matchId, currentUserId, qualityRating, conversationRating,
             relevanceRating, wouldMeetAgain, feedbackText, improvementSuggestions, tags);
         
         return ResponseEntity.ok(convertToDTO(feedback));
@@ -57,10 +54,9 @@ public class MatchFeedbackController {
     
     @GetMapping("/my-feedback")
     public ResponseEntity<List<MatchFeedbackDTO>> getMyFeedback(Authentication authentication) {
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
-        List<MatchFeedback> feedback = matchFeedbackService.getUserFeedback(currentUser.getId());
+        List<MatchFeedback> feedback = matchFeedbackService.getUserFeedback(currentUserId);
         
         List<MatchFeedbackDTO> feedbackDTOs = feedback.stream()
             .map(this::convertToDTO)
@@ -71,10 +67,9 @@ public class MatchFeedbackController {
     
     @GetMapping("/my-average-quality")
     public ResponseEntity<Double> getMyAverageQuality(Authentication authentication) {
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
-        Double averageQuality = matchFeedbackService.getUserAverageMatchQuality(currentUser.getId());
+        Double averageQuality = matchFeedbackService.getUserAverageMatchQuality(currentUserId);
         return ResponseEntity.ok(averageQuality != null ? averageQuality : 0.0);
     }
     
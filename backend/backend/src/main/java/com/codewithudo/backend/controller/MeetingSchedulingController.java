@@ -4,19 +4,23 @@ import com.codewithudo.backend.dto.ScheduledMeetingDTO;
 import com.codewithudo.backend.dto.TimeSlotDTO;
 import com.codewithudo.backend.entity.ScheduledMeeting;
 import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.MeetingSchedulingService;
+import com.codewithudo.backend.service.UserReservationLocks;
 import com.codewithudo.backend.service.UserService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,6 +32,7 @@ public class MeetingSchedulingController {
     private final MeetingSchedulingService meetingSchedulingService;
     private final UserService userService;
     private final ObjectMapper objectMapper;
+    private final UserReservationLocks userReservationLocks;
     
     @PostMapping("/schedule")
     public ResponseEntity<ScheduledMeetingDTO> scheduleMeeting(
@@ -38,13 +43,12 @@ public class MeetingSchedulingController {
             @RequestParam String meetingType,
             @RequestParam(required = false) String location) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
         ScheduledMeeting.MeetingType type = ScheduledMeeting.MeetingType.valueOf(meetingType.toUpperCase());
         
         ScheduledMeeting meeting = meetingSchedulingService.scheduleMeeting(
-            matchId, currentUser.getId(), startTime, endTime, type, location);
+            matchId, currentUserId, startTime, endTime, type, location);
         
         return ResponseEntity.ok(convertToDTO(meeting));
     }
@@ -91,14 +95,13 @@ public class MeetingSchedulingController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
         LocalDateTime start = startDate != null ? startDate : LocalDateTime.now();
         LocalDateTime end = endDate != null ? endDate : LocalDateTime.now().plusDays(30);
         
         List<ScheduledMeeting> meetings = meetingSchedulingService
-            .getUserMeetings(currentUser.getId(), start, end);
+            .getUserMeetings(currentUserId, start, end);
         
         List<ScheduledMeetingDTO> meetingDTOs = meetings.stream()
             .map(this::convertToDTO)
@@ -112,11 +115,10 @@ public class MeetingSchedulingController {
             Authentication authentication,
             @RequestParam(defaultValue = "7") int days) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
         List<ScheduledMeeting> meetings = meetingSchedulingService
-            .getUpcomingMeetings(currentUser.getId(), days);
+            .getUpcomingMeetings(currentUserId, days);
         
         List<ScheduledMeetingDTO> meetingDTOs = meetings.stream()
             .map(this::convertToDTO)
@@ -126,23 +128,39 @@ public class MeetingSchedulingController {
     }
     
     @GetMapping("/suggest-times")
-    public ResponseEntity<List<TimeSlotDTO>> suggestMeetingTimes(
+    public ResponseEntity<?> suggestMeetingTimes(
             Authentication authentication,
             @RequestParam Long otherUserId,
             @RequestParam(defaultValue = "30") int durationMinutes,
             @RequestParam(defaultValue = "5") int suggestions) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        return suggestGroupMeetingTimes(authentication, List.of(otherUserId), durationMinutes, suggestions);
+    }
+    
+    @GetMapping("/suggest-group-times")
+    public ResponseEntity<?> suggestGroupMeetingTimes(
+            Authentication authentication,
+            @RequestParam List<Long> participantIds,
+            @RequestParam(defaultValue = "30") int durationMinutes,
+            @RequestParam(defaultValue = "5") int suggestions) {
         
-        List<MeetingSchedulingService.TimeSlot> timeSlots = meetingSchedulingService
-            .suggestMeetingTimes(currentUser.getId(), otherUserId, durationMinutes, suggestions);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
-        List<TimeSlotDTO> timeSlotDTOs = timeSlots.stream()
-            .map(this::convertToTimeSlotDTO)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(timeSlotDTOs);
+        try {
+            List<TimeSlotDTO> timeSlotDTOs = meetingSchedulingService
+                .suggestGroupMeetingTimes(currentUserId, participantIds, durationMinutes, suggestions).stream()
+                .map(this::convertToTimeSlotDTO)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(timeSlotDTOs);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/booking-locks/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBookingLockStats() {
+        return ResponseEntity.ok(userReservationLocks.getStats());
     }
     
     private ScheduledMeetingDTO convertToDTO(ScheduledMeeting meeting) {
@@ -2,16 +2,25 @@ package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.CreateNotificationDto;
 import com.codewithudo.backend.dto.NotificationDto;
+import com.codewithudo.backend.dto.NotificationFanoutDto;
+import com.codewithudo.backend.security.UserPrincipal;
+import com.codewithudo.backend.service.EmailOutboxService;
+import com.codewithudo.backend.service.NotificationDigestService;
+import com.codewithudo.backend.service.NotificationFanoutService;
+import com.codewithudo.backend.service.NotificationPurgeService;
+import com.codewithudo.backend.service.PushNotificationService;
+import com.codewithudo.backend.service.RealtimeDeliveryGate;
 import com.codewithudo.backend.service.NotificationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -21,6 +30,24 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private NotificationFanoutService notificationFanoutService;
+    
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    
+    @Autowired
+    private NotificationDigestService notificationDigestService;
+    
+    @Autowired
+    private NotificationPurgeService notificationPurgeService;
+    
+    @Autowired
+    private RealtimeDeliveryGate realtimeDeliveryGate;
+    
+    @Autowired
+    private PushNotificationService pushNotificationService;
+    
     @PostMapping
     public ResponseEntity<NotificationDto> createNotification(@Valid @RequestBody CreateNotificationDto createDto) {
         try {
@@ -31,6 +58,61 @@ public class NotificationController {
         }
     }
     
+    @PostMapping("/fanout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> fanOutNotification(@Valid @RequestBody NotificationFanoutDto fanoutDto) {
+        try {
+            Map<String, Object> job = notificationFanoutService.submit(fanoutDto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/fanout/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getFanOutProgress(@PathVariable String jobId) {
+        Map<String, Object> progress = notificationFanoutService.getProgress(jobId);
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progress);
+    }
+    
+    @GetMapping("/email/outbox/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getEmailOutboxStats() {
+        return ResponseEntity.ok(emailOutboxService.getStats());
+    }
+    
+    @GetMapping("/digest/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDigestStats() {
+        return ResponseEntity.ok(notificationDigestService.getStats());
+    }
+    
+    @PostMapping("/purge")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> purgeNotifications() {
+        try {
+            return ResponseEntity.ok(notificationPurgeService.purge());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/purge/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPurgeStats() {
+        return ResponseEntity.ok(notificationPurgeService.getStats());
+    }
+    
+    @GetMapping("/realtime/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRealtimeStats() {
+        return ResponseEntity.ok(realtimeDeliveryGate.getStats());
+    }
+    
     @GetMapping
     public ResponseEntity<Page<NotificationDto>> getUserNotifications(
             @RequestParam(defaultValue = "0") int page,
@@ -114,6 +196,31 @@ public class NotificationController {
         }
     }
     
+    @PostMapping("/push/subscriptions")
+    public ResponseEntity<Void> registerPushSubscription(@RequestBody Map<String, String> subscription) {
+        try {
+            String endpoint = subscription.get("endpoint");
+            if (endpoint == null || endpoint.isBlank()) {
+                return ResponseEntity.badRequest().build();
+            }
+            pushNotificationService.registerPushSubscription(getCurrentUserId(), endpoint,
+                subscription.get("p256dh"), subscription.get("auth"), subscription.get("deviceLabel"));
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @DeleteMapping("/push/subscriptions")
+    public ResponseEntity<Void> unregisterPushSubscription(@RequestParam String endpoint) {
+        try {
+            pushNotificationService.unregisterPushSubscription(getCurrentUserId(), endpoint);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNotification(@PathVariable Long id) {
         try {
@@ -130,10 +237,6 @@ public class NotificationController {
     }
     
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        // This is a simplified approach - in production, you'd want to get the user ID from the JWT token
-        // For now, we'll return a placeholder
-        return 1L; // Placeholder - implement proper user ID extraction
+        return UserPrincipal.current().getUserId();
     }
 }
@@ -1,12 +1,11 @@
 package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.NotificationPreferencesDto;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.NotificationPreferencesService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -125,10 +124,6 @@ public class NotificationPreferencesController {
      * Get current user ID from authentication context
      */
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        // This is a simplified approach - in production, you'd want to get the user ID from the JWT token
-        // For now, we'll return a placeholder
-        return 1L; // Placeholder - implement proper user ID extraction
+        return UserPrincipal.current().getUserId();
     }
 }
@@ -1,12 +1,20 @@
 package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.SearchResultDto;
+import com.codewithudo.backend.security.UserPrincipal;
+import com.codewithudo.backend.service.AutocompleteService;
+import com.codewithudo.backend.service.SearchAnalyticsService;
+import com.codewithudo.backend.service.SearchIndexService;
 import com.codewithudo.backend.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/search")
@@ -15,14 +23,29 @@ public class SearchController {
 
     @Autowired
     private SearchService searchService;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private SearchAnalyticsService searchAnalyticsService;
 
     @GetMapping("/global")
     public ResponseEntity<SearchResultDto> globalSearch(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(defaultValue = "false") boolean includeTotals,
+            Authentication authentication) {
         
-        SearchResultDto result = searchService.globalSearch(query, page, size);
+        UserPrincipal principal = UserPrincipal.of(authentication);
+        SearchResultDto result = searchService.globalSearch(query, principal.getUserId(), principal.getCompanyId(),
+                page, size, slice, includeTotals);
+        searchService.saveSearchQuery(principal.getUserId(), principal.getCompanyId(), query, "global", resultCount(result));
         return ResponseEntity.ok(result);
     }
 
@@ -33,34 +56,70 @@ public class SearchController {
             @RequestParam(required = false) String skills,
             @RequestParam(required = false) String location,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(defaultValue = "false") boolean includeTotals,
+            Authentication authentication) {
         
-        SearchResultDto result = searchService.searchUsers(query, industry, skills, location, page, size);
+        UserPrincipal principal = UserPrincipal.of(authentication);
+        SearchResultDto result = searchService.searchUsers(query, industry, skills, location, page, size,
+                slice, includeTotals);
+        searchService.saveSearchQuery(principal.getUserId(), principal.getCompanyId(), query, "users", resultCount(result));
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("/suggestions")
     public ResponseEntity<List<String>> getSearchSuggestions(
             @RequestParam String query,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            Authentication authentication) {
         
-        List<String> suggestions = searchService.getSearchSuggestions(query, limit);
+        Long companyId = UserPrincipal.of(authentication).getCompanyId();
+        List<String> suggestions = searchService.getSearchSuggestions(query, companyId, limit);
         return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/popular")
     public ResponseEntity<List<String>> getPopularSearches(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
         
-        List<String> popularSearches = searchService.getPopularSearches(limit);
+        Long companyId = UserPrincipal.of(authentication).getCompanyId();
+        List<String> popularSearches = searchService.getPopularSearches(companyId, limit);
         return ResponseEntity.ok(popularSearches);
     }
 
     @GetMapping("/recent")
     public ResponseEntity<List<String>> getRecentSearches(
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            Authentication authentication) {
         
-        List<String> recentSearches = searchService.getRecentSearches(limit);
+        Long userId = UserPrincipal.of(authentication).getUserId();
+        List<String> recentSearches = searchService.getRecentSearches(userId, limit);
         return ResponseEntity.ok(recentSearches);
     }
+
+    @GetMapping("/index/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIndexStats() {
+        Map<String, Object> stats = new HashMap<>(searchIndexService.getStats());
+        stats.put("autocomplete", autocompleteService.getStats());
+        stats.put("analytics", searchAnalyticsService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @PostMapping("/index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildIndex() {
+        searchIndexService.rebuildSafely();
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+
+    // Slice-mode results may carry no totals; what came back on the page still counts
+    private int resultCount(SearchResultDto result) {
+        if (result.getTotalResults() > 0 || result.getTotalUsers() > 0) {
+            return Math.max(result.getTotalResults(), result.getTotalUsers());
+        }
+        return result.getUsers().size() + result.getLounges().size() + result.getAnnouncements().size();
+    }
 }
@@ -2,8 +2,8 @@ package com.codewithudo.backend.controller;
 
 import com.codewithudo.backend.dto.SmartMatchDTO;
 import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.security.UserPrincipal;
 import com.codewithudo.backend.service.SmartMatchingService;
-import com.codewithudo.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,17 +19,15 @@ import java.util.stream.Collectors;
 public class SmartMatchingController {
     
     private final SmartMatchingService smartMatchingService;
-    private final UserService userService;
     
     @GetMapping("/recommendations")
     public ResponseEntity<List<SmartMatchDTO>> getSmartMatches(
             Authentication authentication,
             @RequestParam(defaultValue = "10") int limit) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
-        List<User> matches = smartMatchingService.findSmartMatches(currentUser.getId(), limit);
+        List<User> matches = smartMatchingService.findSmartMatches(currentUserId, limit);
         
         List<SmartMatchDTO> matchDTOs = matches.stream()
             .map(this::convertToSmartMatchDTO)
@@ -45,12 +43,11 @@ public class SmartMatchingController {
             @RequestParam String interactionType,
             @RequestParam(required = false) String value) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
         try {
             smartMatchingService.recordInteraction(
-                currentUser.getId(), 
+                currentUserId, 
                 targetUserId, 
                 com.codewithudo.backend.entity.UserInteraction.InteractionType.valueOf(interactionType.toUpperCase()),
                 value
@@ -66,10 +63,9 @@ public class SmartMatchingController {
             Authentication authentication,
             @PathVariable Long userId) {
         
-        String email = authentication.getName();
-        User currentUser = userService.findByEmail(email);
+        Long currentUserId = UserPrincipal.of(authentication).getUserId();
         
-        double score = smartMatchingService.calculateCompatibilityScore(currentUser.getId(), userId);
+        double score = smartMatchingService.calculateCompatibilityScore(currentUserId, userId);
         return ResponseEntity.ok(score);
     }
     
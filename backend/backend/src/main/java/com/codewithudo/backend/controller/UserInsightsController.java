@@ -1,9 +1,12 @@
 package com.codewithudo.backend.controller;
 
+import com.codewithudo.backend.dto.BehaviorEventDto;
 import com.codewithudo.backend.dto.UserInsightDTO;
 import com.codewithudo.backend.entity.UserBehavior;
 import com.codewithudo.backend.entity.UserInsight;
+import com.codewithudo.backend.service.BehaviorIngestionService;
 import com.codewithudo.backend.service.UserInsightsService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,6 +23,9 @@ public class UserInsightsController {
     @Autowired
     private UserInsightsService userInsightsService;
 
+    @Autowired
+    private BehaviorIngestionService behaviorIngestionService;
+
     // Behavior Tracking
     @PostMapping("/track")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN') or hasRole('HR_MANAGER')")
@@ -195,6 +201,28 @@ public class UserInsightsController {
         }
     }
 
+    // Buffered ingestion: one request and one validation pass for many events, persisted in JDBC batches
+    @PostMapping("/track/events")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN') or hasRole('HR_MANAGER')")
+    public ResponseEntity<Map<String, Object>> ingestBehaviors(
+            @RequestParam Long userId,
+            @Valid @RequestBody List<@Valid BehaviorEventDto> events) {
+        try {
+            int accepted = behaviorIngestionService.ingest(userId, events);
+            return ResponseEntity.accepted().body(Map.of(
+                    "accepted", accepted,
+                    "rejected", events.size() - accepted));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/track/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        return ResponseEntity.ok(behaviorIngestionService.getStats());
+    }
+
     // DTO for batch behavior tracking
     public static class BehaviorTrackingRequest {
         private Long userId;
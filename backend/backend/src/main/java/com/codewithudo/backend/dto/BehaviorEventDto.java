@@ -0,0 +1,36 @@
+package com.codewithudo.backend.dto;
+
+import com.codewithudo.backend.entity.UserBehavior;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BehaviorEventDto {
+
+    @NotNull(message = "Behavior type is required")
+    private UserBehavior.BehaviorType behaviorType;
+
+    private Long targetId;
+
+    @Size(max = 255, message = "Target type cannot exceed 255 characters")
+    private String targetType;
+
+    @Size(max = 2000, message = "Context cannot exceed 2000 characters")
+    private String context;
+
+    @Size(max = 4000, message = "Metadata cannot exceed 4000 characters")
+    private String metadata;
+
+    @Size(max = 255, message = "Session ID cannot exceed 255 characters")
+    private String sessionId;
+
+    private Integer durationSeconds;
+
+    private Double intensityScore;
+
+    // Client-side event time; falls back to the server receive time when absent
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,40 @@
+package com.codewithudo.backend.dto;
+
+import com.codewithudo.backend.entity.Notification.NotificationPriority;
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class NotificationFanoutDto {
+
+    @NotBlank(message = "Title is required")
+    @Size(max = 255, message = "Title cannot exceed 255 characters")
+    private String title;
+
+    @NotBlank(message = "Message is required")
+    private String message;
+
+    @NotNull(message = "Type is required")
+    private NotificationType type;
+
+    @NotNull(message = "Priority is required")
+    private NotificationPriority priority;
+
+    private String actionUrl;
+    private String metadata;
+    private LocalDateTime expiresAt;
+
+    // Exactly one recipient selector must be set
+    private Long companyId;
+    private Long departmentId;
+    private List<Long> userIds;
+
+    // Delivery channels beyond the stored notification: "in_app", "push", "email"; defaults to in_app and push
+    private List<String> channels;
+}
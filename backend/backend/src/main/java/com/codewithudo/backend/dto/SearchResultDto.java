@@ -5,6 +5,7 @@ import java.util.List;
 public class SearchResultDto {
     
     private String query;
+    // -1 when a slice-mode search skipped counting; hasNext is always set
     private int totalResults;
     private int totalUsers;
     private int totalPages;
@@ -9,7 +9,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "activity_logs")
+@Table(name = "activity_logs",
+        indexes = @Index(name = "idx_activity_logs_created_at", columnList = "created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,41 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Compacted form of activity_logs rows older than the retention window, one row per user, day and type.
+// activity_date leads every key so the table can be range-partitioned by day on PostgreSQL.
+@Entity
+@Table(name = "activity_log_daily_aggregates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_activity_log_daily_aggregates",
+                columnNames = {"activity_date", "user_id", "activity_type"}),
+        indexes = @Index(name = "idx_activity_log_daily_aggregates_user", columnList = "user_id, activity_type"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogDailyAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "activity_type", nullable = false)
+    private ActivityLog.ActivityType activityType;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount = 0L;
+
+    @Column(name = "points_earned", nullable = false)
+    private Long pointsEarned = 0L;
+}
@@ -0,0 +1,50 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Compacted form of user_behaviors rows older than the retention window, one row per user, day and type.
+// activity_date leads every key so the table can be range-partitioned by day on PostgreSQL.
+@Entity
+@Table(name = "user_behavior_daily_aggregates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_behavior_daily_aggregates",
+                columnNames = {"activity_date", "user_id", "behavior_type"}),
+        indexes = @Index(name = "idx_user_behavior_daily_aggregates_user", columnList = "user_id, behavior_type"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BehaviorDailyAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "behavior_type", nullable = false)
+    private UserBehavior.BehaviorType behaviorType;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount = 0L;
+
+    @Column(name = "total_duration_seconds", nullable = false)
+    private Long totalDurationSeconds = 0L;
+
+    @Column(name = "duration_samples", nullable = false)
+    private Long durationSamples = 0L;
+
+    @Column(name = "intensity_sum", nullable = false)
+    private Double intensitySum = 0.0;
+
+    @Column(name = "intensity_samples", nullable = false)
+    private Long intensitySamples = 0L;
+}
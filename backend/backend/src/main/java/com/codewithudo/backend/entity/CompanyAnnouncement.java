@@ -1,5 +1,6 @@
 package com.codewithudo.backend.entity;
 
+import com.codewithudo.backend.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -12,6 +13,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "company_announcements")
 @Data
 @NoArgsConstructor
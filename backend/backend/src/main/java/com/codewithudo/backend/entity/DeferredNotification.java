@@ -0,0 +1,38 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Real-time delivery of a stored notification held back until the recipient's quiet hours end
+@Entity
+@Table(name = "deferred_notifications",
+        indexes = @Index(name = "idx_deferred_notifications_release_at", columnList = "release_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeferredNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "notification_id", nullable = false)
+    private Long notificationId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Comma-separated delivery channels, e.g. "in_app,push"
+    @Column(name = "channels", nullable = false, length = 64)
+    private String channels;
+
+    @Column(name = "release_at", nullable = false)
+    private LocalDateTime releaseAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.codewithudo.backend.entity;
 
+import com.codewithudo.backend.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -12,7 +13,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "lounges")
+@EntityListeners(SearchIndexEntityListener.class)
+@Table(name = "lounges",
+        indexes = @Index(name = "idx_lounges_active_activity", columnList = "is_active, last_activity"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_notifications_read_at", columnList = "read_at")
+})
 public class Notification {
     
     @Id
@@ -0,0 +1,34 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Snapshot of a company's top searches with their decayed scores; company 0 is users without one
+@Entity
+@Table(name = "popular_searches",
+        indexes = @Index(name = "idx_popular_searches_company", columnList = "company_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PopularSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "query", nullable = false, length = 200)
+    private String query;
+
+    @Column(name = "score", nullable = false)
+    private Double score;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One browser or device registered for push; a user can have several
+@Entity
+@Table(name = "push_subscriptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_push_subscriptions_endpoint", columnNames = "endpoint"),
+        indexes = @Index(name = "idx_push_subscriptions_user", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Push service URL (Web Push) or device token
+    @Column(name = "endpoint", nullable = false, length = 512)
+    private String endpoint;
+
+    // Web Push encryption keys; empty for token-based providers
+    @Column(name = "p256dh_key", length = 255)
+    private String p256dhKey;
+
+    @Column(name = "auth_key", length = 255)
+    private String authKey;
+
+    @Column(name = "device_label", length = 100)
+    private String deviceLabel;
+
+    @Column(name = "failure_count", nullable = false)
+    private Integer failureCount = 0;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_success_at")
+    private LocalDateTime lastSuccessAt;
+}
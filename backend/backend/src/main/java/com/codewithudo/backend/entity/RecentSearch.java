@@ -0,0 +1,34 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One entry of a user's recent-search list; position 0 is the most recent
+@Entity
+@Table(name = "recent_searches",
+        indexes = @Index(name = "idx_recent_searches_user", columnList = "user_id, list_position"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecentSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "query", nullable = false, length = 200)
+    private String query;
+
+    @Column(name = "list_position", nullable = false)
+    private Integer position;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A revoked token (token key set) or all of a user's tokens issued up to a moment (revoked_before set)
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_created_at", columnList = "created_at"),
+    @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First 128 bits of the token's SHA-256; never the token itself
+    @Column(name = "token_key_high")
+    private Long tokenKeyHigh;
+
+    @Column(name = "token_key_low")
+    private Long tokenKeyLow;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Epoch millis; the user's tokens issued at or before it are revoked
+    @Column(name = "revoked_before")
+    private Long revokedBefore;
+
+    // Epoch millis after which every token the entry covers has expired anyway
+    @Column(name = "expires_at", nullable = false)
+    private Long expiresAt;
+
+    // Epoch millis, by the clock of the node that revoked
+    @Column(name = "created_at", nullable = false)
+    private Long createdAt;
+}
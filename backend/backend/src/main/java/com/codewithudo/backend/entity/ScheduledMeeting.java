@@ -10,7 +10,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "scheduled_meetings")
+@Table(name = "scheduled_meetings", indexes = {
+    @Index(name = "idx_meetings_organizer_time", columnList = "organizer_id, scheduled_start_time, scheduled_end_time"),
+    @Index(name = "idx_meetings_participant_time", columnList = "participant_id, scheduled_start_time, scheduled_end_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,24 @@
+package com.codewithudo.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Identifies this database to the search index; a new database gets a new marker, so a leftover index is rebuilt
+@Entity
+@Table(name = "search_index_markers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexMarker {
+
+    // Random UUID, written once when the table is first found empty
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    // Epoch millis
+    @Column(name = "created_at", nullable = false)
+    private Long createdAt;
+}
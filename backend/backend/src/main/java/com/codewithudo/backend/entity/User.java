@@ -1,5 +1,6 @@
 package com.codewithudo.backend.entity;
 
+import com.codewithudo.backend.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -13,6 +14,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_behaviors")
+@Table(name = "user_behaviors",
+        indexes = @Index(name = "idx_user_behaviors_timestamp", columnList = "timestamp"))
 public class UserBehavior {
 
     @Id
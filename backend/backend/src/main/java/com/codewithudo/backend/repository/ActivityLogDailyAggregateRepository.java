@@ -0,0 +1,15 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.ActivityLogDailyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ActivityLogDailyAggregateRepository extends JpaRepository<ActivityLogDailyAggregate, Long> {
+
+    List<ActivityLogDailyAggregate> findByUserIdAndActivityDateBetweenOrderByActivityDateAsc(
+            Long userId, LocalDate startDate, LocalDate endDate);
+}
@@ -1,13 +1,17 @@
 package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.ActivityLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long> {
@@ -26,11 +30,28 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
         @Param("startDate") LocalDateTime startDate
     );
     
-    @Query("SELECT COUNT(al) FROM ActivityLog al WHERE al.userId = :userId AND al.activityType = :activityType")
-    Long countByUserIdAndActivityType(@Param("userId") Long userId, @Param("activityType") ActivityLog.ActivityType activityType);
+    // Counts and totals include rows already compacted into activity_log_daily_aggregates
+    default Long countByUserIdAndActivityType(Long userId, ActivityLog.ActivityType activityType) {
+        return countIncludingCompacted(userId, activityType.name()).longValue();
+    }
     
-    @Query("SELECT SUM(al.pointsEarned) FROM ActivityLog al WHERE al.userId = :userId")
-    Long getTotalPointsByUserId(@Param("userId") Long userId);
+    default Long getTotalPointsByUserId(Long userId) {
+        return getTotalPointsIncludingCompacted(userId).longValue();
+    }
+    
+    @Query(value = """
+        SELECT (SELECT COUNT(*) FROM activity_logs al
+                WHERE al.user_id = :userId AND al.activity_type = :activityType)
+             + (SELECT COALESCE(SUM(a.event_count), 0) FROM activity_log_daily_aggregates a
+                WHERE a.user_id = :userId AND a.activity_type = :activityType)
+        """, nativeQuery = true)
+    Number countIncludingCompacted(@Param("userId") Long userId, @Param("activityType") String activityType);
+    
+    @Query(value = """
+        SELECT (SELECT COALESCE(SUM(al.points_earned), 0) FROM activity_logs al WHERE al.user_id = :userId)
+             + (SELECT COALESCE(SUM(a.points_earned), 0) FROM activity_log_daily_aggregates a WHERE a.user_id = :userId)
+        """, nativeQuery = true)
+    Number getTotalPointsIncludingCompacted(@Param("userId") Long userId);
     
     // Leaderboard queries
     @Query(value = """
@@ -41,7 +62,11 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
                COALESCE(us.streak_type, 'None') as streak_type,
                ROW_NUMBER() OVER (ORDER BY COALESCE(SUM(al.points_earned), 0) DESC) as rank
         FROM users u
-        LEFT JOIN activity_log al ON u.id = al.user_id
+        LEFT JOIN (
+            SELECT user_id, activity_type, points_earned FROM activity_logs
+            UNION ALL
+            SELECT user_id, activity_type, points_earned FROM activity_log_daily_aggregates
+        ) al ON u.id = al.user_id
         LEFT JOIN (
             SELECT user_id, COUNT(*) as badge_count 
             FROM user_badges 
@@ -64,13 +89,21 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
         FROM (
             SELECT u.id, COALESCE(SUM(al.points_earned), 0) as total_points
             FROM users u
-            LEFT JOIN activity_log al ON u.id = al.user_id
+            LEFT JOIN (
+                SELECT user_id, points_earned FROM activity_logs
+                UNION ALL
+                SELECT user_id, points_earned FROM activity_log_daily_aggregates
+            ) al ON u.id = al.user_id
             WHERE u.is_active = true
             GROUP BY u.id
             HAVING COALESCE(SUM(al.points_earned), 0) > (
                 SELECT COALESCE(SUM(al2.points_earned), 0)
                 FROM users u2
-                LEFT JOIN activity_log al2 ON u2.id = al2.user_id
+                LEFT JOIN (
+                    SELECT user_id, points_earned FROM activity_logs
+                    UNION ALL
+                    SELECT user_id, points_earned FROM activity_log_daily_aggregates
+                ) al2 ON u2.id = al2.user_id
                 WHERE u2.id = :userId
                 GROUP BY u2.id
             )
@@ -83,11 +116,26 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
                COALESCE(SUM(al.points_earned), 0) as total_points,
                ROW_NUMBER() OVER (ORDER BY COALESCE(SUM(al.points_earned), 0) DESC) as rank
         FROM users u
-        LEFT JOIN activity_log al ON u.id = al.user_id
+        LEFT JOIN (
+            SELECT user_id, activity_type, points_earned FROM activity_logs
+            UNION ALL
+            SELECT user_id, activity_type, points_earned FROM activity_log_daily_aggregates
+        ) al ON u.id = al.user_id
         WHERE u.is_active = true AND al.activity_type = :category
         GROUP BY u.id, u.name
         ORDER BY total_points DESC
         LIMIT :limit
         """, nativeQuery = true)
     List<Object[]> getTopPerformersByCategory(@Param("category") String category, @Param("limit") int limit);
+    
+    // Export: cursor over a company's activity with a fixed fetch size, consumed inside a read-only transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT al FROM ActivityLog al WHERE al.userId IN (SELECT u.id FROM User u WHERE u.companyId = :companyId) " +
+           "AND al.createdAt >= :startTime AND al.createdAt < :endTime ORDER BY al.id")
+    Stream<ActivityLog> streamByCompanyAndCreatedAtRange(@Param("companyId") Long companyId,
+                                                         @Param("startTime") LocalDateTime startTime,
+                                                         @Param("endTime") LocalDateTime endTime);
 }
@@ -1,13 +1,17 @@
 package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.AnalyticsData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AnalyticsDataRepository extends JpaRepository<AnalyticsData, Long> {
@@ -83,4 +87,17 @@ public interface AnalyticsDataRepository extends JpaRepository<AnalyticsData, Lo
             @Param("endDate") LocalDate endDate,
             @Param("periodType") String periodType
     );
+
+    // Export: cursor over a company's analytics rows with a fixed fetch size
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AnalyticsData a WHERE a.companyId = :companyId " +
+           "AND a.date BETWEEN :startDate AND :endDate ORDER BY a.date ASC, a.id ASC")
+    Stream<AnalyticsData> streamByCompanyAndDateRange(
+            @Param("companyId") Long companyId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
 }
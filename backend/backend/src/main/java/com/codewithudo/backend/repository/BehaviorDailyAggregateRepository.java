@@ -0,0 +1,21 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.BehaviorDailyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BehaviorDailyAggregateRepository extends JpaRepository<BehaviorDailyAggregate, Long> {
+
+    List<BehaviorDailyAggregate> findByUserIdAndActivityDateBetweenOrderByActivityDateAsc(
+            Long userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT a.behaviorType, SUM(a.eventCount) FROM BehaviorDailyAggregate a WHERE a.userId = :userId " +
+           "GROUP BY a.behaviorType")
+    List<Object[]> getCompactedDistributionByUser(@Param("userId") Long userId);
+}
@@ -1,6 +1,7 @@
 package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.CompanyAnnouncement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,4 +28,7 @@ public interface CompanyAnnouncementRepository extends JpaRepository<CompanyAnno
     
     @Query("SELECT COUNT(ca) FROM CompanyAnnouncement ca WHERE ca.companyId = :companyId AND ca.isActive = true")
     long countActiveByCompany(@Param("companyId") Long companyId);
+    
+    // Keyset batches for rebuilding the search index
+    List<CompanyAnnouncement> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.DeferredNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeferredNotificationRepository extends JpaRepository<DeferredNotification, Long> {
+
+    List<DeferredNotification> findByReleaseAtLessThanEqualOrderByReleaseAtAsc(LocalDateTime releaseAt, Pageable pageable);
+}
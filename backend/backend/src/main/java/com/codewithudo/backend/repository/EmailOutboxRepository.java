@@ -0,0 +1,12 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.EmailOutboxMessage;
+import com.codewithudo.backend.entity.EmailOutboxMessage.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    long countByStatus(OutboxStatus status);
+}
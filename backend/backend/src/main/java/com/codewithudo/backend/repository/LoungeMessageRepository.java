@@ -34,4 +34,10 @@ public interface LoungeMessageRepository extends JpaRepository<LoungeMessage, Lo
     Long countByLoungeId(@Param("loungeId") Long loungeId);
     
     Long countByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Platform snapshot: message volume, distinct speakers and distinct lounges for one day
+    @Query("SELECT COUNT(lm), COUNT(DISTINCT lm.userId), COUNT(DISTINCT lm.loungeId) FROM LoungeMessage lm " +
+           "WHERE lm.createdAt >= :dayStart AND lm.createdAt < :dayEnd")
+    List<Object[]> getPlatformSnapshotStats(@Param("dayStart") LocalDateTime dayStart,
+                                            @Param("dayEnd") LocalDateTime dayEnd);
 }
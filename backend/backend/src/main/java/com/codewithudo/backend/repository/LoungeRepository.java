@@ -1,6 +1,8 @@
 package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.Lounge;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +21,13 @@ public interface LoungeRepository extends JpaRepository<Lounge, Long> {
     
     List<Lounge> findByCategoryContainingIgnoreCaseAndIsActiveTrue(String category);
     
+    // Slices read one row past the page to set hasNext instead of running a count query
+    Slice<Lounge> findByVisibilityNotAndIsActiveTrue(Lounge.Visibility visibility, Pageable pageable);
+    
+    Slice<Lounge> findByCategoryContainingIgnoreCaseAndVisibilityNotAndIsActiveTrue(String category,
+                                                                                   Lounge.Visibility visibility,
+                                                                                   Pageable pageable);
+    
     List<Lounge> findByTagsContainingIgnoreCaseAndIsActiveTrue(String tag);
     
     List<Lounge> findByCreatedByAndIsActiveTrue(Long createdBy);
@@ -27,9 +36,6 @@ public interface LoungeRepository extends JpaRepository<Lounge, Long> {
     
     List<Lounge> findByIsFeaturedTrueAndIsActiveTrue();
     
-    @Query("SELECT l FROM Lounge l WHERE l.isActive = true AND (l.title LIKE %:searchTerm% OR l.description LIKE %:searchTerm% OR l.topic LIKE %:searchTerm%)")
-    List<Lounge> searchLounges(@Param("searchTerm") String searchTerm);
-    
     @Query("SELECT l FROM Lounge l WHERE l.isActive = true AND l.lastActivity > :since ORDER BY l.lastActivity DESC")
     List<Lounge> findActiveLoungesSince(@Param("since") LocalDateTime since);
     
@@ -39,4 +45,9 @@ public interface LoungeRepository extends JpaRepository<Lounge, Long> {
     Optional<Lounge> findByIdAndIsActiveTrue(Long id);
     
     boolean existsByTitleAndIsActiveTrue(String title);
+    
+    Long countByIsActiveTrue();
+    
+    // Keyset batches for rebuilding the search index
+    List<Lounge> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
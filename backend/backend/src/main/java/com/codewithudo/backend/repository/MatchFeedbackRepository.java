@@ -40,4 +40,10 @@ public interface MatchFeedbackRepository extends JpaRepository<MatchFeedback, Lo
     
     @Query("SELECT COUNT(mf) FROM MatchFeedback mf WHERE mf.qualityRating >= :minRating")
     Long countHighQualityMatches(@Param("minRating") Integer minRating);
+    
+    // Platform snapshot: feedback volume and average rating for one day
+    @Query("SELECT COUNT(mf), AVG(mf.qualityRating) FROM MatchFeedback mf " +
+           "WHERE mf.createdAt >= :dayStart AND mf.createdAt < :dayEnd")
+    List<Object[]> getPlatformSnapshotStats(@Param("dayStart") LocalDateTime dayStart,
+                                            @Param("dayEnd") LocalDateTime dayEnd);
 }
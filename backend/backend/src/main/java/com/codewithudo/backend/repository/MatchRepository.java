@@ -41,4 +41,18 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     Long countByUser1IdAndCreatedAtBetween(Long userId, LocalDateTime startDate, LocalDateTime endDate);
     
     Long countByUser2IdAndCreatedAtBetween(Long userId, LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Platform snapshot: every match metric in a single pass over matches.
+    // Matches carry no acceptance timestamp, so status changes are attributed to the day of their last update.
+    @Query("SELECT COUNT(m), " +
+           "COALESCE(SUM(CASE WHEN m.createdAt >= :dayStart THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN m.status IN ('ACCEPTED', 'SCHEDULED') " +
+           "AND m.updatedAt >= :dayStart AND m.updatedAt < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN m.status = 'COMPLETED' " +
+           "AND m.updatedAt >= :dayStart AND m.updatedAt < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN m.status IN ('ACCEPTED', 'SCHEDULED', 'IN_PROGRESS', 'COMPLETED') THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN m.status <> 'PENDING' THEN 1 ELSE 0 END), 0) " +
+           "FROM Match m WHERE m.createdAt < :dayEnd")
+    List<Object[]> getPlatformSnapshotStats(@Param("dayStart") LocalDateTime dayStart,
+                                            @Param("dayEnd") LocalDateTime dayEnd);
 }
@@ -4,6 +4,8 @@ import com.codewithudo.backend.entity.NotificationPreferences;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +21,11 @@ public interface NotificationPreferencesRepository extends JpaRepository<Notific
      */
     boolean existsByUserId(Long userId);
     
+    /**
+     * Find preferences for a batch of users
+     */
+    List<NotificationPreferences> findByUserIdIn(Collection<Long> userIds);
+    
     /**
      * Delete notification preferences by user ID
      */
@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,6 +27,10 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Count unread notifications
     Long countByUserIdAndIsReadFalse(Long userId);
     
+    // Unread counts for a batch of users, used to reconcile the in-memory counters
+    @Query("SELECT n.userId, COUNT(n) FROM Notification n WHERE n.isRead = false AND n.userId IN :userIds GROUP BY n.userId")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+    
     // Find notifications by type
     List<Notification> findByUserIdAndTypeOrderByCreatedAtDesc(Long userId, NotificationType type);
     
@@ -36,21 +41,18 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.createdAt >= :since ORDER BY n.createdAt DESC")
     List<Notification> findRecentNotifications(@Param("userId") Long userId, @Param("since") LocalDateTime since);
     
-    // Mark notification as read
+    // Mark notification as read; only an unread row counts as updated
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.id = :id AND n.userId = :userId")
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.id = :id AND n.userId = :userId AND n.isRead = false")
     int markAsRead(@Param("id") Long id, @Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
     
+    boolean existsByIdAndUserId(Long id, Long userId);
+    
     // Mark all notifications as read for user
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.userId = :userId AND n.isRead = false")
     int markAllAsRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
     
-    // Delete expired notifications
-    @Modifying
-    @Query("DELETE FROM Notification n WHERE n.expiresAt IS NOT NULL AND n.expiresAt < :now")
-    int deleteExpiredNotifications(@Param("now") LocalDateTime now);
-    
     // Find notifications by date range
     @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.createdAt BETWEEN :startDate AND :endDate ORDER BY n.createdAt DESC")
     List<Notification> findByUserIdAndDateRange(@Param("userId") Long userId, 
@@ -0,0 +1,9 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.PopularSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PopularSearchRepository extends JpaRepository<PopularSearch, Long> {
+}
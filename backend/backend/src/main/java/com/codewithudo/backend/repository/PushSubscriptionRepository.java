@@ -0,0 +1,38 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.PushSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PushSubscriptionRepository extends JpaRepository<PushSubscription, Long> {
+
+    List<PushSubscription> findByUserId(Long userId);
+
+    // All devices of a batch of recipients in one query
+    List<PushSubscription> findByUserIdIn(Collection<Long> userIds);
+
+    Optional<PushSubscription> findByEndpoint(String endpoint);
+
+    @Modifying
+    @Query("DELETE FROM PushSubscription s WHERE s.userId = :userId AND s.endpoint = :endpoint")
+    int deleteByUserIdAndEndpoint(@Param("userId") Long userId, @Param("endpoint") String endpoint);
+
+    @Modifying
+    @Query("DELETE FROM PushSubscription s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Endpoints that keep failing, or that have not accepted a push for a long time
+    @Query("SELECT s FROM PushSubscription s WHERE s.failureCount >= :maxFailures " +
+           "OR COALESCE(s.lastSuccessAt, s.createdAt) < :staleBefore")
+    List<PushSubscription> findPrunable(@Param("maxFailures") int maxFailures,
+                                        @Param("staleBefore") LocalDateTime staleBefore);
+}
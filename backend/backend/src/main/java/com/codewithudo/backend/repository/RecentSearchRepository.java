@@ -0,0 +1,13 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.RecentSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecentSearchRepository extends JpaRepository<RecentSearch, Long> {
+
+    List<RecentSearch> findByUserIdOrderByPositionAsc(Long userId);
+}
@@ -0,0 +1,26 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findByExpiresAtGreaterThan(Long now);
+
+    // Entries written since the given moment, by this or any other node
+    List<RevokedToken> findByCreatedAtGreaterThanEqual(Long since);
+
+    // Runs outside any caller transaction, from the scheduled prune
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Long now);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,6 +25,13 @@ public interface ScheduledMeetingRepository extends JpaRepository<ScheduledMeeti
                                                   @Param("startTime") LocalDateTime startTime, 
                                                   @Param("endTime") LocalDateTime endTime);
     
+    // Every meeting of any of the users that overlaps the range, for free/busy computation
+    @Query("SELECT sm FROM ScheduledMeeting sm WHERE (sm.organizerId IN :userIds OR sm.participantId IN :userIds) " +
+           "AND sm.status <> 'CANCELLED' AND sm.scheduledStartTime < :endTime AND sm.scheduledEndTime > :startTime")
+    List<ScheduledMeeting> findUsersMeetingsOverlapping(@Param("userIds") Collection<Long> userIds,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
+    
     @Query("SELECT sm FROM ScheduledMeeting sm WHERE sm.status = :status AND sm.scheduledStartTime <= :time")
     List<ScheduledMeeting> findMeetingsByStatusAndTime(@Param("status") ScheduledMeeting.MeetingStatus status, 
                                                       @Param("time") LocalDateTime time);
@@ -38,4 +46,18 @@ public interface ScheduledMeetingRepository extends JpaRepository<ScheduledMeeti
     Long countCompletedMeetings(@Param("userId") Long userId);
     
     Long countByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Platform snapshot: meetings booked on the day plus meetings that were due to end on the day
+    @Query("SELECT " +
+           "COALESCE(SUM(CASE WHEN sm.createdAt >= :dayStart AND sm.createdAt < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN sm.status = 'COMPLETED' " +
+           "AND sm.scheduledEndTime >= :dayStart AND sm.scheduledEndTime < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN sm.status IN ('COMPLETED', 'CANCELLED', 'NO_SHOW') " +
+           "AND sm.scheduledEndTime >= :dayStart AND sm.scheduledEndTime < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "AVG(CASE WHEN sm.status = 'COMPLETED' AND sm.scheduledEndTime >= :dayStart AND sm.scheduledEndTime < :dayEnd " +
+           "THEN ((sm.scheduledEndTime - sm.scheduledStartTime) by second) END) " +
+           "FROM ScheduledMeeting sm WHERE (sm.createdAt >= :dayStart AND sm.createdAt < :dayEnd) " +
+           "OR (sm.scheduledEndTime >= :dayStart AND sm.scheduledEndTime < :dayEnd)")
+    List<Object[]> getPlatformSnapshotStats(@Param("dayStart") LocalDateTime dayStart,
+                                            @Param("dayEnd") LocalDateTime dayEnd);
 }
@@ -0,0 +1,14 @@
+package com.codewithudo.backend.repository;
+
+import com.codewithudo.backend.entity.SearchIndexMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SearchIndexMarkerRepository extends JpaRepository<SearchIndexMarker, String> {
+
+    // Lowest id, so nodes that raced to create a marker still agree on one
+    Optional<SearchIndexMarker> findFirstByOrderByIdAsc();
+}
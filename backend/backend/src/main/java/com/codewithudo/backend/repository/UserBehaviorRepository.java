@@ -1,13 +1,17 @@
 package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.UserBehavior;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserBehaviorRepository extends JpaRepository<UserBehavior, Long> {
@@ -76,4 +80,26 @@ public interface UserBehaviorRepository extends JpaRepository<UserBehavior, Long
     @Query("SELECT DISTINCT b.sessionId FROM UserBehavior b WHERE b.userId = :userId " +
            "AND b.sessionId IS NOT NULL ORDER BY b.timestamp DESC")
     List<String> findSessionIdsByUser(@Param("userId") Long userId);
+
+    // Session length is reported on LOGOUT events
+    @Query("SELECT AVG(b.durationSeconds) FROM UserBehavior b WHERE b.behaviorType = 'LOGOUT' " +
+           "AND b.durationSeconds IS NOT NULL AND b.timestamp >= :dayStart AND b.timestamp < :dayEnd")
+    Double getAverageSessionDurationSeconds(@Param("dayStart") LocalDateTime dayStart,
+                                            @Param("dayEnd") LocalDateTime dayEnd);
+
+    // Export: cursor over a company's behaviors with a fixed fetch size
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM UserBehavior b WHERE b.userId IN (SELECT u.id FROM User u WHERE u.companyId = :companyId) " +
+           "AND b.timestamp >= :startTime AND b.timestamp < :endTime ORDER BY b.id")
+    Stream<UserBehavior> streamByCompanyAndTimestampRange(@Param("companyId") Long companyId,
+                                                          @Param("startTime") LocalDateTime startTime,
+                                                          @Param("endTime") LocalDateTime endTime);
+
+    // Seeds the incremental insight engine's recency window without loading raw rows
+    @Query("SELECT CAST(b.timestamp AS LocalDate), COUNT(b) FROM UserBehavior b WHERE b.userId = :userId " +
+           "AND b.timestamp >= :startTime GROUP BY CAST(b.timestamp AS LocalDate)")
+    List<Object[]> getDailyBehaviorCountsByUser(@Param("userId") Long userId, @Param("startTime") LocalDateTime startTime);
 }
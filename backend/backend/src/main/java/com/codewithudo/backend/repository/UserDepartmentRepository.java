@@ -27,4 +27,7 @@ public interface UserDepartmentRepository extends JpaRepository<UserDepartment,
     long countActiveByDepartment(@Param("departmentId") Long departmentId);
     
     boolean existsByUserIdAndDepartmentId(Long userId, Long departmentId);
+    
+    @Query("SELECT DISTINCT ud.userId FROM UserDepartment ud WHERE ud.departmentId = :departmentId AND ud.isActive = true")
+    List<Long> findActiveUserIdsByDepartmentId(@Param("departmentId") Long departmentId);
 }
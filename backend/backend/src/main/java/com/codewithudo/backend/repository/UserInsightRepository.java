@@ -2,11 +2,14 @@ package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.UserInsight;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -92,4 +95,22 @@ public interface UserInsightRepository extends JpaRepository<UserInsight, Long>
             @Param("userId") Long userId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT i FROM UserInsight i WHERE i.userId = :userId AND i.insightType IN :insightTypes " +
+           "AND i.isActioned = false AND (i.expiresAt IS NULL OR i.expiresAt > :currentTime) " +
+           "ORDER BY i.createdAt DESC")
+    List<UserInsight> findOpenInsightsByUserAndTypes(
+            @Param("userId") Long userId,
+            @Param("insightTypes") Collection<UserInsight.InsightType> insightTypes,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserInsight i SET i.expiresAt = :currentTime, i.updatedAt = :currentTime " +
+           "WHERE i.userId = :userId AND i.insightType = :insightType AND i.isActioned = false " +
+           "AND (i.expiresAt IS NULL OR i.expiresAt > :currentTime)")
+    int expireOpenInsights(
+            @Param("userId") Long userId,
+            @Param("insightType") UserInsight.InsightType insightType,
+            @Param("currentTime") LocalDateTime currentTime);
 }
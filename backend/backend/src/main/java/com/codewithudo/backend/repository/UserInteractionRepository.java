@@ -35,4 +35,7 @@ public interface UserInteractionRepository extends JpaRepository<UserInteraction
     Long countInteractionsSince(@Param("userId") Long userId, 
                                @Param("type") UserInteraction.InteractionType type, 
                                @Param("since") LocalDateTime since);
+    
+    @Query("SELECT COUNT(ui) FROM UserInteraction ui WHERE ui.createdAt >= :dayStart AND ui.createdAt < :dayEnd")
+    Long countCreatedInRange(@Param("dayStart") LocalDateTime dayStart, @Param("dayEnd") LocalDateTime dayEnd);
 }
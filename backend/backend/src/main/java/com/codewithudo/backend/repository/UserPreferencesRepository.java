@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +15,8 @@ public interface UserPreferencesRepository extends JpaRepository<UserPreferences
     
     Optional<UserPreferences> findByUserId(Long userId);
     
+    List<UserPreferences> findByUserIdIn(Collection<Long> userIds);
+    
     List<UserPreferences> findByIsAvailableForMatchingTrue();
     
     @Query("SELECT up FROM UserPreferences up WHERE up.isAvailableForMatching = true AND up.userId != :userId")
@@ -1,14 +1,17 @@
 package com.codewithudo.backend.repository;
 
 import com.codewithudo.backend.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +20,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
+    // Row lock held until commit; serializes calendar changes across instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
+    
     Optional<User> findByEmailAndIsActiveTrue(String email);
     
     List<User> findByCompanyIdAndIsActiveTrue(Long companyId);
@@ -26,6 +34,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     List<User> findByIsActiveTrue();
     
+    @Query("SELECT u.id FROM User u WHERE u.companyId = :companyId AND u.isActive = true")
+    List<Long> findActiveIdsByCompanyId(@Param("companyId") Long companyId);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.isActive = true")
+    List<Long> findActiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt BETWEEN :startDate AND :endDate")
     Long countByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
@@ -37,22 +51,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.isActive = true")
     List<User> findActiveUsers();
     
-    // Advanced search methods
-    Page<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email, Pageable pageable);
-    
     Page<User> findByIsActiveTrue(Pageable pageable);
     
-    List<User> findTop5ByNameContainingIgnoreCaseAndIsActiveTrue(String name);
-    
-    @Query("SELECT u FROM User u WHERE u.isActive = true AND " +
-           "(LOWER(u.name) LIKE LOWER(:query) OR LOWER(u.email) LIKE LOWER(:query)) AND " +
-           "(:industry = '%' OR LOWER(u.industry) LIKE LOWER(:industry)) AND " +
-           "(:skills = '%' OR LOWER(u.skills) LIKE LOWER(:skills))")
-    Page<User> findUsersWithFilters(@Param("query") String query,
-                                   @Param("industry") String industry,
-                                   @Param("skills") String skills,
-                                   @Param("location") String location,
-                                   Pageable pageable);
+    // Keyset batches for rebuilding the search index
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
     
     @Query("SELECT u FROM User u WHERE u.isActive = true AND u.id != :userId")
     List<User> findAllActiveUsersExcept(@Param("userId") Long userId);
@@ -68,4 +70,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Long countByCompanyIdAndLastActiveDateBetween(@Param("companyId") Long companyId, 
                                                  @Param("startDate") LocalDateTime startDate, 
                                                  @Param("endDate") LocalDateTime endDate);
+    
+    // Platform snapshot: every user metric in a single pass over users
+    @Query("SELECT COUNT(u), " +
+           "COALESCE(SUM(CASE WHEN u.createdAt >= :dayStart THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.lastActiveDate >= :dayStart AND u.lastActiveDate < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.lastActiveDate >= :weekStart AND u.lastActiveDate < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.lastActiveDate >= :monthStart AND u.lastActiveDate < :dayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.createdAt >= :cohort7Start AND u.createdAt < :cohort7End THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.createdAt >= :cohort7Start AND u.createdAt < :cohort7End " +
+           "AND u.lastActiveDate >= :weekStart THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.createdAt >= :cohort30Start AND u.createdAt < :cohort30End THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN u.createdAt >= :cohort30Start AND u.createdAt < :cohort30End " +
+           "AND u.lastActiveDate >= :monthStart THEN 1 ELSE 0 END), 0) " +
+           "FROM User u WHERE u.createdAt < :dayEnd")
+    List<Object[]> getPlatformSnapshotStats(@Param("dayStart") LocalDateTime dayStart,
+                                            @Param("dayEnd") LocalDateTime dayEnd,
+                                            @Param("weekStart") LocalDateTime weekStart,
+                                            @Param("monthStart") LocalDateTime monthStart,
+                                            @Param("cohort7Start") LocalDateTime cohort7Start,
+                                            @Param("cohort7End") LocalDateTime cohort7End,
+                                            @Param("cohort30Start") LocalDateTime cohort30Start,
+                                            @Param("cohort30End") LocalDateTime cohort30End);
 }
@@ -1,10 +1,10 @@
 package com.codewithudo.backend.security;
 
+import com.codewithudo.backend.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -13,48 +13,94 @@ import java.util.Date;
 @Component
 public class JwtTokenProvider {
     
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_COMPANY_ID = "cid";
+    // "iat" has whole seconds only; revocation needs to tell a token from one issued later that second
+    static final String CLAIM_ISSUED_AT_MILLIS = "iatms";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
     
-    public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+    /**
+     * Issues a token carrying everything needed to authenticate later requests without a lookup
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
         
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
-                .compact();
+        JwtBuilder builder = Jwts.builder()
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .issuedAt(now)
+                .claim(CLAIM_ISSUED_AT_MILLIS, now.getTime())
+                .expiration(expiryDate);
+        if (user.getCompanyId() != null) {
+            builder.claim(CLAIM_COMPANY_ID, user.getCompanyId());
+        }
+        return builder.signWith(signingKey, Jwts.SIG.HS512).compact();
+    }
+    
+    /**
+     * Verifies the token once and returns its claims, or null if it is invalid or expired
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Issue time in epoch millis; tokens without the millisecond claim count as issued at the
+     * end of their "iat" second, so a revocation in that second still covers them
+     */
+    public long issuedAtMillis(Claims claims) {
+        Number millis = claims.get(CLAIM_ISSUED_AT_MILLIS, Number.class);
+        if (millis != null) {
+            return millis.longValue();
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant().getEpochSecond() * 1000 + 999 : 0;
+    }
+    
+    /**
+     * Principal from verified claims, or null for tokens issued before user IDs were embedded
+     */
+    public UserPrincipal toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        Number companyId = claims.get(CLAIM_COMPANY_ID, Number.class);
+        return new UserPrincipal(userId.longValue(), claims.getSubject(), User.UserRole.valueOf(role),
+                companyId != null ? companyId.longValue() : null);
     }
     
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getSubject();
+        return parser.parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
     }
     
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseClaims(token) != null;
     }
 }
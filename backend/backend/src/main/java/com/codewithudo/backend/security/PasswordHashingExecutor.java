@@ -0,0 +1,129 @@
+package com.codewithudo.backend.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt work (password verification on login, hashing on registration) on a pool sized to the CPU count with a
+ * bounded queue. BCrypt is CPU-bound, so more threads than cores only add contention; when
+ * the queue is full the caller gets a {@link RejectedExecutionException} straight away and
+ * can answer 503. Tasks are handed back as futures, so request threads never wait on the pool.
+ *
+ * <p>The database lookups, inserts and token issuing around a hash run on a second, separate
+ * bounded pool ({@link #submitDatabaseWork}), so database latency never occupies a hashing thread.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor databaseExecutor;
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public PasswordHashingExecutor(@Value("${app.security.password-hashing.threads:0}") int threads,
+                                   @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.password-hashing.timeout-ms:5000}") long timeoutMs,
+                                   @Value("${app.security.password-hashing.database-threads:16}") int databaseThreads,
+                                   @Value("${app.security.password-hashing.database-queue-capacity:256}") int databaseQueueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = boundedPool("password-hashing-", poolSize, queueCapacity);
+        this.databaseExecutor = boundedPool("auth-database-", databaseThreads, databaseQueueCapacity);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        databaseExecutor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        databaseExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues the task on the pool without waiting for it, so the request thread is released
+     * while BCrypt runs. The returned future fails with {@link RejectedExecutionException} when
+     * the queue is full and with {@link TimeoutException} when no result arrives within the
+     * timeout. A running hash cannot be interrupted, so a timeout only stops the caller waiting;
+     * a task still queued when its timeout passes is skipped instead of hashed for nobody.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(executor, task);
+    }
+
+    /**
+     * Queues database or token work that precedes or follows a hash, with the same rejection
+     * and timeout behaviour as {@link #submit}, but on the separate database pool.
+     */
+    public <T> CompletableFuture<T> submitDatabaseWork(Callable<T> task) {
+        return submit(databaseExecutor, task);
+    }
+
+    private <T> CompletableFuture<T> submit(ThreadPoolExecutor pool, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<T>().orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                timedOut.increment();
+            }
+        });
+        try {
+            pool.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(task.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Completed, rejected and timed-out tasks are counted across both pools
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueRemaining", executor.getQueue().remainingCapacity());
+        stats.put("completed", completed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("databaseThreads", databaseExecutor.getMaximumPoolSize());
+        stats.put("databaseActive", databaseExecutor.getActiveCount());
+        stats.put("databaseQueued", databaseExecutor.getQueue().size());
+        return stats;
+    }
+
+    private static ThreadPoolExecutor boundedPool(String namePrefix, int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
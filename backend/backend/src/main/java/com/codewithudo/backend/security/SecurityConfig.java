@@ -25,14 +25,17 @@ public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final org.springframework.security.core.userdetails.UserDetailsService userDetailsService;
+    private final org.springframework.security.core.userdetails.UserDetailsPasswordService userDetailsPasswordService;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
     
     public SecurityConfig(
             JwtAuthenticationFilter jwtAuthenticationFilter,
             org.springframework.security.core.userdetails.UserDetailsService userDetailsService,
+            org.springframework.security.core.userdetails.UserDetailsPasswordService userDetailsPasswordService,
             org.springframework.security.crypto.password.PasswordEncoder passwordEncoder) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
         this.passwordEncoder = passwordEncoder;
     }
     
@@ -65,6 +68,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
+        // Re-encodes hashes weaker than the configured BCrypt strength after a successful login
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return provider;
     }
     
@@ -0,0 +1,140 @@
+package com.codewithudo.backend.security;
+
+import com.codewithudo.backend.entity.RevokedToken;
+import com.codewithudo.backend.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tokens revoked before they expire: a single token on logout, or every token of a user on
+ * deactivation. An entry is only kept until the tokens it covers would have expired anyway,
+ * so the set stays small and checking it on every request is two map lookups (none while it
+ * is empty).
+ *
+ * <p>Revocations are written to {@code revoked_tokens} and loaded on startup, and every node
+ * picks up the ones written by others on its next sync, {@code sync-interval-ms} at most.
+ * Requests are only ever checked against the in-memory copy.
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry {
+
+    // Rows committed late by another node's transaction are still picked up by a later sync
+    private static final long SYNC_OVERLAP_MS = 30_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long tokenLifetimeMs;
+
+    // token key -> expiry (epoch ms) of the revoked token
+    private final Map<TokenKey, Long> revokedTokens = new ConcurrentHashMap<>();
+    // user id -> epoch ms; the user's tokens issued at or before it are revoked
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder synced = new LongAdder();
+    private volatile long lastSyncAt;
+
+    public TokenRevocationRegistry(RevokedTokenRepository revokedTokenRepository,
+                                   @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    @PostConstruct
+    void load() {
+        long now = System.currentTimeMillis();
+        lastSyncAt = now;
+        List<RevokedToken> entries = revokedTokenRepository.findByExpiresAtGreaterThan(now);
+        entries.forEach(this::apply);
+        log.info("Loaded {} token revocations", entries.size());
+    }
+
+    void revokeToken(TokenKey key, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis > now) {
+            revokedTokens.put(key, expiresAtMillis);
+            revokedTokenRepository.save(new RevokedToken(null, key.high(), key.low(), null, null, expiresAtMillis, now));
+        }
+    }
+
+    /**
+     * Revokes every token issued to the user up to now.
+     */
+    public void revokeAllForUser(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedUsers.merge(userId, now, Math::max);
+        revokedTokenRepository.save(new RevokedToken(null, null, null, userId, now, now + tokenLifetimeMs, now));
+    }
+
+    boolean isRevoked(TokenKey key, Long userId, long issuedAtMillis) {
+        boolean revoked = (!revokedTokens.isEmpty() && revokedTokens.containsKey(key))
+                || (!revokedUsers.isEmpty() && isUserRevoked(userId, issuedAtMillis));
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Applies revocations written since the last sync, including those from other nodes.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        long since = lastSyncAt - SYNC_OVERLAP_MS;
+        try {
+            List<RevokedToken> entries = revokedTokenRepository.findByCreatedAtGreaterThanEqual(since);
+            entries.forEach(this::apply);
+            synced.add(entries.size());
+            lastSyncAt = now;
+        } catch (Exception e) {
+            log.warn("Syncing token revocations failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token-cache.prune-interval-ms:60000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + tokenLifetimeMs <= now);
+        try {
+            revokedTokenRepository.deleteExpired(now);
+        } catch (Exception e) {
+            log.warn("Deleting expired token revocations failed", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedUsers", revokedUsers.size());
+        stats.put("rejected", rejected.sum());
+        stats.put("syncedEntries", synced.sum());
+        stats.put("lastSyncAt", lastSyncAt);
+        return stats;
+    }
+
+    // Applying an entry twice has no further effect, so syncs may overlap
+    private void apply(RevokedToken entry) {
+        if (entry.getTokenKeyHigh() != null && entry.getTokenKeyLow() != null) {
+            if (entry.getExpiresAt() > System.currentTimeMillis()) {
+                revokedTokens.put(new TokenKey(entry.getTokenKeyHigh(), entry.getTokenKeyLow()), entry.getExpiresAt());
+            }
+        } else if (entry.getUserId() != null && entry.getRevokedBefore() != null) {
+            revokedUsers.merge(entry.getUserId(), entry.getRevokedBefore(), Math::max);
+        }
+    }
+
+    private boolean isUserRevoked(Long userId, long issuedAtMillis) {
+        Long revokedAt = revokedUsers.get(userId);
+        return revokedAt != null && issuedAtMillis <= revokedAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.codewithudo.backend.security;
+
+import com.codewithudo.backend.entity.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+/**
+ * Authenticated user as carried in the JWT claims. Built by {@link JwtAuthenticationFilter}
+ * without a database lookup. {@link #getName()} is the user ID, which is also the name used
+ * for WebSocket user destinations.
+ */
+public final class UserPrincipal implements Principal {
+
+    private final Long userId;
+    private final String email;
+    private final User.UserRole role;
+    private final Long companyId;
+
+    public UserPrincipal(Long userId, String email, User.UserRole role, Long companyId) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.companyId = companyId;
+    }
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getCompanyId());
+    }
+
+    /**
+     * Principal of the current request.
+     */
+    public static UserPrincipal current() {
+        return of(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public static UserPrincipal of(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new RuntimeException("No authenticated user");
+        }
+        return principal;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[" + userId + "]";
+    }
+}
@@ -0,0 +1,136 @@
+package com.codewithudo.backend.security;
+
+import com.codewithudo.backend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verified principals keyed by a hash of the raw token, so a token the client replays on
+ * every request is only signature-checked once per TTL. An entry never outlives the token's
+ * own expiry, and every hit is checked against {@link TokenRevocationRegistry} so logout and
+ * deactivation take effect immediately.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private final JwtTokenProvider tokenProvider;
+    private final UserRepository userRepository;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final boolean enabled;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<TokenKey, CachedToken> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+
+    public VerifiedTokenCache(JwtTokenProvider tokenProvider,
+                              UserRepository userRepository,
+                              TokenRevocationRegistry revocationRegistry,
+                              @Value("${app.security.token-cache.enabled:true}") boolean enabled,
+                              @Value("${app.security.token-cache.ttl-ms:300000}") long ttlMs,
+                              @Value("${app.security.token-cache.max-entries:100000}") int maxEntries) {
+        this.tokenProvider = tokenProvider;
+        this.userRepository = userRepository;
+        this.revocationRegistry = revocationRegistry;
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Principal for the token, or null if it is invalid, expired or revoked.
+     */
+    public UserPrincipal authenticate(String token) {
+        TokenKey key = TokenKey.of(token);
+        long now = System.currentTimeMillis();
+        CachedToken cached = enabled ? cache.get(key) : null;
+        if (cached != null && now < cached.cachedUntil) {
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = verify(token, now);
+            if (cached == null) {
+                invalid.increment();
+                return null;
+            }
+            if (enabled) {
+                put(key, cached);
+            }
+        }
+        return revocationRegistry.isRevoked(key, cached.principal.getUserId(), cached.issuedAtMillis)
+                ? null
+                : cached.principal;
+    }
+
+    /**
+     * Revokes a single token, e.g. on logout. Invalid tokens are ignored.
+     */
+    public void revoke(String token) {
+        TokenKey key = TokenKey.of(token);
+        CachedToken cached = cache.remove(key);
+        if (cached == null) {
+            cached = verify(token, System.currentTimeMillis());
+        }
+        if (cached != null) {
+            revocationRegistry.revokeToken(key, cached.tokenExpiresAt);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token-cache.prune-interval-ms:60000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.cachedUntil <= now);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(revocationRegistry.getStats());
+        stats.put("enabled", enabled);
+        stats.put("entries", cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalid", invalid.sum());
+        return stats;
+    }
+
+    private CachedToken verify(String token, long now) {
+        Claims claims = tokenProvider.parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        UserPrincipal principal = tokenProvider.toPrincipal(claims);
+        if (principal == null) {
+            // Tokens issued before user IDs were embedded still need one lookup until they expire
+            principal = userRepository.findByEmailAndIsActiveTrue(claims.getSubject())
+                    .map(UserPrincipal::from)
+                    .orElse(null);
+            if (principal == null) {
+                return null;
+            }
+        }
+        long tokenExpiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now + ttlMs;
+        return new CachedToken(principal, tokenProvider.issuedAtMillis(claims), tokenExpiresAt,
+                Math.min(tokenExpiresAt, now + ttlMs));
+    }
+
+    private void put(TokenKey key, CachedToken cached) {
+        if (cache.size() >= maxEntries) {
+            log.debug("Verified token cache full ({} entries), clearing", cache.size());
+            cache.clear();
+        }
+        cache.put(key, cached);
+    }
+
+    private record CachedToken(UserPrincipal principal, long issuedAtMillis, long tokenExpiresAt, long cachedUntil) {
+    }
+}
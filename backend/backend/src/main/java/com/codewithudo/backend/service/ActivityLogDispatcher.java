@@ -0,0 +1,78 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.ActivityLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records gamification activity off the request thread. Activity logging also updates
+ * streaks and evaluates badges, which should not hold up latency-sensitive paths such as
+ * login. A single worker applies the activities in order, so streak updates for one user
+ * never race each other. When the queue is full activities are dropped and counted rather
+ * than slowing the caller down.
+ */
+@Service
+@Slf4j
+public class ActivityLogDispatcher {
+
+    private final GamificationService gamificationService;
+    private final ThreadPoolExecutor worker;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public ActivityLogDispatcher(GamificationService gamificationService,
+                                 @Value("${app.gamification.activity-queue-capacity:10000}") int queueCapacity) {
+        this.gamificationService = gamificationService;
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "activity-log");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public void logActivity(Long userId, ActivityLog.ActivityType activityType, Long entityId, String activityData) {
+        try {
+            worker.execute(() -> {
+                try {
+                    gamificationService.logActivity(userId, activityType, entityId, activityData);
+                } catch (Exception e) {
+                    failed.increment();
+                    log.warn("Logging {} activity for user {} failed", activityType, userId, e);
+                }
+            });
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.debug("Activity queue full, dropped {} activity for user {}", activityType, userId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", worker.getQueue().size());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", worker.getCompletedTaskCount());
+        stats.put("failed", failed.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+}
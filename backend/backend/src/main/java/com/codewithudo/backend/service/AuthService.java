@@ -3,63 +3,118 @@ package com.codewithudo.backend.service;
 import com.codewithudo.backend.dto.AuthResponseDto;
 import com.codewithudo.backend.dto.UserLoginDto;
 import com.codewithudo.backend.dto.UserProfileDto;
+import com.codewithudo.backend.dto.UserRegistrationDto;
 import com.codewithudo.backend.entity.ActivityLog;
+import com.codewithudo.backend.entity.User;
 import com.codewithudo.backend.security.JwtTokenProvider;
+import com.codewithudo.backend.security.PasswordHashingExecutor;
+import com.codewithudo.backend.security.UserPrincipal;
+import com.codewithudo.backend.security.VerifiedTokenCache;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
     
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private PasswordEncoder passwordEncoder;
     
     @Autowired
     private JwtTokenProvider tokenProvider;
     
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+    
     @Autowired
     private UserService userService;
     
     @Autowired
-    private GamificationService gamificationService;
+    private PasswordHashingExecutor passwordHashingExecutor;
     
-    public AuthResponseDto login(UserLoginDto loginDto) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginDto.getEmail(), loginDto.getPassword())
-        );
-        
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        
-        String jwt = tokenProvider.generateToken(authentication);
-        UserProfileDto userProfile = userService.getUserProfileByEmail(loginDto.getEmail())
-                .orElseThrow(() -> new RuntimeException("User profile not found"));
+    @Autowired
+    private ActivityLogDispatcher activityLogDispatcher;
+    
+    // Unknown emails are checked against this hash too, so response times do not reveal which emails exist
+    private String unknownUserHash;
+    
+    @PostConstruct
+    void init() {
+        unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Only BCrypt runs on the bounded hashing pool; the user lookup, hash upgrade and token
+     * issuing run on its database pool. The future fails with RejectedExecutionException or
+     * TimeoutException when either pool is saturated
+     */
+    public CompletableFuture<AuthResponseDto> login(UserLoginDto loginDto) {
+        return passwordHashingExecutor.submitDatabaseWork(() -> userService.findActiveByEmail(loginDto.getEmail()))
+                .thenCompose(user -> passwordHashingExecutor.submit(() -> verify(user, loginDto.getPassword())))
+                .thenCompose(verified -> passwordHashingExecutor.submitDatabaseWork(() -> completeLogin(verified)));
+    }
+    
+    /**
+     * Checks the email, hashes on the hashing pool, then inserts on the database pool
+     */
+    public CompletableFuture<UserProfileDto> register(UserRegistrationDto registrationDto) {
+        return passwordHashingExecutor.submitDatabaseWork(() -> {
+                    userService.requireEmailAvailable(registrationDto.getEmail());
+                    return registrationDto;
+                })
+                .thenCompose(dto -> passwordHashingExecutor.submit(() -> passwordEncoder.encode(dto.getPassword())))
+                .thenCompose(hash -> passwordHashingExecutor.submitDatabaseWork(
+                        () -> userService.registerUser(registrationDto, hash)));
+    }
+    
+    // Runs on the hashing pool; re-encodes hashes weaker than the configured strength while the password is at hand
+    private VerifiedLogin verify(Optional<User> user, String password) {
+        String hash = user.map(User::getPasswordHash).orElse(unknownUserHash);
+        if (!passwordEncoder.matches(password, hash) || user.isEmpty()) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        String upgradedHash = passwordEncoder.upgradeEncoding(hash) ? passwordEncoder.encode(password) : null;
+        return new VerifiedLogin(user.get(), upgradedHash);
+    }
+    
+    private AuthResponseDto completeLogin(VerifiedLogin verified) {
+        User user = verified.user();
+        if (verified.upgradedHash() != null) {
+            userService.updatePasswordHash(user, verified.upgradedHash());
+        }
+        String jwt = tokenProvider.generateToken(user);
+        UserProfileDto userProfile = UserProfileDto.fromUser(user);
         
-        // Log login activity for gamification
-        gamificationService.logActivity(userProfile.getId(), ActivityLog.ActivityType.LOGIN, null, null);
+        // Log login activity for gamification; streaks and badges are evaluated in the background
+        activityLogDispatcher.logActivity(userProfile.getId(), ActivityLog.ActivityType.LOGIN, null, null);
         
         return new AuthResponseDto(jwt, userProfile, "Login successful");
     }
     
     public UserProfileDto getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) {
-            throw new RuntimeException("No authenticated user");
-        }
-        Object principal = authentication.getPrincipal();
-        String currentUserEmail;
-        if (principal instanceof UserDetails userDetails) {
-            currentUserEmail = userDetails.getUsername();
-        } else if (principal instanceof String s) {
-            currentUserEmail = s;
-        } else {
-            throw new RuntimeException("Unrecognized principal type: " + principal.getClass().getName());
-        }
-        return userService.getUserProfileByEmail(currentUserEmail)
+        UserPrincipal principal = UserPrincipal.current();
+        return userService.getUserProfileByEmail(principal.getEmail())
                 .orElseThrow(() -> new RuntimeException("Current user not found"));
     }
+    
+    /**
+     * Revokes the bearer token so it stops working immediately, not only at its expiry
+     */
+    public void logout(String authorizationHeader) {
+        if (StringUtils.hasText(authorizationHeader) && authorizationHeader.startsWith("Bearer ")) {
+            tokenCache.revoke(authorizationHeader.substring(7));
+        }
+        SecurityContextHolder.clearContext();
+    }
+    
+    private record VerifiedLogin(User user, String upgradedHash) {
+    }
 }
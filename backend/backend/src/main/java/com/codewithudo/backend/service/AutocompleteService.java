@@ -0,0 +1,269 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.Lounge;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.LoungeRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.util.WeightedRadixTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory autocomplete over user names, skills, industries, lounge topics and lounge tags.
+ * Each term is weighted by how many users or lounges carry it, so common skills surface
+ * before rare ones. Terms from a user belong to that user's company and are only suggested
+ * to members of it; users without a company contribute nothing. Lounge terms and the
+ * built-in seed terms are visible to everyone.
+ *
+ * <p>Suggestions never touch the database: the tries are loaded once at startup and then
+ * kept current from entity writes through {@link SearchIndexEntityListener}. Writes that
+ * arrive while the load is still reading are held and applied after it, so a row the load
+ * read before it changed cannot overwrite the newer state. Multi-word terms are reachable
+ * from the start of every word, so "smi" finds "John Smith".
+ */
+@Service
+@Slf4j
+public class AutocompleteService {
+
+    private static final long GLOBAL_SCOPE = 0L;
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final List<String> SEED_INDUSTRIES = List.of(
+        "Technology", "Healthcare", "Finance", "Education", "Marketing",
+        "Sales", "Engineering", "Design", "Operations", "Consulting"
+    );
+    private static final List<String> SEED_SKILLS = List.of(
+        "Java", "Python", "JavaScript", "React", "Angular", "Node.js",
+        "Project Management", "Data Analysis", "Machine Learning",
+        "Cloud Computing", "DevOps", "UI/UX Design"
+    );
+
+    private final UserRepository userRepository;
+    private final LoungeRepository loungeRepository;
+    private final int loadBatchSize;
+
+    private final Map<Long, WeightedRadixTrie> tries = new ConcurrentHashMap<>();
+    // What each entity last contributed, so an update can take back its old terms
+    private final Map<String, Contribution> contributions = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+
+    // Guarded by this
+    private boolean loading;
+    private final List<Runnable> heldDuringLoad = new ArrayList<>();
+
+    private record Contribution(long scope, List<String> terms) {
+    }
+
+    public AutocompleteService(UserRepository userRepository,
+                               LoungeRepository loungeRepository,
+                               @Value("${app.search.autocomplete.load-batch-size:1000}") int loadBatchSize) {
+        this.userRepository = userRepository;
+        this.loungeRepository = loungeRepository;
+        this.loadBatchSize = loadBatchSize;
+        SEED_INDUSTRIES.forEach(term -> apply(GLOBAL_SCOPE, term, 1));
+        SEED_SKILLS.forEach(term -> apply(GLOBAL_SCOPE, term, 1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+        }
+        Thread thread = new Thread(this::loadSafely, "autocomplete-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Replaces whatever the entity contributed before with its current terms.
+     */
+    public synchronized void update(Object entity) {
+        if (loading) {
+            heldDuringLoad.add(() -> index(entity));
+        } else {
+            index(entity);
+        }
+    }
+
+    public synchronized void remove(Object entity) {
+        if (loading) {
+            heldDuringLoad.add(() -> unindex(entity));
+        } else {
+            unindex(entity);
+        }
+    }
+
+    private void index(Object entity) {
+        if (entity instanceof User user) {
+            List<String> terms = new ArrayList<>();
+            // Without a company there is no scope to keep the user's terms in
+            if (Boolean.TRUE.equals(user.getIsActive()) && user.getCompanyId() != null) {
+                terms.add(user.getName());
+                terms.addAll(split(user.getSkills()));
+                terms.add(user.getIndustry());
+            }
+            replace("USER:" + user.getId(), user.getCompanyId() != null ? user.getCompanyId() : GLOBAL_SCOPE, terms);
+        } else if (entity instanceof Lounge lounge) {
+            List<String> terms = new ArrayList<>();
+            if (Boolean.TRUE.equals(lounge.getIsActive()) && lounge.getVisibility() != Lounge.Visibility.PRIVATE) {
+                terms.add(lounge.getTopic());
+                terms.addAll(split(lounge.getTags()));
+            }
+            replace("LOUNGE:" + lounge.getId(), GLOBAL_SCOPE, terms);
+        }
+    }
+
+    private void unindex(Object entity) {
+        if (entity instanceof User user) {
+            replace("USER:" + user.getId(), GLOBAL_SCOPE, List.of());
+        } else if (entity instanceof Lounge lounge) {
+            replace("LOUNGE:" + lounge.getId(), GLOBAL_SCOPE, List.of());
+        }
+    }
+
+    /**
+     * Most popular terms starting with {@code prefix} that the caller's company may see.
+     */
+    public List<String> suggest(String prefix, Long companyId, int limit) {
+        lookups.increment();
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // A term reachable from several of its words can come back more than once
+        int fetch = limit * 3;
+        Map<String, WeightedRadixTrie.Entry> merged = new LinkedHashMap<>();
+        collect(GLOBAL_SCOPE, key, fetch, merged);
+        if (companyId != null) {
+            collect(companyId, key, fetch, merged);
+        }
+        return merged.values().stream()
+                .sorted(Comparator.comparingLong(WeightedRadixTrie.Entry::weight).reversed())
+                .limit(limit)
+                .map(WeightedRadixTrie.Entry::value)
+                .collect(Collectors.toList());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("scopes", tries.size());
+        stats.put("keys", tries.values().stream().mapToInt(WeightedRadixTrie::size).sum());
+        stats.put("entities", contributions.size());
+        stats.put("lookups", lookups.sum());
+        synchronized (this) {
+            stats.put("loading", loading);
+        }
+        return stats;
+    }
+
+    private void loadSafely() {
+        try {
+            long started = System.currentTimeMillis();
+            int users = 0;
+            long afterId = 0;
+            List<User> userBatch;
+            while (!(userBatch = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, loadBatchSize))).isEmpty()) {
+                indexAll(userBatch);
+                afterId = userBatch.get(userBatch.size() - 1).getId();
+                users += userBatch.size();
+            }
+            int lounges = 0;
+            afterId = 0;
+            List<Lounge> loungeBatch;
+            while (!(loungeBatch = loungeRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, loadBatchSize))).isEmpty()) {
+                indexAll(loungeBatch);
+                afterId = loungeBatch.get(loungeBatch.size() - 1).getId();
+                lounges += loungeBatch.size();
+            }
+            log.info("Autocomplete loaded from {} users and {} lounges in {} ms",
+                    users, lounges, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Loading autocomplete terms failed", e);
+        } finally {
+            finishLoad();
+        }
+    }
+
+    private synchronized void indexAll(List<?> entities) {
+        entities.forEach(this::index);
+    }
+
+    private synchronized void finishLoad() {
+        heldDuringLoad.forEach(Runnable::run);
+        heldDuringLoad.clear();
+        loading = false;
+    }
+
+    private void replace(String entityKey, long scope, List<String> terms) {
+        List<String> cleaned = terms.stream()
+                .filter(term -> term != null && !term.isBlank())
+                .map(String::trim)
+                .distinct()
+                .collect(Collectors.toList());
+        Contribution previous = cleaned.isEmpty()
+                ? contributions.remove(entityKey)
+                : contributions.put(entityKey, new Contribution(scope, cleaned));
+        if (previous != null) {
+            previous.terms().forEach(term -> apply(previous.scope(), term, -1));
+        }
+        cleaned.forEach(term -> apply(scope, term, 1));
+    }
+
+    private void apply(long scope, String term, long delta) {
+        String normalized = normalize(term);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        WeightedRadixTrie trie = tries.computeIfAbsent(scope, s -> new WeightedRadixTrie());
+        int wordStart = 0;
+        while (wordStart >= 0) {
+            // The full term after the separator keeps keys of different terms apart
+            trie.add(normalized.substring(wordStart) + KEY_SEPARATOR + normalized, term, delta);
+            int space = normalized.indexOf(' ', wordStart);
+            wordStart = space >= 0 ? space + 1 : -1;
+        }
+    }
+
+    private void collect(long scope, String prefix, int limit, Map<String, WeightedRadixTrie.Entry> merged) {
+        WeightedRadixTrie trie = tries.get(scope);
+        if (trie == null) {
+            return;
+        }
+        // Within a scope repeats are the same term; across scopes their weights add up
+        Map<String, WeightedRadixTrie.Entry> scoped = new LinkedHashMap<>();
+        for (WeightedRadixTrie.Entry entry : trie.top(prefix, limit)) {
+            scoped.putIfAbsent(normalize(entry.value()), entry);
+        }
+        scoped.forEach((term, entry) -> merged.merge(term, entry,
+                (a, b) -> new WeightedRadixTrie.Entry(a.value(), a.weight() + b.weight())));
+    }
+
+    private static List<String> split(String commaSeparated) {
+        if (commaSeparated == null || commaSeparated.isBlank()) {
+            return List.of();
+        }
+        return List.of(commaSeparated.split(","));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -23,6 +23,7 @@ public class BadgeService {
     private final UserBadgeRepository userBadgeRepository;
     private final ActivityLogRepository activityLogRepository;
     private final UserStreakRepository userStreakRepository;
+    private final NotificationService notificationService;
     
     @Transactional
     public void checkAndAwardBadges(Long userId, ActivityLog.ActivityType activityType) {
@@ -58,6 +59,9 @@ public class BadgeService {
         
         activityLogRepository.save(badgeLog);
         
+        // Coalesced, so a burst of badges from one activity arrives as a single digest
+        notificationService.createBadgeNotification(userId, badge.getName());
+        
         log.info("Badge '{}' awarded to user {}", badge.getName(), userId);
     }
     
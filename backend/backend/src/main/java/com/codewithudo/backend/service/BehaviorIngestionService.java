@@ -0,0 +1,268 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.dto.BehaviorEventDto;
+import com.codewithudo.backend.entity.UserBehavior;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.util.BoundedRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffers tracked behaviors in a lock-free ring and writes them to {@code user_behaviors}
+ * with JDBC batch inserts. A single flusher thread drains the ring whenever it reaches the
+ * batch size or the flush interval elapses, so request threads never wait on the database.
+ * A batch that fails to insert is retried row by row, so one bad row costs only itself.
+ */
+@Service
+@Slf4j
+public class BehaviorIngestionService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_behaviors (user_id, behavior_type, target_id, target_type, context, metadata, " +
+            "session_id, timestamp, duration_seconds, intensity_score, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Client clocks are trusted only within this window of the server clock
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofDays(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final InsightEngine insightEngine;
+    private final BoundedRingBuffer<UserBehavior> buffer;
+    private final int batchSize;
+    private final int maxEventsPerRequest;
+    private final long flushIntervalMs;
+
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private final LongAdder acceptedEvents = new LongAdder();
+    private final LongAdder rejectedEvents = new LongAdder();
+    private final LongAdder persistedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong lastFlushAt = new AtomicLong();
+    private final long startedAt = System.currentTimeMillis();
+
+    private ScheduledExecutorService flusher;
+
+    public BehaviorIngestionService(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    UserRepository userRepository,
+                                    InsightEngine insightEngine,
+                                    @Value("${app.insights.ingest.buffer-capacity:65536}") int bufferCapacity,
+                                    @Value("${app.insights.ingest.batch-size:500}") int batchSize,
+                                    @Value("${app.insights.ingest.max-events-per-request:500}") int maxEventsPerRequest,
+                                    @Value("${app.insights.ingest.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.insightEngine = insightEngine;
+        this.buffer = new BoundedRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.maxEventsPerRequest = maxEventsPerRequest;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "behavior-ingest-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopFlusher() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Validates the whole batch before enqueuing any of it, so an invalid batch is rejected
+     * as a whole. Returns the number of events accepted; events that do not fit in the
+     * buffer are counted as rejected so the client can retry them.
+     */
+    public int ingest(Long userId, List<BehaviorEventDto> events) {
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        validate(userId, events);
+
+        LocalDateTime now = LocalDateTime.now();
+        int accepted = 0;
+        for (BehaviorEventDto event : events) {
+            if (!buffer.offer(toBehavior(userId, event, now))) {
+                break;
+            }
+            accepted++;
+        }
+
+        acceptedEvents.add(accepted);
+        rejectedEvents.add(events.size() - accepted);
+        if (buffer.size() >= batchSize) {
+            requestFlush();
+        }
+        return accepted;
+    }
+
+    public Map<String, Object> getStats() {
+        long persisted = persistedEvents.sum();
+        long batches = flushedBatches.sum();
+        double uptimeSeconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("acceptedEvents", acceptedEvents.sum());
+        stats.put("rejectedEvents", rejectedEvents.sum());
+        stats.put("persistedEvents", persisted);
+        stats.put("failedEvents", failedEvents.sum());
+        stats.put("flushedBatches", batches);
+        stats.put("queueDepth", buffer.size());
+        stats.put("queueCapacity", buffer.capacity());
+        stats.put("averageFlushMillis", batches == 0 ? 0.0 : flushNanos.sum() / 1_000_000.0 / batches);
+        stats.put("persistedEventsPerSecond", persisted / uptimeSeconds);
+        stats.put("lastFlushAt", lastFlushAt.get());
+        return stats;
+    }
+
+    private void validate(Long userId, List<BehaviorEventDto> events) {
+        String error = null;
+        if (events.size() > maxEventsPerRequest) {
+            error = "Batch exceeds " + maxEventsPerRequest + " events";
+        } else if (events.stream().anyMatch(event -> event == null || event.getBehaviorType() == null)) {
+            error = "Behavior type is required for every event";
+        } else if (!userRepository.existsById(userId)) {
+            error = "User not found";
+        }
+        if (error != null) {
+            rejectedEvents.add(events.size());
+            throw new RuntimeException(error);
+        }
+    }
+
+    // Size-triggered flushes are coalesced so at most one is queued behind the running flush
+    private void requestFlush() {
+        if (flushPending.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushPending.set(false);
+                flushSafely();
+            });
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Behavior ingestion flush failed", e);
+        }
+    }
+
+    void flush() {
+        List<UserBehavior> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            long start = System.nanoTime();
+            try {
+                List<Long> userIds = batch.stream().map(UserBehavior::getUserId).toList();
+                insightEngine.persistAndRecord(userIds, () -> insert(batch));
+            } finally {
+                flushNanos.add(System.nanoTime() - start);
+                lastFlushAt.set(System.currentTimeMillis());
+                batch.clear();
+            }
+        }
+    }
+
+    // Returns the rows stored
+    private List<UserBehavior> insert(List<UserBehavior> batch) {
+        try {
+            // One transaction, so a failed batch leaves no rows behind for the retry to duplicate
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), BehaviorIngestionService::bind));
+            persisted(batch);
+            return batch;
+        } catch (Exception e) {
+            log.warn("Batch insert of {} behaviors failed, retrying row by row", batch.size(), e);
+            return insertRowByRow(batch);
+        }
+    }
+
+    // Only the rows that fail on their own are dropped
+    private List<UserBehavior> insertRowByRow(List<UserBehavior> batch) {
+        List<UserBehavior> inserted = new ArrayList<>(batch.size());
+        for (UserBehavior behavior : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, behavior));
+                inserted.add(behavior);
+            } catch (Exception e) {
+                failedEvents.increment();
+                log.error("Dropping behavior of user {} after insert failure", behavior.getUserId(), e);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            persisted(inserted);
+        }
+        return inserted;
+    }
+
+    private void persisted(List<UserBehavior> behaviors) {
+        persistedEvents.add(behaviors.size());
+        flushedBatches.increment();
+    }
+
+    private static void bind(PreparedStatement ps, UserBehavior behavior) throws SQLException {
+        ps.setLong(1, behavior.getUserId());
+        ps.setString(2, behavior.getBehaviorType().name());
+        ps.setObject(3, behavior.getTargetId(), Types.BIGINT);
+        ps.setString(4, behavior.getTargetType());
+        ps.setString(5, behavior.getContext());
+        ps.setString(6, behavior.getMetadata());
+        ps.setString(7, behavior.getSessionId());
+        ps.setObject(8, behavior.getTimestamp());
+        ps.setObject(9, behavior.getDurationSeconds(), Types.INTEGER);
+        ps.setObject(10, behavior.getIntensityScore(), Types.DOUBLE);
+        ps.setObject(11, behavior.getCreatedAt());
+    }
+
+    private UserBehavior toBehavior(Long userId, BehaviorEventDto event, LocalDateTime now) {
+        UserBehavior behavior = new UserBehavior(userId, event.getBehaviorType(),
+                event.getTargetId(), event.getTargetType(), event.getContext());
+        behavior.setMetadata(event.getMetadata());
+        behavior.setSessionId(event.getSessionId());
+        behavior.setDurationSeconds(event.getDurationSeconds());
+        behavior.setIntensityScore(event.getIntensityScore());
+        behavior.setCreatedAt(now);
+
+        LocalDateTime timestamp = event.getTimestamp();
+        if (timestamp == null || timestamp.isAfter(now.plus(MAX_CLOCK_SKEW))
+                || timestamp.isBefore(now.minus(MAX_CLOCK_SKEW))) {
+            timestamp = now;
+        }
+        behavior.setTimestamp(timestamp);
+        return behavior;
+    }
+}
@@ -0,0 +1,212 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.ActivityLog;
+import com.codewithudo.backend.entity.AnalyticsData;
+import com.codewithudo.backend.entity.UserBehavior;
+import com.codewithudo.backend.repository.ActivityLogRepository;
+import com.codewithudo.backend.repository.AnalyticsDataRepository;
+import com.codewithudo.backend.repository.UserBehaviorRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams company history straight from a database cursor to the response body.
+ * Rows are detached from the persistence context as soon as they are written, so
+ * heap usage stays flat regardless of how many rows the export contains.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataExportService {
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private static final Map<String, Function<ActivityLog, Object>> ACTIVITY_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<AnalyticsData, Object>> ANALYTICS_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<UserBehavior, Object>> BEHAVIOR_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        ACTIVITY_COLUMNS.put("id", ActivityLog::getId);
+        ACTIVITY_COLUMNS.put("userId", ActivityLog::getUserId);
+        ACTIVITY_COLUMNS.put("activityType", ActivityLog::getActivityType);
+        ACTIVITY_COLUMNS.put("entityId", ActivityLog::getEntityId);
+        ACTIVITY_COLUMNS.put("pointsEarned", ActivityLog::getPointsEarned);
+        ACTIVITY_COLUMNS.put("activityData", ActivityLog::getActivityData);
+        ACTIVITY_COLUMNS.put("createdAt", ActivityLog::getCreatedAt);
+
+        ANALYTICS_COLUMNS.put("id", AnalyticsData::getId);
+        ANALYTICS_COLUMNS.put("companyId", AnalyticsData::getCompanyId);
+        ANALYTICS_COLUMNS.put("departmentId", AnalyticsData::getDepartmentId);
+        ANALYTICS_COLUMNS.put("metricType", AnalyticsData::getMetricType);
+        ANALYTICS_COLUMNS.put("metricValue", AnalyticsData::getMetricValue);
+        ANALYTICS_COLUMNS.put("metricCount", AnalyticsData::getMetricCount);
+        ANALYTICS_COLUMNS.put("date", AnalyticsData::getDate);
+        ANALYTICS_COLUMNS.put("periodType", AnalyticsData::getPeriodType);
+
+        BEHAVIOR_COLUMNS.put("id", UserBehavior::getId);
+        BEHAVIOR_COLUMNS.put("userId", UserBehavior::getUserId);
+        BEHAVIOR_COLUMNS.put("behaviorType", UserBehavior::getBehaviorType);
+        BEHAVIOR_COLUMNS.put("targetId", UserBehavior::getTargetId);
+        BEHAVIOR_COLUMNS.put("targetType", UserBehavior::getTargetType);
+        BEHAVIOR_COLUMNS.put("context", UserBehavior::getContext);
+        BEHAVIOR_COLUMNS.put("sessionId", UserBehavior::getSessionId);
+        BEHAVIOR_COLUMNS.put("durationSeconds", UserBehavior::getDurationSeconds);
+        BEHAVIOR_COLUMNS.put("intensityScore", UserBehavior::getIntensityScore);
+        BEHAVIOR_COLUMNS.put("timestamp", UserBehavior::getTimestamp);
+    }
+
+    private final ActivityLogRepository activityLogRepository;
+    private final AnalyticsDataRepository analyticsDataRepository;
+    private final UserBehaviorRepository userBehaviorRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportActivityLogs(Long companyId, LocalDate startDate, LocalDate endDate,
+                                   ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ActivityLog> rows = activityLogRepository.streamByCompanyAndCreatedAtRange(
+                companyId, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            return write(rows, ACTIVITY_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAnalyticsData(Long companyId, LocalDate startDate, LocalDate endDate,
+                                    ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<AnalyticsData> rows = analyticsDataRepository.streamByCompanyAndDateRange(
+                companyId, startDate, endDate)) {
+            return write(rows, ANALYTICS_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUserBehaviors(Long companyId, LocalDate startDate, LocalDate endDate,
+                                    ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<UserBehavior> rows = userBehaviorRepository.streamByCompanyAndTimestampRange(
+                companyId, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            return write(rows, BEHAVIOR_COLUMNS, format, out);
+        }
+    }
+
+    private <T> long write(Stream<T> rows, Map<String, Function<T, Object>> columns,
+                           ExportFormat format, OutputStream out) throws IOException {
+        return format == ExportFormat.CSV ? writeCsv(rows.iterator(), columns, out)
+                : writeNdjson(rows.iterator(), columns, out);
+    }
+
+    private <T> long writeCsv(Iterator<T> rows, Map<String, Function<T, Object>> columns,
+                              OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", columns.keySet()));
+        writer.newLine();
+
+        long written = 0;
+        while (rows.hasNext()) {
+            T row = rows.next();
+            boolean first = true;
+            for (Function<T, Object> column : columns.values()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(column.apply(row)));
+                first = false;
+            }
+            writer.newLine();
+            release(row, ++written, writer);
+        }
+        writer.flush();
+        return written;
+    }
+
+    private <T> long writeNdjson(Iterator<T> rows, Map<String, Function<T, Object>> columns,
+                                 OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        long written = 0;
+        while (rows.hasNext()) {
+            T row = rows.next();
+            generator.writeStartObject();
+            for (Map.Entry<String, Function<T, Object>> column : columns.entrySet()) {
+                writeJsonField(generator, column.getKey(), column.getValue().apply(row));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            release(row, ++written, generator);
+        }
+        generator.flush();
+        return written;
+    }
+
+    // Detach every row once written and push buffered output to the client periodically
+    private void release(Object row, long written, Flushable flushable) throws IOException {
+        entityManager.detach(row);
+        if (written % FLUSH_INTERVAL == 0) {
+            flushable.flush();
+        }
+    }
+
+    private void writeJsonField(JsonGenerator generator, String name, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else if (value instanceof Number number) {
+            generator.writeFieldName(name);
+            generator.writeNumber(number.toString());
+        } else {
+            generator.writeStringField(name, value.toString());
+        }
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
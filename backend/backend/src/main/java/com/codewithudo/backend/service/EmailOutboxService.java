@@ -0,0 +1,315 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.EmailOutboxMessage;
+import com.codewithudo.backend.entity.EmailOutboxMessage.OutboxStatus;
+import com.codewithudo.backend.repository.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent email outbox. Callers only insert a row; a background worker claims due rows in
+ * batches, renders them and hands each batch to {@link JavaMailSender#send(MimeMessage...)},
+ * which delivers the whole batch over a single SMTP connection.
+ *
+ * <p>Failed messages are retried with exponential backoff until {@code max-attempts} is
+ * reached and are then kept as {@code FAILED} for inspection. Rendering errors (missing
+ * template, bad address) are not retried. Parsed templates are cached by Thymeleaf
+ * ({@code spring.thymeleaf.cache}), so a template is only read and parsed once per node.
+ */
+@Service
+@Slf4j
+public class EmailOutboxService {
+
+    private static final String SELECT_DUE_SQL =
+            "SELECT id FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+            "ORDER BY next_attempt_at LIMIT ?";
+    private static final String CLAIM_SQL =
+            "UPDATE email_outbox SET status = 'SENDING', claimed_at = ? WHERE id = ? AND status = 'PENDING'";
+    private static final String DELETE_SQL = "DELETE FROM email_outbox WHERE id = ?";
+    private static final String RESCHEDULE_SQL =
+            "UPDATE email_outbox SET status = ?, attempts = ?, next_attempt_at = ?, claimed_at = NULL, last_error = ? " +
+            "WHERE id = ?";
+    private static final String RECOVER_SQL =
+            "UPDATE email_outbox SET status = 'PENDING', claimed_at = NULL WHERE status = 'SENDING' AND claimed_at < ?";
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {};
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender mailSender;
+    private final TemplateEngine templateEngine;
+    private final ObjectMapper objectMapper;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long claimTimeoutMs;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder retriedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+
+    private ScheduledExecutorService worker;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              JdbcTemplate jdbcTemplate,
+                              JavaMailSender mailSender,
+                              TemplateEngine templateEngine,
+                              ObjectMapper objectMapper,
+                              @Value("${spring.mail.username}") String fromEmail,
+                              @Value("${app.notifications.email.outbox.batch-size:50}") int batchSize,
+                              @Value("${app.notifications.email.outbox.max-batches-per-tick:20}") int maxBatchesPerTick,
+                              @Value("${app.notifications.email.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                              @Value("${app.notifications.email.outbox.max-attempts:8}") int maxAttempts,
+                              @Value("${app.notifications.email.outbox.backoff-base-ms:30000}") long backoffBaseMs,
+                              @Value("${app.notifications.email.outbox.backoff-max-ms:3600000}") long backoffMaxMs,
+                              @Value("${app.notifications.email.outbox.claim-timeout-ms:600000}") long claimTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mailSender = mailSender;
+        this.templateEngine = templateEngine;
+        this.objectMapper = objectMapper;
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxBatchesPerTick = maxBatchesPerTick;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+    }
+
+    @PostConstruct
+    void start() {
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.scheduleWithFixedDelay(this::drainSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues an HTML email rendered from {@code templateName}. Joins the caller's transaction
+     * if there is one, so the email is only sent if the surrounding work commits.
+     */
+    public void enqueueTemplate(String to, String subject, String templateName, Map<String, Object> variables) {
+        try {
+            enqueue(to, subject, templateName, objectMapper.writeValueAsString(variables), null);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize email variables", e);
+        }
+    }
+
+    /**
+     * Queues a plain-text email.
+     */
+    public void enqueueText(String to, String subject, String text) {
+        enqueue(to, subject, null, null, text);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", outboxRepository.countByStatus(OutboxStatus.PENDING));
+        stats.put("inFlight", outboxRepository.countByStatus(OutboxStatus.SENDING));
+        stats.put("failedRows", outboxRepository.countByStatus(OutboxStatus.FAILED));
+        stats.put("enqueued", enqueuedCount.sum());
+        stats.put("sent", sentCount.sum());
+        stats.put("retried", retriedCount.sum());
+        stats.put("failed", failedCount.sum());
+        stats.put("batches", batchCount.sum());
+        return stats;
+    }
+
+    private void enqueue(String to, String subject, String templateName, String variables, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setTemplateName(templateName);
+        message.setVariables(variables);
+        message.setBody(body);
+        message.setNextAttemptAt(now);
+        message.setCreatedAt(now);
+        outboxRepository.save(message);
+        enqueuedCount.increment();
+    }
+
+    private void drainSafely() {
+        try {
+            // Rows claimed by a node that died mid-send go back to the queue
+            jdbcTemplate.update(RECOVER_SQL, Timestamp.valueOf(LocalDateTime.now().minus(claimTimeoutMs, ChronoUnit.MILLIS)));
+            for (int i = 0; i < maxBatchesPerTick; i++) {
+                if (sendBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Email outbox run failed", e);
+        }
+    }
+
+    private int sendBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = jdbcTemplate.queryForList(SELECT_DUE_SQL, Long.class, Timestamp.valueOf(now), batchSize);
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        int[] claimed = jdbcTemplate.batchUpdate(CLAIM_SQL, due.stream()
+                .map(id -> new Object[] {Timestamp.valueOf(now), id})
+                .collect(Collectors.toList()));
+        List<Long> owned = new ArrayList<>(due.size());
+        for (int i = 0; i < claimed.length; i++) {
+            if (claimed[i] > 0) {
+                owned.add(due.get(i));
+            }
+        }
+        if (owned.isEmpty()) {
+            return due.size();
+        }
+
+        Map<MimeMessage, EmailOutboxMessage> rendered = new IdentityHashMap<>();
+        List<Object[]> failures = new ArrayList<>();
+        for (EmailOutboxMessage message : outboxRepository.findAllById(owned)) {
+            try {
+                rendered.put(render(message), message);
+            } catch (Exception e) {
+                // Retrying cannot fix a broken template or address
+                failures.add(failure(message, e, true));
+            }
+        }
+
+        List<Object[]> delivered = new ArrayList<>(rendered.size());
+        if (!rendered.isEmpty()) {
+            Map<Object, Exception> sendFailures = send(rendered);
+            batchCount.increment();
+            rendered.forEach((mime, message) -> {
+                Exception error = sendFailures.get(mime);
+                if (error == null) {
+                    delivered.add(new Object[] {message.getId()});
+                } else {
+                    failures.add(failure(message, error, false));
+                }
+            });
+        }
+
+        if (!delivered.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, delivered);
+            sentCount.add(delivered.size());
+        }
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESCHEDULE_SQL, failures);
+        }
+        return due.size();
+    }
+
+    /**
+     * Sends the batch over one connection and returns the messages that failed.
+     */
+    private Map<Object, Exception> send(Map<MimeMessage, EmailOutboxMessage> rendered) {
+        try {
+            mailSender.send(rendered.keySet().toArray(new MimeMessage[0]));
+            return Map.of();
+        } catch (MailSendException e) {
+            // Includes every message of the batch when the connection itself failed
+            return e.getFailedMessages();
+        } catch (MailException e) {
+            Map<Object, Exception> all = new IdentityHashMap<>();
+            rendered.keySet().forEach(mime -> all.put(mime, e));
+            return all;
+        }
+    }
+
+    private MimeMessage render(EmailOutboxMessage message) throws MessagingException, JsonProcessingException {
+        MimeMessage mime = mailSender.createMimeMessage();
+        boolean html = message.getTemplateName() != null;
+        MimeMessageHelper helper = new MimeMessageHelper(mime, html, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+
+        if (html) {
+            Context context = new Context();
+            if (message.getVariables() != null) {
+                objectMapper.readValue(message.getVariables(), VARIABLES_TYPE).forEach(context::setVariable);
+            }
+            helper.setText(templateEngine.process(message.getTemplateName(), context), true);
+        } else {
+            helper.setText(message.getBody() != null ? message.getBody() : "", false);
+        }
+        return mime;
+    }
+
+    private Object[] failure(EmailOutboxMessage message, Exception error, boolean permanent) {
+        int attempts = message.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        LocalDateTime nextAttemptAt = LocalDateTime.now();
+        if (giveUp) {
+            failedCount.increment();
+            log.warn("Giving up on email {} to {} after {} attempt(s): {}",
+                    message.getId(), message.getRecipient(), attempts, error.getMessage());
+        } else {
+            retriedCount.increment();
+            nextAttemptAt = nextAttemptAt.plus(backoffMs(attempts), ChronoUnit.MILLIS);
+            log.debug("Email {} failed (attempt {}), retrying at {}", message.getId(), attempts, nextAttemptAt, error);
+        }
+
+        String lastError = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        if (lastError.length() > 1000) {
+            lastError = lastError.substring(0, 1000);
+        }
+        return new Object[] {
+                (giveUp ? OutboxStatus.FAILED : OutboxStatus.PENDING).name(),
+                attempts,
+                Timestamp.valueOf(nextAttemptAt),
+                lastError,
+                message.getId()
+        };
+    }
+
+    private long backoffMs(int attempts) {
+        // base, 2x base, 4x base, ... capped at backoff-max-ms
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(backoffMaxMs, backoffBaseMs << shift);
+    }
+}
@@ -4,28 +4,15 @@ import com.codewithudo.backend.entity.Notification;
 import com.codewithudo.backend.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import java.util.Map;
 
 @Service
 public class EmailService {
     
     @Autowired
-    private JavaMailSender mailSender;
-    
-    @Autowired
-    private TemplateEngine templateEngine;
-    
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private EmailOutboxService emailOutboxService;
     
     @Value("${app.notifications.email.enabled:true}")
     private boolean emailEnabled;
@@ -34,48 +21,25 @@ public class EmailService {
     private String fromName;
     
     /**
-     * Send simple text email
+     * Queue simple text email for the outbox worker
      */
     public void sendSimpleEmail(String to, String subject, String text) {
         if (!emailEnabled) {
             return;
         }
         
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        
-        mailSender.send(message);
+        emailOutboxService.enqueueText(to, subject, text);
     }
     
     /**
-     * Send HTML email using template
+     * Queue HTML email; the template is rendered by the outbox worker
      */
     public void sendTemplateEmail(String to, String subject, String templateName, Map<String, Object> variables) {
         if (!emailEnabled) {
             return;
         }
         
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            Context context = new Context();
-            variables.forEach(context::setVariable);
-            
-            String htmlContent = templateEngine.process(templateName, context);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send email", e);
-        }
+        emailOutboxService.enqueueTemplate(to, subject, templateName, variables);
     }
     
     /**
@@ -0,0 +1,246 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.ScheduledMeeting;
+import com.codewithudo.backend.entity.UserPreferences;
+import com.codewithudo.backend.repository.ScheduledMeetingRepository;
+import com.codewithudo.backend.repository.UserPreferencesRepository;
+import com.codewithudo.backend.util.IntervalSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds times when every participant is free.
+ *
+ * <p>Each participant's working hours ({@code availabilityStartTime}-{@code availabilityEndTime}
+ * on weekdays, in their {@code preferredTimezone}; 09:00-17:00 server time when unset) become
+ * a sorted interval list over the horizon. The lists are intersected, and everyone's meetings,
+ * padded by the conflict buffer, are subtracted in one sweep. The work is proportional to
+ * the number of windows and meetings, not to how many candidate slots the horizon holds.
+ *
+ * <p>Slots are ranked by how comfortably they sit inside the least comfortable participant's
+ * day, so nobody is handed the last slot before they log off when a midday one exists. The
+ * soonest days come first, with at most a few slots from each.
+ *
+ * <p>Meeting times are {@link LocalDateTime}s in the server's zone, like the rest of the app.
+ */
+@Service
+@Slf4j
+public class FreeBusyService {
+
+    private static final LocalTime DEFAULT_DAY_START = LocalTime.of(9, 0);
+    private static final LocalTime DEFAULT_DAY_END = LocalTime.of(17, 0);
+    private static final long MINUTES_PER_DAY = Duration.ofDays(1).toMinutes();
+
+    public record Slot(LocalDateTime startTime, LocalDateTime endTime, double score) {
+    }
+
+    // Working hours in the participant's own zone; end before start means the window crosses midnight
+    private record Availability(ZoneId zone, LocalTime start, LocalTime end) {
+
+        long lengthMinutes() {
+            long minutes = Math.floorMod(Duration.between(start, end).toMinutes(), MINUTES_PER_DAY);
+            return minutes == 0 ? MINUTES_PER_DAY : minutes;
+        }
+    }
+
+    private final ScheduledMeetingRepository scheduledMeetingRepository;
+    private final UserPreferencesRepository userPreferencesRepository;
+    private final ZoneId serverZone = ZoneId.systemDefault();
+    private final int horizonDays;
+    private final int stepMinutes;
+    private final int bufferMinutes;
+    private final int minLeadMinutes;
+    private final int maxPerDay;
+    private final int maxParticipants;
+
+    public FreeBusyService(ScheduledMeetingRepository scheduledMeetingRepository,
+                           UserPreferencesRepository userPreferencesRepository,
+                           @Value("${app.meetings.suggestions.horizon-days:14}") int horizonDays,
+                           @Value("${app.meetings.suggestions.step-minutes:30}") int stepMinutes,
+                           @Value("${app.meetings.suggestions.buffer-minutes:30}") int bufferMinutes,
+                           @Value("${app.meetings.suggestions.min-lead-minutes:60}") int minLeadMinutes,
+                           @Value("${app.meetings.suggestions.max-per-day:2}") int maxPerDay,
+                           @Value("${app.meetings.suggestions.max-participants:20}") int maxParticipants) {
+        this.scheduledMeetingRepository = scheduledMeetingRepository;
+        this.userPreferencesRepository = userPreferencesRepository;
+        this.horizonDays = horizonDays;
+        this.stepMinutes = Math.max(1, stepMinutes);
+        this.bufferMinutes = bufferMinutes;
+        this.minLeadMinutes = minLeadMinutes;
+        this.maxPerDay = Math.max(1, maxPerDay);
+        this.maxParticipants = maxParticipants;
+    }
+
+    /**
+     * Up to {@code count} slots of {@code durationMinutes} that suit all participants, in
+     * chronological order.
+     */
+    public List<Slot> suggest(Collection<Long> participantIds, int durationMinutes, int count) {
+        Set<Long> participants = new LinkedHashSet<>(participantIds);
+        if (participants.isEmpty() || participants.size() > maxParticipants) {
+            throw new RuntimeException("Between 1 and " + maxParticipants + " participants are required");
+        }
+        if (durationMinutes <= 0 || count <= 0) {
+            return List.of();
+        }
+
+        Instant from = roundUp(Instant.now().plus(Duration.ofMinutes(minLeadMinutes)));
+        Instant to = from.plus(Duration.ofDays(horizonDays));
+        List<Availability> availabilities = loadAvailabilities(participants);
+
+        IntervalSet free = IntervalSet.of(from.toEpochMilli(), to.toEpochMilli());
+        for (Availability availability : availabilities) {
+            free = free.intersect(workingHours(availability, from, to));
+        }
+        free = free.subtract(busy(participants, from, to));
+        return pick(free, availabilities, Duration.ofMinutes(durationMinutes).toMillis(), count);
+    }
+
+    /**
+     * Whether none of the users has a meeting, other than {@code ignoredMeetingId}, within the
+     * conflict buffer of the given range.
+     */
+    public boolean isFree(Collection<Long> userIds, LocalDateTime startTime, LocalDateTime endTime, Long ignoredMeetingId) {
+        return scheduledMeetingRepository.findUsersMeetingsOverlapping(userIds,
+                        startTime.minusMinutes(bufferMinutes), endTime.plusMinutes(bufferMinutes)).stream()
+                .allMatch(meeting -> meeting.getId().equals(ignoredMeetingId));
+    }
+
+    private List<Availability> loadAvailabilities(Set<Long> participants) {
+        Map<Long, UserPreferences> preferences = userPreferencesRepository.findByUserIdIn(participants).stream()
+                .collect(Collectors.toMap(UserPreferences::getUserId, Function.identity(), (a, b) -> a));
+        return participants.stream()
+                .map(id -> availabilityOf(preferences.get(id)))
+                .collect(Collectors.toList());
+    }
+
+    private Availability availabilityOf(UserPreferences preferences) {
+        if (preferences == null) {
+            return new Availability(serverZone, DEFAULT_DAY_START, DEFAULT_DAY_END);
+        }
+        ZoneId zone = serverZone;
+        LocalTime start = DEFAULT_DAY_START;
+        LocalTime end = DEFAULT_DAY_END;
+        try {
+            if (preferences.getPreferredTimezone() != null && !preferences.getPreferredTimezone().isBlank()) {
+                zone = ZoneId.of(preferences.getPreferredTimezone().trim());
+            }
+            if (preferences.getAvailabilityStartTime() != null && preferences.getAvailabilityEndTime() != null) {
+                LocalTime parsedStart = LocalTime.parse(preferences.getAvailabilityStartTime().trim());
+                end = LocalTime.parse(preferences.getAvailabilityEndTime().trim());
+                start = parsedStart;
+            }
+        } catch (DateTimeException e) {
+            log.debug("Ignoring unreadable availability of user {}: {}", preferences.getUserId(), e.getMessage());
+        }
+        return new Availability(zone, start, end);
+    }
+
+    // One window per local weekday, starting the day before so overnight windows are covered
+    private IntervalSet workingHours(Availability availability, Instant from, Instant to) {
+        List<IntervalSet.Interval> windows = new ArrayList<>();
+        LocalDate last = to.atZone(availability.zone()).toLocalDate();
+        for (LocalDate day = from.atZone(availability.zone()).toLocalDate().minusDays(1); !day.isAfter(last); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            Instant start = day.atTime(availability.start()).atZone(availability.zone()).toInstant();
+            Instant end = start.plus(Duration.ofMinutes(availability.lengthMinutes()));
+            windows.add(new IntervalSet.Interval(start.toEpochMilli(), end.toEpochMilli()));
+        }
+        return IntervalSet.of(windows);
+    }
+
+    private IntervalSet busy(Set<Long> participants, Instant from, Instant to) {
+        Duration buffer = Duration.ofMinutes(bufferMinutes);
+        List<ScheduledMeeting> meetings = scheduledMeetingRepository.findUsersMeetingsOverlapping(participants,
+                toServerTime(from.minus(buffer)), toServerTime(to.plus(buffer)));
+        return IntervalSet.of(meetings.stream()
+                .filter(meeting -> meeting.getScheduledStartTime() != null && meeting.getScheduledEndTime() != null)
+                .map(meeting -> new IntervalSet.Interval(
+                        toInstant(meeting.getScheduledStartTime()).minus(buffer).toEpochMilli(),
+                        toInstant(meeting.getScheduledEndTime()).plus(buffer).toEpochMilli()))
+                .collect(Collectors.toList()));
+    }
+
+    private List<Slot> pick(IntervalSet free, List<Availability> availabilities, long durationMillis, int count) {
+        long stepMillis = Duration.ofMinutes(stepMinutes).toMillis();
+        List<Slot> picked = new ArrayList<>(count);
+        List<Slot> day = new ArrayList<>();
+        LocalDate currentDay = null;
+        for (IntervalSet.Interval interval : free.intervals()) {
+            for (long start = ceil(interval.start(), stepMillis); start + durationMillis <= interval.end(); start += stepMillis) {
+                Slot slot = new Slot(toServerTime(Instant.ofEpochMilli(start)),
+                        toServerTime(Instant.ofEpochMilli(start + durationMillis)),
+                        comfort(availabilities, start, durationMillis));
+                if (!slot.startTime().toLocalDate().equals(currentDay)) {
+                    takeBest(day, picked, count);
+                    if (picked.size() >= count) {
+                        return picked;
+                    }
+                    currentDay = slot.startTime().toLocalDate();
+                }
+                day.add(slot);
+            }
+        }
+        takeBest(day, picked, count);
+        return picked;
+    }
+
+    private void takeBest(List<Slot> day, List<Slot> picked, int count) {
+        day.stream()
+                .sorted(Comparator.comparingDouble(Slot::score).reversed())
+                .limit(Math.min(maxPerDay, count - picked.size()))
+                .sorted(Comparator.comparing(Slot::startTime))
+                .forEach(picked::add);
+        day.clear();
+    }
+
+    // 1 when the slot is centred in everyone's working hours, 0 when it touches someone's edge
+    private double comfort(List<Availability> availabilities, long startMillis, long durationMillis) {
+        double worst = 1.0;
+        for (Availability availability : availabilities) {
+            LocalTime local = Instant.ofEpochMilli(startMillis).atZone(availability.zone()).toLocalTime();
+            long offset = Math.floorMod(Duration.between(availability.start(), local).toMinutes(), MINUTES_PER_DAY);
+            double half = availability.lengthMinutes() / 2.0;
+            double middle = offset + durationMillis / 60_000.0 / 2;
+            worst = Math.min(worst, Math.max(0.0, 1.0 - Math.abs(middle - half) / half));
+        }
+        return worst;
+    }
+
+    private Instant roundUp(Instant instant) {
+        return Instant.ofEpochMilli(ceil(instant.toEpochMilli(), Duration.ofMinutes(stepMinutes).toMillis()));
+    }
+
+    private static long ceil(long value, long step) {
+        return Math.floorDiv(value + step - 1, step) * step;
+    }
+
+    private Instant toInstant(LocalDateTime time) {
+        return time.atZone(serverZone).toInstant();
+    }
+
+    private LocalDateTime toServerTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, serverZone);
+    }
+}
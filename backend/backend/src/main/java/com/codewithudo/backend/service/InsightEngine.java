@@ -0,0 +1,378 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.UserBehavior;
+import com.codewithudo.backend.entity.UserBehavior.BehaviorType;
+import com.codewithudo.backend.entity.UserInsight;
+import com.codewithudo.backend.entity.UserInsight.InsightType;
+import com.codewithudo.backend.repository.BehaviorDailyAggregateRepository;
+import com.codewithudo.backend.repository.UserBehaviorRepository;
+import com.codewithudo.backend.repository.UserInsightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental insight generation. Each user has a small set of running aggregates
+ * (counts per {@link BehaviorType}, a 30-day daily activity window and an engagement
+ * score) that is seeded once from grouped count queries and then updated as behaviors
+ * are persisted. Insights are only written when an aggregate crosses one of the
+ * generator thresholds, so the cost of generation no longer depends on history length
+ * and repeated calls do not accumulate duplicate insights.
+ *
+ * <p>Aggregates are per-node and evicted when idle; an evicted user is simply re-seeded
+ * from the database on the next event. Seeds and writes of a user are serialized by a
+ * striped lock, which writers hold from before their insert until the rows are applied, so
+ * every row is counted exactly once: either by the seed or by the write, never both.
+ */
+@Service
+@Slf4j
+public class InsightEngine {
+
+    private static final int WINDOW_DAYS = 30;
+    private static final int RECENT_DAYS = 7;
+
+    private final UserBehaviorRepository userBehaviorRepository;
+    private final UserInsightRepository userInsightRepository;
+    private final BehaviorDailyAggregateRepository behaviorDailyAggregateRepository;
+    private final long idleEvictionMs;
+    private final ReentrantLock[] seedLocks;
+
+    private final Map<Long, Aggregates> aggregatesByUser = new ConcurrentHashMap<>();
+
+    public InsightEngine(UserBehaviorRepository userBehaviorRepository,
+                         UserInsightRepository userInsightRepository,
+                         BehaviorDailyAggregateRepository behaviorDailyAggregateRepository,
+                         @Value("${app.insights.engine.idle-eviction-ms:21600000}") long idleEvictionMs,
+                         @Value("${app.insights.engine.lock-stripes:64}") int lockStripes) {
+        this.userBehaviorRepository = userBehaviorRepository;
+        this.userInsightRepository = userInsightRepository;
+        this.behaviorDailyAggregateRepository = behaviorDailyAggregateRepository;
+        this.idleEvictionMs = idleEvictionMs;
+        this.seedLocks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            seedLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Persists behaviors of {@code userIds} through {@code persist} and applies the rows it
+     * returns as stored. The users' seed locks are held throughout, so a concurrent seed
+     * either runs before the rows commit, and the write then applies them, or after they
+     * were applied.
+     */
+    public void persistAndRecord(Collection<Long> userIds, Supplier<? extends Collection<UserBehavior>> persist) {
+        // Ascending order, so two writers sharing stripes cannot deadlock
+        int[] stripes = userIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        for (int stripe : stripes) {
+            seedLocks[stripe].lock();
+        }
+        try {
+            record(persist.get());
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                seedLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    // Users whose aggregates are not loaded yet are seeded from the database, which already includes these rows
+    private void record(Collection<UserBehavior> behaviors) {
+        Map<Long, List<UserBehavior>> byUser = behaviors.stream()
+                .collect(Collectors.groupingBy(UserBehavior::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+        byUser.forEach((userId, userBehaviors) -> {
+            try {
+                Aggregates aggregates = aggregatesByUser.get(userId);
+                if (aggregates == null) {
+                    aggregates = aggregatesFor(userId);
+                } else {
+                    aggregates.apply(userBehaviors);
+                }
+                applyTransitions(userId, aggregates);
+            } catch (Exception e) {
+                log.error("Failed to update insight aggregates for user {}", userId, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the insights that currently apply to the user, creating any whose threshold
+     * has been crossed since the last evaluation.
+     */
+    public List<UserInsight> currentInsights(Long userId) {
+        Aggregates aggregates = aggregatesFor(userId);
+        applyTransitions(userId, aggregates);
+
+        EnumSet<InsightType> active = aggregates.activeInsights();
+        if (active.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<InsightType, UserInsight> latestByType = new EnumMap<>(InsightType.class);
+        for (UserInsight insight : userInsightRepository.findOpenInsightsByUserAndTypes(userId, active, LocalDateTime.now())) {
+            latestByType.putIfAbsent(insight.getInsightType(), insight);
+        }
+        return new ArrayList<>(latestByType.values());
+    }
+
+    public Snapshot snapshot(Long userId) {
+        return aggregatesFor(userId).snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${app.insights.engine.eviction-interval-ms:600000}")
+    public void evictIdleAggregates() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMs;
+        aggregatesByUser.values().removeIf(aggregates -> aggregates.lastTouchedAt < cutoff);
+    }
+
+    // Seeded under the user's stripe lock rather than inside the map, so the queries never hold
+    // one of its bin locks and never interleave with a write of the same user
+    private Aggregates aggregatesFor(Long userId) {
+        Aggregates aggregates = aggregatesByUser.get(userId);
+        if (aggregates != null) {
+            return aggregates;
+        }
+        ReentrantLock lock = seedLocks[stripeOf(userId)];
+        lock.lock();
+        try {
+            aggregates = aggregatesByUser.get(userId);
+            if (aggregates == null) {
+                aggregates = seed(userId);
+                aggregatesByUser.put(userId, aggregates);
+            }
+            return aggregates;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripeOf(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), seedLocks.length);
+    }
+
+    private Aggregates seed(Long userId) {
+        Aggregates aggregates = new Aggregates();
+        for (Object[] row : userBehaviorRepository.getBehaviorDistributionByUser(userId)) {
+            aggregates.counts[((BehaviorType) row[0]).ordinal()] += ((Number) row[1]).longValue();
+        }
+        // Behaviors past the retention window only survive as daily aggregates
+        for (Object[] row : behaviorDailyAggregateRepository.getCompactedDistributionByUser(userId)) {
+            aggregates.counts[((BehaviorType) row[0]).ordinal()] += ((Number) row[1]).longValue();
+        }
+        LocalDate today = LocalDate.now();
+        aggregates.windowEndDay = today.toEpochDay();
+        LocalDateTime windowStart = today.minusDays(WINDOW_DAYS - 1).atStartOfDay();
+        for (Object[] row : userBehaviorRepository.getDailyBehaviorCountsByUser(userId, windowStart)) {
+            aggregates.addToWindow(toLocalDate(row[0]).toEpochDay(), ((Number) row[1]).longValue());
+        }
+        aggregates.recomputeEngagementScore();
+        return aggregates;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    // Persists newly crossed insights and retires insights whose condition no longer holds
+    private void applyTransitions(Long userId, Aggregates aggregates) {
+        EnumSet<InsightType> crossedUp;
+        EnumSet<InsightType> crossedDown;
+        synchronized (aggregates) {
+            EnumSet<InsightType> active = aggregates.activeInsights();
+            crossedUp = EnumSet.copyOf(active);
+            crossedUp.removeAll(aggregates.evaluatedInsights);
+            crossedDown = EnumSet.copyOf(aggregates.evaluatedInsights);
+            crossedDown.removeAll(active);
+            aggregates.evaluatedInsights = active;
+        }
+        if (crossedUp.isEmpty() && crossedDown.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (InsightType type : crossedDown) {
+            userInsightRepository.expireOpenInsights(userId, type, now);
+        }
+        if (!crossedUp.isEmpty()) {
+            EnumSet<InsightType> alreadyOpen = userInsightRepository
+                    .findOpenInsightsByUserAndTypes(userId, crossedUp, now).stream()
+                    .map(UserInsight::getInsightType)
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(InsightType.class)));
+            Snapshot snapshot = aggregates.snapshot();
+            List<UserInsight> created = new ArrayList<>();
+            for (InsightType type : crossedUp) {
+                if (!alreadyOpen.contains(type)) {
+                    created.add(buildInsight(userId, type, snapshot));
+                }
+            }
+            userInsightRepository.saveAll(created);
+        }
+    }
+
+    private UserInsight buildInsight(Long userId, InsightType type, Snapshot snapshot) {
+        return switch (type) {
+            case MATCHING_IMPROVEMENT -> new UserInsight(userId, InsightType.MATCHING_IMPROVEMENT,
+                    "Improve Your Matching Success Rate",
+                    "Your match acceptance rate is " + String.format("%.1f", snapshot.matchAcceptRate() * 100) + "%. Consider updating your profile or preferences.",
+                    "Review and update your profile, adjust matching criteria, and be more selective with match requests.");
+            case SKILL_DEVELOPMENT -> new UserInsight(userId, InsightType.SKILL_DEVELOPMENT,
+                    "Start Your Skill Development Journey",
+                    "You haven't earned any badges or participated in mentorship sessions yet.",
+                    "Join mentorship programs, participate in skill-building activities, and set learning goals.");
+            case NETWORKING_OPPORTUNITY -> new UserInsight(userId, InsightType.NETWORKING_OPPORTUNITY,
+                    "Expand Your Network",
+                    "You've only had " + snapshot.count(BehaviorType.COFFEE_CHAT_START) + " coffee chat(s). More connections can lead to better opportunities.",
+                    "Request more matches, join topic lounges, and actively participate in conversations.");
+            case ENGAGEMENT_OPTIMIZATION -> new UserInsight(userId, InsightType.ENGAGEMENT_OPTIMIZATION,
+                    "Keep Your Profile Fresh",
+                    "You're active on the platform but haven't updated your profile recently.",
+                    "Update your profile with recent achievements, skills, and interests to attract better matches.");
+            case CAREER_GROWTH -> new UserInsight(userId, InsightType.CAREER_GROWTH,
+                    "Maintain Your Momentum",
+                    "Great job maintaining your activity streak! Consistency is key to career growth.",
+                    "Keep up the good work, set new goals, and consider mentoring others.");
+            default -> throw new IllegalArgumentException("No generator for insight type " + type);
+        };
+    }
+
+    static double weight(BehaviorType type) {
+        return switch (type) {
+            case COFFEE_CHAT_START, MENTORSHIP_SESSION, LOUNGE_JOIN -> 10.0;
+            case MATCH_REQUEST, BADGE_EARNED -> 5.0;
+            case PROFILE_UPDATE, FEEDBACK_SUBMIT -> 3.0;
+            case LOGIN -> 1.0;
+            default -> 0.5;
+        };
+    }
+
+    /**
+     * Immutable view of a user's aggregates.
+     */
+    public record Snapshot(long[] counts, long recentActivities, long windowActivities, double engagementScore) {
+
+        public long count(BehaviorType type) {
+            return counts[type.ordinal()];
+        }
+
+        public long totalActivities() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        public double matchAcceptRate() {
+            long requests = count(BehaviorType.MATCH_REQUEST);
+            return requests == 0 ? 0.0 : (double) count(BehaviorType.MATCH_ACCEPT) / requests;
+        }
+
+        public Map<String, Long> distribution() {
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (BehaviorType type : BehaviorType.values()) {
+                if (counts[type.ordinal()] > 0) {
+                    distribution.put(type.name(), counts[type.ordinal()]);
+                }
+            }
+            return distribution;
+        }
+    }
+
+    private static final class Aggregates {
+
+        private final long[] counts = new long[BehaviorType.values().length];
+        private final long[] dailyWindow = new long[WINDOW_DAYS];
+        private long windowEndDay;
+        private double rawEngagementScore;
+        private EnumSet<InsightType> evaluatedInsights = EnumSet.noneOf(InsightType.class);
+        private volatile long lastTouchedAt = System.currentTimeMillis();
+
+        synchronized void apply(List<UserBehavior> behaviors) {
+            for (UserBehavior behavior : behaviors) {
+                counts[behavior.getBehaviorType().ordinal()]++;
+                rawEngagementScore += weight(behavior.getBehaviorType());
+                LocalDateTime timestamp = behavior.getTimestamp() != null ? behavior.getTimestamp() : LocalDateTime.now();
+                addToWindow(timestamp.toLocalDate().toEpochDay(), 1);
+            }
+            lastTouchedAt = System.currentTimeMillis();
+        }
+
+        // Slides the window forward to the given day, clearing buckets that fall out of it
+        private void advanceTo(long day) {
+            if (day <= windowEndDay) {
+                return;
+            }
+            long shift = Math.min(day - windowEndDay, WINDOW_DAYS);
+            for (long d = windowEndDay + 1; d < windowEndDay + 1 + shift; d++) {
+                dailyWindow[(int) Math.floorMod(d, WINDOW_DAYS)] = 0;
+            }
+            windowEndDay = day;
+        }
+
+        private void addToWindow(long day, long amount) {
+            advanceTo(day);
+            if (day > windowEndDay - WINDOW_DAYS) {
+                dailyWindow[(int) Math.floorMod(day, WINDOW_DAYS)] += amount;
+            }
+        }
+
+        private void recomputeEngagementScore() {
+            rawEngagementScore = 0.0;
+            for (BehaviorType type : BehaviorType.values()) {
+                rawEngagementScore += counts[type.ordinal()] * weight(type);
+            }
+        }
+
+        private long windowSum(int days) {
+            long sum = 0;
+            for (long d = windowEndDay - days + 1; d <= windowEndDay; d++) {
+                sum += dailyWindow[(int) Math.floorMod(d, WINDOW_DAYS)];
+            }
+            return sum;
+        }
+
+        synchronized Snapshot snapshot() {
+            advanceTo(LocalDate.now().toEpochDay());
+            lastTouchedAt = System.currentTimeMillis();
+            return new Snapshot(counts.clone(), windowSum(RECENT_DAYS), windowSum(WINDOW_DAYS),
+                    Math.min(100.0, rawEngagementScore));
+        }
+
+        // Mirrors the thresholds of the original full-history generators
+        synchronized EnumSet<InsightType> activeInsights() {
+            EnumSet<InsightType> active = EnumSet.noneOf(InsightType.class);
+            long matchRequests = counts[BehaviorType.MATCH_REQUEST.ordinal()];
+            long matchAccepts = counts[BehaviorType.MATCH_ACCEPT.ordinal()];
+            if (matchRequests > 0 && matchAccepts > 0 && (double) matchAccepts / matchRequests < 0.3) {
+                active.add(InsightType.MATCHING_IMPROVEMENT);
+            }
+            if (counts[BehaviorType.BADGE_EARNED.ordinal()] == 0 && counts[BehaviorType.MENTORSHIP_SESSION.ordinal()] == 0) {
+                active.add(InsightType.SKILL_DEVELOPMENT);
+            }
+            if (counts[BehaviorType.COFFEE_CHAT_START.ordinal()] < 3) {
+                active.add(InsightType.NETWORKING_OPPORTUNITY);
+            }
+            if (counts[BehaviorType.LOGIN.ordinal()] > 0 && counts[BehaviorType.PROFILE_UPDATE.ordinal()] == 0) {
+                active.add(InsightType.ENGAGEMENT_OPTIMIZATION);
+            }
+            if (counts[BehaviorType.STREAK_MAINTAINED.ordinal()] > 0) {
+                active.add(InsightType.CAREER_GROWTH);
+            }
+            return active;
+        }
+    }
+}
@@ -4,6 +4,10 @@ import com.codewithudo.backend.dto.*;
 import com.codewithudo.backend.entity.*;
 import com.codewithudo.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -28,6 +32,12 @@ public class LoungeService {
     @Autowired
     private GamificationService gamificationService;
     
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
     public LoungeDto createLounge(Long userId, CreateLoungeDto createDto) {
         // Check if lounge title already exists
         if (loungeRepository.existsByTitleAndIsActiveTrue(createDto.getTitle())) {
@@ -82,9 +92,39 @@ public class LoungeService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Active, non-private lounges, most recently active first, one page at a time without counting them all
+     */
+    public Slice<LoungeDto> getLoungeSlice(String category, int page, int size, Long userId) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Order.desc("lastActivity"), Sort.Order.desc("id")));
+        // Private lounges are only reachable by invitation, as in search
+        Slice<Lounge> lounges = category == null || category.isBlank()
+                ? loungeRepository.findByVisibilityNotAndIsActiveTrue(Lounge.Visibility.PRIVATE, pageable)
+                : loungeRepository.findByCategoryContainingIgnoreCaseAndVisibilityNotAndIsActiveTrue(category,
+                        Lounge.Visibility.PRIVATE, pageable);
+        return lounges.map(lounge -> convertToLoungeDto(lounge, userId));
+    }
+    
     public List<LoungeDto> searchLounges(String searchTerm, Long userId) {
-        List<Lounge> lounges = loungeRepository.searchLounges(searchTerm);
-        return lounges.stream()
+        List<Long> loungeIds = searchIndexService.search(searchTerm, Set.of(SearchIndexService.DocType.LOUNGE),
+                        null, Map.of(), 0, 50, SearchIndexService.Totals.NONE).hits().stream()
+                .map(SearchIndexService.Hit::id)
+                .collect(Collectors.toList());
+        return getLoungesByIds(loungeIds, userId);
+    }
+    
+    /**
+     * Lounges in the order of {@code loungeIds}, e.g. search ranking; IDs whose lounge is missing,
+     * inactive or private are skipped, so a stale index entry never surfaces the wrong lounge
+     */
+    public List<LoungeDto> getLoungesByIds(List<Long> loungeIds, Long userId) {
+        Map<Long, Lounge> lounges = loungeRepository.findAllById(loungeIds).stream()
+                .collect(Collectors.toMap(Lounge::getId, lounge -> lounge));
+        return loungeIds.stream()
+                .map(lounges::get)
+                .filter(Objects::nonNull)
+                .filter(lounge -> Boolean.TRUE.equals(lounge.getIsActive())
+                        && lounge.getVisibility() != Lounge.Visibility.PRIVATE)
                 .map(lounge -> convertToLoungeDto(lounge, userId))
                 .collect(Collectors.toList());
     }
@@ -230,9 +270,21 @@ public class LoungeService {
         // Log activity for gamification
         gamificationService.logActivity(userId, ActivityLog.ActivityType.LOUNGE_MESSAGE_SENT, sendDto.getLoungeId(), null);
         
+        if (sendDto.getReplyToMessageId() != null) {
+            notifyRepliedTo(userId, sendDto.getLoungeId(), sendDto.getReplyToMessageId());
+        }
+        
         return convertToMessageDto(savedMessage);
     }
     
+    // Tell the author of the message being replied to; coalesced, so a busy thread yields a digest
+    private void notifyRepliedTo(Long senderId, Long loungeId, Long replyToMessageId) {
+        loungeMessageRepository.findById(replyToMessageId)
+                .filter(original -> loungeId.equals(original.getLoungeId()) && !senderId.equals(original.getUserId()))
+                .ifPresent(original -> notificationService.createMessageNotification(original.getUserId(),
+                        userRepository.findById(senderId).map(User::getName).orElse("a lounge member")));
+    }
+    
     public void deleteLounge(Long loungeId, Long userId) {
         Lounge lounge = loungeRepository.findByIdAndIsActiveTrue(loungeId)
                 .orElseThrow(() -> new RuntimeException("Lounge not found"));
@@ -27,12 +27,22 @@ public class MeetingSchedulingService {
     private final UserRepository userRepository;
     private final ConversationStarterService conversationStarterService;
     private final ObjectMapper objectMapper;
+    private final FreeBusyService freeBusyService;
+    private final UserReservationLocks userReservationLocks;
     
-    @Transactional
+    /**
+     * Books the meeting unless either user has another meeting within the conflict buffer.
+     * The check and the insert run under both users' reservation locks, so concurrent
+     * bookings for the same person cannot both succeed.
+     */
     public ScheduledMeeting scheduleMeeting(Long matchId, Long organizerId, 
                                           LocalDateTime startTime, LocalDateTime endTime,
                                           ScheduledMeeting.MeetingType meetingType, String location) {
         
+        if (!startTime.isBefore(endTime)) {
+            throw new RuntimeException("Meeting must end after it starts");
+        }
+        
         Match match = matchRepository.findById(matchId)
             .orElseThrow(() -> new RuntimeException("Match not found"));
         
@@ -45,12 +55,7 @@ public class MeetingSchedulingService {
         User participant = userRepository.findById(participantId)
             .orElseThrow(() -> new RuntimeException("Participant not found"));
         
-        // Check for scheduling conflicts
-        if (hasSchedulingConflict(organizerId, startTime, endTime) ||
-            hasSchedulingConflict(participantId, startTime, endTime)) {
-            throw new RuntimeException("Scheduling conflict detected");
-        }
-        
+        // Everything that does not depend on the calendars is prepared before taking the locks
         ScheduledMeeting meeting = new ScheduledMeeting();
         meeting.setMatchId(matchId);
         meeting.setOrganizerId(organizerId);
@@ -78,12 +83,21 @@ public class MeetingSchedulingService {
             meeting.setConversationStarters("[]");
         }
         
-        ScheduledMeeting savedMeeting = scheduledMeetingRepository.save(meeting);
-        
-        // Update match status
-        match.setStatus(Match.MatchStatus.SCHEDULED);
-        match.setScheduledTime(startTime);
-        matchRepository.save(match);
+        ScheduledMeeting savedMeeting = userReservationLocks.reserve(List.of(organizerId, participantId), () -> {
+            if (hasSchedulingConflict(List.of(organizerId, participantId), startTime, endTime, null)) {
+                throw new RuntimeException("Scheduling conflict detected");
+            }
+            
+            ScheduledMeeting saved = scheduledMeetingRepository.save(meeting);
+            
+            // Update match status
+            Match current = matchRepository.findById(matchId)
+                .orElseThrow(() -> new RuntimeException("Match not found"));
+            current.setStatus(Match.MatchStatus.SCHEDULED);
+            current.setScheduledTime(startTime);
+            matchRepository.save(current);
+            return saved;
+        });
         
         log.info("Meeting scheduled: {} between users {} and {}", 
                 savedMeeting.getId(), organizerId, participantId);
@@ -91,11 +105,10 @@ public class MeetingSchedulingService {
         return savedMeeting;
     }
     
-    private boolean hasSchedulingConflict(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<ScheduledMeeting> existingMeetings = scheduledMeetingRepository
-            .findUserMeetingsInRange(userId, startTime.minusMinutes(30), endTime.plusMinutes(30));
-        
-        return !existingMeetings.isEmpty();
+    // Same buffer and overlap rules as the suggestions, so a suggested slot can always be booked
+    private boolean hasSchedulingConflict(Collection<Long> userIds, LocalDateTime startTime, LocalDateTime endTime,
+                                          Long ignoredMeetingId) {
+        return !freeBusyService.isFree(userIds, startTime, endTime, ignoredMeetingId);
     }
     
     private String generateMeetingTitle(User organizer, User participant) {
@@ -121,24 +134,32 @@ public class MeetingSchedulingService {
         return description.toString();
     }
     
-    @Transactional
     public ScheduledMeeting rescheduleMeeting(Long meetingId, LocalDateTime newStartTime, 
                                             LocalDateTime newEndTime) {
-        ScheduledMeeting meeting = scheduledMeetingRepository.findById(meetingId)
-            .orElseThrow(() -> new RuntimeException("Meeting not found"));
-        
-        // Check for conflicts with new time
-        if (hasSchedulingConflict(meeting.getOrganizerId(), newStartTime, newEndTime) ||
-            hasSchedulingConflict(meeting.getParticipantId(), newStartTime, newEndTime)) {
-            throw new RuntimeException("Scheduling conflict with new time");
+        if (!newStartTime.isBefore(newEndTime)) {
+            throw new RuntimeException("Meeting must end after it starts");
         }
         
-        meeting.setScheduledStartTime(newStartTime);
-        meeting.setScheduledEndTime(newEndTime);
-        meeting.setStatus(ScheduledMeeting.MeetingStatus.RESCHEDULED);
-        meeting.setReminderSent(false); // Reset reminder flag
+        ScheduledMeeting existing = scheduledMeetingRepository.findById(meetingId)
+            .orElseThrow(() -> new RuntimeException("Meeting not found"));
+        List<Long> userIds = List.of(existing.getOrganizerId(), existing.getParticipantId());
         
-        return scheduledMeetingRepository.save(meeting);
+        return userReservationLocks.reserve(userIds, () -> {
+            ScheduledMeeting meeting = scheduledMeetingRepository.findById(meetingId)
+                .orElseThrow(() -> new RuntimeException("Meeting not found"));
+            
+            // Check for conflicts with new time; the meeting's current slot does not count
+            if (hasSchedulingConflict(userIds, newStartTime, newEndTime, meetingId)) {
+                throw new RuntimeException("Scheduling conflict with new time");
+            }
+            
+            meeting.setScheduledStartTime(newStartTime);
+            meeting.setScheduledEndTime(newEndTime);
+            meeting.setStatus(ScheduledMeeting.MeetingStatus.RESCHEDULED);
+            meeting.setReminderSent(false); // Reset reminder flag
+            
+            return scheduledMeetingRepository.save(meeting);
+        });
     }
     
     @Transactional
@@ -206,51 +227,52 @@ public class MeetingSchedulingService {
         return scheduledMeetingRepository.findUserMeetingsInRange(userId, now, future);
     }
     
+    // Suggestions on behalf of user1Id, who must be allowed to see user2Id's calendar
     public List<TimeSlot> suggestMeetingTimes(Long user1Id, Long user2Id, int durationMinutes, int suggestions) {
-        // Simple time suggestion algorithm
-        // In production, this would integrate with calendar APIs
-        
-        List<TimeSlot> suggestions_list = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Get existing meetings for both users
-        List<ScheduledMeeting> user1Meetings = getUserMeetings(user1Id, now, now.plusDays(14));
-        List<ScheduledMeeting> user2Meetings = getUserMeetings(user2Id, now, now.plusDays(14));
-        
-        // Combine all busy times
-        Set<TimeSlot> busySlots = new HashSet<>();
-        user1Meetings.forEach(meeting -> busySlots.add(
-            new TimeSlot(meeting.getScheduledStartTime(), meeting.getScheduledEndTime())));
-        user2Meetings.forEach(meeting -> busySlots.add(
-            new TimeSlot(meeting.getScheduledStartTime(), meeting.getScheduledEndTime())));
-        
-        // Generate suggestions for next 14 days, business hours only
-        for (int day = 1; day <= 14 && suggestions_list.size() < suggestions; day++) {
-            LocalDateTime dayStart = now.plusDays(day).withHour(9).withMinute(0).withSecond(0);
-            LocalDateTime dayEnd = dayStart.withHour(17);
-            
-            // Skip weekends
-            if (dayStart.getDayOfWeek().getValue() > 5) continue;
-            
-            // Check hourly slots
-            for (LocalDateTime slotStart = dayStart; 
-                 slotStart.plusMinutes(durationMinutes).isBefore(dayEnd) && suggestions_list.size() < suggestions; 
-                 slotStart = slotStart.plusHours(1)) {
-                
-                LocalDateTime slotEnd = slotStart.plusMinutes(durationMinutes);
-                TimeSlot proposedSlot = new TimeSlot(slotStart, slotEnd);
-                
-                // Check if slot conflicts with existing meetings
-                boolean hasConflict = busySlots.stream()
-                    .anyMatch(busySlot -> proposedSlot.overlapsWith(busySlot));
-                
-                if (!hasConflict) {
-                    suggestions_list.add(proposedSlot);
-                }
-            }
+        return suggestGroupMeetingTimes(user1Id, List.of(user2Id), durationMinutes, suggestions);
+    }
+    
+    /**
+     * Group suggestions on behalf of {@code requesterId}, who is always included. Calendars
+     * reveal when people are busy, so every other participant must be matched with the
+     * requester or work at the same company.
+     */
+    public List<TimeSlot> suggestGroupMeetingTimes(Long requesterId, Collection<Long> participantIds,
+                                                   int durationMinutes, int suggestions) {
+        Set<Long> participants = new LinkedHashSet<>();
+        participants.add(requesterId);
+        participants.addAll(participantIds);
+        requireCalendarAccess(requesterId, participants);
+        return suggestGroupMeetingTimes(participants, durationMinutes, suggestions);
+    }
+    
+    // Slots inside every participant's working hours, in their own time zones, clear of their meetings
+    private List<TimeSlot> suggestGroupMeetingTimes(Collection<Long> participantIds, int durationMinutes, int suggestions) {
+        return freeBusyService.suggest(participantIds, durationMinutes, suggestions).stream()
+            .map(slot -> new TimeSlot(slot.startTime(), slot.endTime()))
+            .collect(Collectors.toList());
+    }
+    
+    private void requireCalendarAccess(Long requesterId, Set<Long> participants) {
+        Set<Long> denied = new LinkedHashSet<>(participants);
+        denied.remove(requesterId);
+        if (denied.isEmpty()) {
+            return;
+        }
+        denied.removeAll(matchRepository.findMatchedUserIds(requesterId));
+        Long companyId = userRepository.findById(requesterId)
+            .map(User::getCompanyId)
+            .orElse(null);
+        if (!denied.isEmpty() && companyId != null) {
+            List<Long> colleagues = userRepository.findAllById(denied).stream()
+                .filter(user -> companyId.equals(user.getCompanyId()))
+                .map(User::getId)
+                .collect(Collectors.toList());
+            colleagues.forEach(denied::remove);
+        }
+        if (!denied.isEmpty()) {
+            throw new RuntimeException("Not allowed to view the availability of users " + denied);
         }
-        
-        return suggestions_list;
     }
     
     // Scheduled task to send meeting reminders
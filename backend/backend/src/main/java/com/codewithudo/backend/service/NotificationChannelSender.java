@@ -0,0 +1,89 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.dto.NotificationDto;
+import com.codewithudo.backend.entity.Notification;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends an already stored notification over one delivery channel. Each channel has a
+ * token-bucket rate limit shared by every caller (fan-out workers, quiet-hours releases),
+ * so bursts from different paths cannot add up past the provider limits.
+ */
+@Service
+public class NotificationChannelSender {
+
+    public static final String CHANNEL_IN_APP = "in_app";
+    public static final String CHANNEL_PUSH = "push";
+    public static final String CHANNEL_EMAIL = "email";
+
+    private final RealtimeDeliveryGate realtimeDeliveryGate;
+    private final PushNotificationService pushNotificationService;
+    private final EmailService emailService;
+    private final Map<String, TokenBucket> channelLimits = new HashMap<>();
+
+    public NotificationChannelSender(RealtimeDeliveryGate realtimeDeliveryGate,
+                                     PushNotificationService pushNotificationService,
+                                     EmailService emailService,
+                                     @Value("${app.notifications.fanout.rate.in-app:2000}") double inAppPerSecond,
+                                     @Value("${app.notifications.fanout.rate.push:500}") double pushPerSecond,
+                                     @Value("${app.notifications.fanout.rate.email:20}") double emailPerSecond) {
+        this.realtimeDeliveryGate = realtimeDeliveryGate;
+        this.pushNotificationService = pushNotificationService;
+        this.emailService = emailService;
+
+        // One second of burst per channel
+        channelLimits.put(CHANNEL_IN_APP, new TokenBucket((long) Math.ceil(inAppPerSecond), inAppPerSecond));
+        channelLimits.put(CHANNEL_PUSH, new TokenBucket((long) Math.ceil(pushPerSecond), pushPerSecond));
+        channelLimits.put(CHANNEL_EMAIL, new TokenBucket((long) Math.ceil(emailPerSecond), emailPerSecond));
+    }
+
+    public boolean supports(String channel) {
+        return channelLimits.containsKey(channel);
+    }
+
+    /**
+     * Waits for the channel's rate limit, then delivers. {@code user} is only needed for email.
+     */
+    public void send(String channel, Notification notification, User user) throws InterruptedException {
+        TokenBucket limit = channelLimits.get(channel);
+        if (limit == null) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        limit.acquire();
+
+        switch (channel) {
+            case CHANNEL_IN_APP -> realtimeDeliveryGate.sendToUser(notification.getUserId(),
+                    "/queue/notifications", toDto(notification), notification.getPriority());
+            case CHANNEL_PUSH -> pushNotificationService.sendBrowserPush(notification.getUserId(), notification);
+            case CHANNEL_EMAIL -> {
+                if (user != null) {
+                    emailService.sendNotificationEmail(user, notification);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+    }
+
+    private NotificationDto toDto(Notification notification) {
+        return new NotificationDto(
+            notification.getId(),
+            notification.getUserId(),
+            notification.getTitle(),
+            notification.getMessage(),
+            notification.getType(),
+            notification.getPriority(),
+            notification.getIsRead(),
+            notification.getActionUrl(),
+            notification.getMetadata(),
+            notification.getCreatedAt(),
+            notification.getReadAt(),
+            notification.getExpiresAt()
+        );
+    }
+}
@@ -0,0 +1,133 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.codewithudo.backend.entity.NotificationPreferences;
+import com.codewithudo.backend.repository.NotificationPreferencesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which channels a notification goes out on, from a cached
+ * {@link NotificationPreferenceSnapshot} per user. Snapshots are loaded in bulk for fan-out,
+ * invalidated whenever preferences change on this node, and expire after a TTL so changes
+ * made on other nodes are picked up.
+ */
+@Service
+@Slf4j
+public class NotificationDeliveryRouter {
+
+    private final NotificationPreferencesRepository preferencesRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<Long, CachedSnapshot> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public NotificationDeliveryRouter(NotificationPreferencesRepository preferencesRepository,
+                                      @Value("${app.notifications.preferences-cache.ttl-ms:600000}") long ttlMs,
+                                      @Value("${app.notifications.preferences-cache.max-entries:200000}") int maxEntries) {
+        this.preferencesRepository = preferencesRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public NotificationPreferenceSnapshot snapshot(Long userId) {
+        CachedSnapshot cached = cache.get(userId);
+        if (isFresh(cached)) {
+            hits.increment();
+            return cached.snapshot;
+        }
+        misses.increment();
+        NotificationPreferenceSnapshot snapshot = preferencesRepository.findByUserId(userId)
+                .map(NotificationPreferenceSnapshot::from)
+                .orElse(NotificationPreferenceSnapshot.DEFAULTS);
+        put(userId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Snapshots for a batch of users, loading all misses with a single query.
+     */
+    public Map<Long, NotificationPreferenceSnapshot> snapshots(Collection<Long> userIds) {
+        Map<Long, NotificationPreferenceSnapshot> result = new HashMap<>(userIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            CachedSnapshot cached = cache.get(userId);
+            if (isFresh(cached)) {
+                result.put(userId, cached.snapshot);
+            } else {
+                missing.add(userId);
+            }
+        }
+        hits.add(result.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            for (NotificationPreferences preferences : preferencesRepository.findByUserIdIn(missing)) {
+                result.put(preferences.getUserId(), NotificationPreferenceSnapshot.from(preferences));
+            }
+            for (Long userId : missing) {
+                NotificationPreferenceSnapshot snapshot = result.computeIfAbsent(userId,
+                        id -> NotificationPreferenceSnapshot.DEFAULTS);
+                put(userId, snapshot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Channels out of {@code requested} the user accepts for this notification type.
+     */
+    public List<String> route(NotificationPreferenceSnapshot snapshot, NotificationType type,
+                              Collection<String> requested) {
+        List<String> channels = new ArrayList<>(requested.size());
+        for (String channel : requested) {
+            if (snapshot.isEnabled(type, channel)) {
+                channels.add(channel);
+            }
+        }
+        return channels;
+    }
+
+    public boolean isInQuietHours(Long userId) {
+        return snapshot(userId).isInQuietHours(Instant.now());
+    }
+
+    public void invalidate(Long userId) {
+        cache.remove(userId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private boolean isFresh(CachedSnapshot cached) {
+        return cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMs;
+    }
+
+    private void put(Long userId, NotificationPreferenceSnapshot snapshot) {
+        if (cache.size() >= maxEntries) {
+            log.debug("Preference snapshot cache full ({} entries), clearing", cache.size());
+            cache.clear();
+        }
+        cache.put(userId, new CachedSnapshot(snapshot, System.currentTimeMillis()));
+    }
+
+    private record CachedSnapshot(NotificationPreferenceSnapshot snapshot, long loadedAt) {
+    }
+}
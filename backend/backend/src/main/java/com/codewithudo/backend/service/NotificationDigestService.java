@@ -0,0 +1,191 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.dto.CreateNotificationDto;
+import com.codewithudo.backend.entity.Notification.NotificationPriority;
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces high-frequency notifications per user and type. The first event of a window is
+ * delivered as usual; later events of the same type for the same user are only counted, and
+ * when the window closes they are emitted as a single digest notification with the count and
+ * a few sample messages. A window that produced a digest stays open for another period, so a
+ * steady stream of events yields one notification per window.
+ *
+ * <p>Windows live in memory on the node that received the event. A restart loses at most one
+ * window of not-yet-emitted digests, which is acceptable for the low-priority types this is
+ * meant for; urgent notifications are never coalesced.
+ */
+@Service
+@Slf4j
+public class NotificationDigestService {
+
+    private final ObjectMapper objectMapper;
+    private final Set<NotificationType> digestTypes;
+    private final long windowMs;
+    private final int maxSamples;
+    private final int maxWindows;
+
+    private final Map<DigestKey, DigestWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder passedThrough = new LongAdder();
+    private final LongAdder absorbed = new LongAdder();
+    private final LongAdder digestsEmitted = new LongAdder();
+
+    public NotificationDigestService(ObjectMapper objectMapper,
+                                     @Value("${app.notifications.digest.types:MESSAGE_RECEIVED,BADGE_EARNED}") String digestTypes,
+                                     @Value("${app.notifications.digest.window-ms:60000}") long windowMs,
+                                     @Value("${app.notifications.digest.max-samples:3}") int maxSamples,
+                                     @Value("${app.notifications.digest.max-windows:100000}") int maxWindows) {
+        this.objectMapper = objectMapper;
+        this.digestTypes = parseTypes(digestTypes);
+        this.windowMs = windowMs;
+        this.maxSamples = maxSamples;
+        this.maxWindows = maxWindows;
+    }
+
+    /**
+     * Returns {@code true} if the notification was folded into an open digest window and must
+     * not be stored now, {@code false} if the caller should create it as usual.
+     */
+    public boolean absorb(CreateNotificationDto dto) {
+        if (!digestTypes.contains(dto.getType()) || dto.getPriority() == NotificationPriority.URGENT) {
+            passedThrough.increment();
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean[] folded = {false};
+        windows.compute(new DigestKey(dto.getUserId(), dto.getType()), (key, window) -> {
+            // An expired window still holding events is folded into until the next flush emits it
+            if (window != null && (window.count > 0 || now - window.openedAt < windowMs)) {
+                window.add(dto, maxSamples);
+                folded[0] = true;
+                return window;
+            }
+            if (window == null && windows.size() >= maxWindows) {
+                return null;
+            }
+            return new DigestWindow(now);
+        });
+
+        if (folded[0]) {
+            absorbed.increment();
+        } else {
+            passedThrough.increment();
+        }
+        return folded[0];
+    }
+
+    /**
+     * Closes every window whose period has elapsed and returns the digests to create.
+     */
+    public List<CreateNotificationDto> drainDue() {
+        long now = System.currentTimeMillis();
+        List<CreateNotificationDto> digests = new ArrayList<>();
+        for (DigestKey key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, window) -> {
+                if (now - window.openedAt < windowMs) {
+                    return window;
+                }
+                if (window.count == 0) {
+                    return null;
+                }
+                digests.add(toDigest(k, window));
+                // The digest acts as the leading event of the next window
+                return new DigestWindow(now);
+            });
+        }
+        digestsEmitted.add(digests.size());
+        return digests;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("openWindows", windows.size());
+        stats.put("passedThrough", passedThrough.sum());
+        stats.put("absorbed", absorbed.sum());
+        stats.put("digests", digestsEmitted.sum());
+        return stats;
+    }
+
+    private CreateNotificationDto toDigest(DigestKey key, DigestWindow window) {
+        StringBuilder message = new StringBuilder(String.join("\n", window.samples));
+        if (window.count > window.samples.size()) {
+            message.append("\n...and ").append(window.count - window.samples.size()).append(" more");
+        }
+
+        CreateNotificationDto digest = new CreateNotificationDto(key.userId(),
+                window.title + " (" + window.count + ")", message.toString(), key.type(), window.priority);
+        digest.setActionUrl(window.actionUrl);
+        digest.setMetadata(digestMetadata(window));
+        return digest;
+    }
+
+    private String digestMetadata(DigestWindow window) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("digest", true);
+        metadata.put("count", window.count);
+        metadata.put("since", Instant.ofEpochMilli(window.openedAt).toString());
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            log.debug("Could not serialize digest metadata", e);
+            return null;
+        }
+    }
+
+    private static Set<NotificationType> parseTypes(String value) {
+        Set<NotificationType> types = EnumSet.noneOf(NotificationType.class);
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) {
+                types.add(NotificationType.valueOf(name.trim()));
+            }
+        }
+        return types;
+    }
+
+    private record DigestKey(Long userId, NotificationType type) {
+    }
+
+    // Only mutated inside ConcurrentHashMap.compute, which serializes access per key
+    private static final class DigestWindow {
+
+        private final long openedAt;
+        private final List<String> samples = new ArrayList<>();
+        private int count;
+        private String title;
+        private String actionUrl;
+        private NotificationPriority priority = NotificationPriority.LOW;
+
+        private DigestWindow(long openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        private void add(CreateNotificationDto dto, int maxSamples) {
+            count++;
+            if (samples.size() < maxSamples) {
+                samples.add(dto.getMessage());
+            }
+            title = dto.getTitle();
+            actionUrl = dto.getActionUrl();
+            if (dto.getPriority().compareTo(priority) > 0) {
+                priority = dto.getPriority();
+            }
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.dto.NotificationFanoutDto;
+import com.codewithudo.backend.entity.Notification;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.UserDepartmentRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fans a notification template out to a company, a department or an explicit list of users.
+ * The request thread only resolves recipient IDs and returns a job ID. A coordinator thread
+ * inserts the notification rows with JDBC batches, one chunk at a time, and hands each stored
+ * chunk to a worker pool for delivery. Every delivery channel has its own rate limit, shared
+ * by all workers.
+ */
+@Service
+@Slf4j
+public class NotificationFanoutService {
+
+    private static final List<String> DEFAULT_CHANNELS =
+            List.of(NotificationChannelSender.CHANNEL_IN_APP, NotificationChannelSender.CHANNEL_PUSH);
+    private static final long FINISHED_JOB_RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, title, message, type, priority, is_read, action_url, metadata, " +
+            "created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final UserDepartmentRepository userDepartmentRepository;
+    private final NotificationDeliveryRouter deliveryRouter;
+    private final NotificationChannelSender channelSender;
+    private final QuietHoursScheduler quietHoursScheduler;
+    private final UnreadCountCache unreadCountCache;
+    private final PushNotificationService pushNotificationService;
+    private final int chunkSize;
+    private final int maxRecipients;
+
+    private final ExecutorService coordinator;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, FanoutJob> jobs = new ConcurrentHashMap<>();
+
+    public NotificationFanoutService(JdbcTemplate jdbcTemplate,
+                                     UserRepository userRepository,
+                                     UserDepartmentRepository userDepartmentRepository,
+                                     NotificationDeliveryRouter deliveryRouter,
+                                     NotificationChannelSender channelSender,
+                                     QuietHoursScheduler quietHoursScheduler,
+                                     UnreadCountCache unreadCountCache,
+                                     PushNotificationService pushNotificationService,
+                                     @Value("${app.notifications.fanout.chunk-size:1000}") int chunkSize,
+                                     @Value("${app.notifications.fanout.max-recipients:100000}") int maxRecipients,
+                                     @Value("${app.notifications.fanout.workers:8}") int workerCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.userDepartmentRepository = userDepartmentRepository;
+        this.deliveryRouter = deliveryRouter;
+        this.channelSender = channelSender;
+        this.quietHoursScheduler = quietHoursScheduler;
+        this.unreadCountCache = unreadCountCache;
+        this.pushNotificationService = pushNotificationService;
+        this.chunkSize = chunkSize;
+        this.maxRecipients = maxRecipients;
+
+        this.coordinator = Executors.newSingleThreadExecutor(namedDaemon("notification-fanout"));
+        // A full queue makes the coordinator deliver the chunk itself, which throttles inserts to delivery speed
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount * 2), namedDaemon("notification-delivery"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        coordinator.shutdown();
+        coordinator.awaitTermination(30, TimeUnit.SECONDS);
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Resolves the recipients and queues the job. Returns the job's initial progress, whose
+     * {@code jobId} can be polled with {@link #getProgress(String)}.
+     */
+    public Map<String, Object> submit(NotificationFanoutDto request) {
+        Recipients resolved = resolveRecipients(request);
+        List<Long> recipients = resolved.userIds();
+        Set<String> channels = resolveChannels(request.getChannels());
+
+        evictFinishedJobs();
+        FanoutJob job = new FanoutJob(UUID.randomUUID().toString(), recipients.size(), resolved.rejected(), channels);
+        jobs.put(job.jobId, job);
+        coordinator.execute(() -> run(job, request, recipients));
+        return job.toProgress();
+    }
+
+    public Map<String, Object> getProgress(String jobId) {
+        FanoutJob job = jobs.get(jobId);
+        return job != null ? job.toProgress() : null;
+    }
+
+    private void run(FanoutJob job, NotificationFanoutDto request, List<Long> recipients) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = System.currentTimeMillis();
+        try {
+            LocalDateTime createdAt = LocalDateTime.now();
+            for (int from = 0; from < recipients.size(); from += chunkSize) {
+                List<Long> chunk = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+                List<Notification> stored = insertChunk(request, chunk, createdAt);
+                job.persisted.addAndGet(stored.size());
+                for (Notification notification : stored) {
+                    unreadCountCache.increment(notification.getUserId(), 1);
+                }
+
+                job.pendingChunks.incrementAndGet();
+                workers.execute(() -> {
+                    try {
+                        deliverChunk(job, stored);
+                    } finally {
+                        job.pendingChunks.decrementAndGet();
+                        job.completeIfDone();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.error("Notification fan-out {} failed after {} rows", job.jobId, job.persisted.get(), e);
+            job.error = e.getMessage();
+        } finally {
+            job.allChunksQueued = true;
+            job.completeIfDone();
+        }
+    }
+
+    private List<Notification> insertChunk(NotificationFanoutDto request, List<Long> chunk, LocalDateTime createdAt) {
+        List<Notification> notifications = new ArrayList<>(chunk.size());
+        for (Long userId : chunk) {
+            Notification notification = new Notification(userId, request.getTitle(), request.getMessage(),
+                    request.getType(), request.getPriority());
+            notification.setActionUrl(request.getActionUrl());
+            notification.setMetadata(request.getMetadata());
+            notification.setExpiresAt(request.getExpiresAt());
+            notification.setCreatedAt(createdAt);
+            notifications.add(notification);
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Notification notification = notifications.get(i);
+                        ps.setLong(1, notification.getUserId());
+                        ps.setString(2, notification.getTitle());
+                        ps.setString(3, notification.getMessage());
+                        ps.setString(4, notification.getType().name());
+                        ps.setString(5, notification.getPriority().name());
+                        ps.setBoolean(6, false);
+                        ps.setString(7, notification.getActionUrl());
+                        ps.setString(8, notification.getMetadata());
+                        ps.setTimestamp(9, Timestamp.valueOf(notification.getCreatedAt()));
+                        ps.setObject(10, notification.getExpiresAt() != null
+                                ? Timestamp.valueOf(notification.getExpiresAt()) : null, Types.TIMESTAMP);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < notifications.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            notifications.get(i).setId(((Number) id).longValue());
+        }
+        return notifications;
+    }
+
+    private void deliverChunk(FanoutJob job, List<Notification> notifications) {
+        List<Long> userIds = notifications.stream().map(Notification::getUserId).collect(Collectors.toList());
+        Map<Long, NotificationPreferenceSnapshot> preferences = deliveryRouter.snapshots(userIds);
+        Map<Long, User> users = job.channels.contains(NotificationChannelSender.CHANNEL_EMAIL)
+                ? userRepository.findAllById(userIds).stream().collect(Collectors.toMap(User::getId, Function.identity()))
+                : Map.of();
+        if (job.channels.contains(NotificationChannelSender.CHANNEL_PUSH)) {
+            // One query for every device in the chunk; per-user sends then hit the cache
+            pushNotificationService.preloadSubscriptions(userIds);
+        }
+
+        Instant now = Instant.now();
+        List<QuietHoursScheduler.Deferral> deferrals = new ArrayList<>();
+        try {
+            for (Notification notification : notifications) {
+                NotificationPreferenceSnapshot snapshot = preferences.get(notification.getUserId());
+                List<String> channels = deliveryRouter.route(snapshot, notification.getType(), job.channels);
+                job.skipped.addAndGet(job.channels.size() - channels.size());
+                if (channels.isEmpty()) {
+                    continue;
+                }
+                if (quietHoursScheduler.shouldDefer(snapshot, notification, now)) {
+                    deferrals.add(new QuietHoursScheduler.Deferral(notification, channels, snapshot.quietHoursEnd(now)));
+                    continue;
+                }
+                deliver(job, notification, channels, users.get(notification.getUserId()));
+            }
+        } finally {
+            quietHoursScheduler.defer(deferrals);
+            job.deferred.addAndGet(deferrals.size());
+            job.deferredChannels.addAndGet(deferrals.stream().mapToLong(deferral -> deferral.channels().size()).sum());
+        }
+    }
+
+    private void deliver(FanoutJob job, Notification notification, List<String> channels, User user) {
+        for (String channel : channels) {
+            try {
+                channelSender.send(channel, notification, user);
+                job.deliveredCounter(channel).incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                job.failed.incrementAndGet();
+                log.debug("Fan-out {} delivery via {} to user {} failed", job.jobId, channel,
+                        notification.getUserId(), e);
+            }
+        }
+    }
+
+    /**
+     * Explicit user IDs are kept only if they belong to active users; the rest are counted as
+     * rejected in the job's progress.
+     */
+    private Recipients resolveRecipients(NotificationFanoutDto request) {
+        int selectors = (request.getCompanyId() != null ? 1 : 0)
+                + (request.getDepartmentId() != null ? 1 : 0)
+                + (request.getUserIds() != null ? 1 : 0);
+        if (selectors != 1) {
+            throw new RuntimeException("Specify exactly one of companyId, departmentId or userIds");
+        }
+
+        List<Long> recipients;
+        int rejected = 0;
+        if (request.getCompanyId() != null) {
+            recipients = userRepository.findActiveIdsByCompanyId(request.getCompanyId());
+        } else if (request.getDepartmentId() != null) {
+            recipients = userDepartmentRepository.findActiveUserIdsByDepartmentId(request.getDepartmentId());
+        } else {
+            List<Long> requested = new ArrayList<>(new LinkedHashSet<>(request.getUserIds()));
+            requested.removeIf(id -> id == null);
+            requireWithinLimit(requested.size());
+            recipients = activeUserIds(requested);
+            rejected = requested.size() - recipients.size();
+        }
+        requireWithinLimit(recipients.size());
+        if (recipients.isEmpty()) {
+            throw new RuntimeException("No recipients found");
+        }
+        return new Recipients(recipients, rejected);
+    }
+
+    // Keeps the requested order; the IN lists are bounded by the chunk size
+    private List<Long> activeUserIds(List<Long> requested) {
+        Set<Long> active = new HashSet<>();
+        for (int from = 0; from < requested.size(); from += chunkSize) {
+            active.addAll(userRepository.findActiveIdsByIdIn(
+                    requested.subList(from, Math.min(from + chunkSize, requested.size()))));
+        }
+        return requested.stream().filter(active::contains).collect(Collectors.toList());
+    }
+
+    private void requireWithinLimit(int recipients) {
+        if (recipients > maxRecipients) {
+            throw new RuntimeException("Fan-out exceeds " + maxRecipients + " recipients");
+        }
+    }
+
+    private Set<String> resolveChannels(List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return new LinkedHashSet<>(DEFAULT_CHANNELS);
+        }
+        Set<String> channels = new LinkedHashSet<>();
+        for (String channel : requested) {
+            if (!channelSender.supports(channel)) {
+                throw new RuntimeException("Unknown channel: " + channel);
+            }
+            channels.add(channel);
+        }
+        return channels;
+    }
+
+    private void evictFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MS;
+        jobs.values().removeIf(job -> job.completedAt > 0 && job.completedAt < cutoff);
+    }
+
+    private static ThreadFactory namedDaemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Recipients(List<Long> userIds, int rejected) {
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static final class FanoutJob {
+
+        private final String jobId;
+        private final int totalRecipients;
+        private final int rejectedRecipients;
+        private final Set<String> channels;
+        private final long submittedAt = System.currentTimeMillis();
+        private final AtomicLong persisted = new AtomicLong();
+        private final AtomicLong inAppDelivered = new AtomicLong();
+        private final AtomicLong pushDelivered = new AtomicLong();
+        private final AtomicLong emailDelivered = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong deferred = new AtomicLong();
+        private final AtomicLong deferredChannels = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicInteger pendingChunks = new AtomicInteger();
+
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile boolean allChunksQueued;
+        private volatile long startedAt;
+        private volatile long completedAt;
+        private volatile String error;
+
+        private FanoutJob(String jobId, int totalRecipients, int rejectedRecipients, Set<String> channels) {
+            this.jobId = jobId;
+            this.totalRecipients = totalRecipients;
+            this.rejectedRecipients = rejectedRecipients;
+            this.channels = channels;
+        }
+
+        private AtomicLong deliveredCounter(String channel) {
+            return switch (channel) {
+                case NotificationChannelSender.CHANNEL_PUSH -> pushDelivered;
+                case NotificationChannelSender.CHANNEL_EMAIL -> emailDelivered;
+                default -> inAppDelivered;
+            };
+        }
+
+        private synchronized void completeIfDone() {
+            if (allChunksQueued && pendingChunks.get() == 0 && completedAt == 0) {
+                completedAt = System.currentTimeMillis();
+                status = error == null ? JobStatus.COMPLETED : JobStatus.FAILED;
+            }
+        }
+
+        private Map<String, Object> toProgress() {
+            long attempts = (long) totalRecipients * channels.size();
+            long processed = inAppDelivered.get() + pushDelivered.get() + emailDelivered.get()
+                    + skipped.get() + failed.get();
+            // A held notification counts as processed for every channel it was held on
+            processed += deferredChannels.get();
+
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("jobId", jobId);
+            progress.put("status", status);
+            progress.put("totalRecipients", totalRecipients);
+            progress.put("rejectedRecipients", rejectedRecipients);
+            progress.put("channels", channels);
+            progress.put("persisted", persisted.get());
+            progress.put("inAppDelivered", inAppDelivered.get());
+            progress.put("pushDelivered", pushDelivered.get());
+            progress.put("emailDelivered", emailDelivered.get());
+            progress.put("skipped", skipped.get());
+            progress.put("deferred", deferred.get());
+            progress.put("failed", failed.get());
+            progress.put("percentComplete", attempts == 0 ? 100.0 : Math.min(100.0, processed * 100.0 / attempts));
+            progress.put("submittedAt", submittedAt);
+            progress.put("startedAt", startedAt);
+            progress.put("completedAt", completedAt);
+            if (error != null) {
+                progress.put("error", error);
+            }
+            return progress;
+        }
+    }
+}
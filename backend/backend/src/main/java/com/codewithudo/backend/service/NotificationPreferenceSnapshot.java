@@ -0,0 +1,150 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.codewithudo.backend.entity.NotificationPreferences;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Immutable, pre-parsed view of a user's {@link NotificationPreferences}. Enabled
+ * type/channel pairs are packed into a bitset with one bit per pair, quiet hours are stored
+ * as minutes of the day and the timezone is resolved once, so routing decisions need no
+ * parsing or queries. The bitset is never modified after construction.
+ */
+public final class NotificationPreferenceSnapshot {
+
+    public static final List<String> CHANNELS = List.of("email", "push", "in_app");
+
+    private static final int NO_QUIET_HOURS = -1;
+    private static final NotificationType[] TYPES = NotificationType.values();
+
+    public static final NotificationPreferenceSnapshot DEFAULTS =
+            new NotificationPreferenceSnapshot(allEnabled(), NO_QUIET_HOURS, NO_QUIET_HOURS, ZoneOffset.UTC, "en");
+
+    private final BitSet enabledBits;
+    private final int quietStartMinute;
+    private final int quietEndMinute;
+    private final ZoneId zoneId;
+    private final String language;
+
+    private NotificationPreferenceSnapshot(BitSet enabledBits, int quietStartMinute, int quietEndMinute,
+                                           ZoneId zoneId, String language) {
+        this.enabledBits = enabledBits;
+        this.quietStartMinute = quietStartMinute;
+        this.quietEndMinute = quietEndMinute;
+        this.zoneId = zoneId;
+        this.language = language;
+    }
+
+    public static NotificationPreferenceSnapshot from(NotificationPreferences preferences) {
+        BitSet bits = new BitSet(TYPES.length * CHANNELS.size());
+        for (NotificationType type : TYPES) {
+            for (String channel : CHANNELS) {
+                if (preferences.isNotificationEnabled(type, channel)) {
+                    bits.set(bit(type, CHANNELS.indexOf(channel)));
+                }
+            }
+        }
+
+        int start = NO_QUIET_HOURS;
+        int end = NO_QUIET_HOURS;
+        if (Boolean.TRUE.equals(preferences.getQuietHoursEnabled())) {
+            start = parseMinute(preferences.getQuietHoursStart());
+            end = parseMinute(preferences.getQuietHoursEnd());
+            if (start == NO_QUIET_HOURS || end == NO_QUIET_HOURS || start == end) {
+                start = end = NO_QUIET_HOURS;
+            }
+        }
+
+        String language = preferences.getLanguage() != null ? preferences.getLanguage() : "en";
+        return new NotificationPreferenceSnapshot(bits, start, end, parseZone(preferences.getTimezone()), language);
+    }
+
+    public boolean isEnabled(NotificationType type, String channel) {
+        int channelIndex = CHANNELS.indexOf(channel);
+        // Unknown channels are not governed by preferences
+        return channelIndex < 0 || enabledBits.get(bit(type, channelIndex));
+    }
+
+    public boolean hasQuietHours() {
+        return quietStartMinute != NO_QUIET_HOURS;
+    }
+
+    public boolean isInQuietHours(Instant now) {
+        if (!hasQuietHours()) {
+            return false;
+        }
+        LocalTime local = now.atZone(zoneId).toLocalTime();
+        int minute = local.getHour() * 60 + local.getMinute();
+        if (quietStartMinute < quietEndMinute) {
+            return minute >= quietStartMinute && minute < quietEndMinute;
+        }
+        // Window wraps past midnight, e.g. 22:00 to 08:00
+        return minute >= quietStartMinute || minute < quietEndMinute;
+    }
+
+    /**
+     * The instant the current quiet-hours window closes, or {@code now} if not in quiet hours.
+     */
+    public Instant quietHoursEnd(Instant now) {
+        if (!isInQuietHours(now)) {
+            return now;
+        }
+        ZonedDateTime local = now.atZone(zoneId);
+        ZonedDateTime end = local.toLocalDate()
+                .atTime(quietEndMinute / 60, quietEndMinute % 60)
+                .atZone(zoneId);
+        if (!end.isAfter(local)) {
+            end = end.plusDays(1);
+        }
+        return end.toInstant();
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    private static int bit(NotificationType type, int channelIndex) {
+        return type.ordinal() * CHANNELS.size() + channelIndex;
+    }
+
+    private static BitSet allEnabled() {
+        BitSet bits = new BitSet(TYPES.length * CHANNELS.size());
+        bits.set(0, TYPES.length * CHANNELS.size());
+        return bits;
+    }
+
+    private static int parseMinute(String value) {
+        if (value == null || value.isBlank()) {
+            return NO_QUIET_HOURS;
+        }
+        try {
+            LocalTime time = LocalTime.parse(value);
+            return time.getHour() * 60 + time.getMinute();
+        } catch (DateTimeException e) {
+            return NO_QUIET_HOURS;
+        }
+    }
+
+    private static ZoneId parseZone(String value) {
+        if (value == null || value.isBlank()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(value);
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
+    }
+}
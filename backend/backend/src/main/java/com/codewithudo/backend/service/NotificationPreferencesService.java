@@ -6,6 +6,8 @@ import com.codewithudo.backend.repository.NotificationPreferencesRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -16,6 +18,9 @@ public class NotificationPreferencesService {
     @Autowired
     private NotificationPreferencesRepository preferencesRepository;
     
+    @Autowired
+    private NotificationDeliveryRouter deliveryRouter;
+    
     /**
      * Get notification preferences for a user
      */
@@ -28,6 +33,7 @@ public class NotificationPreferencesService {
             // Create default preferences if none exist
             NotificationPreferences defaultPreferences = new NotificationPreferences(userId);
             defaultPreferences = preferencesRepository.save(defaultPreferences);
+            invalidateAfterCommit(userId);
             return convertToDto(defaultPreferences);
         }
     }
@@ -50,6 +56,7 @@ public class NotificationPreferencesService {
         preferences.setUpdatedAt(java.time.LocalDateTime.now());
         
         preferences = preferencesRepository.save(preferences);
+        invalidateAfterCommit(userId);
         return convertToDto(preferences);
     }
     
@@ -63,6 +70,7 @@ public class NotificationPreferencesService {
         // Create new default preferences
         NotificationPreferences defaultPreferences = new NotificationPreferences(userId);
         defaultPreferences = preferencesRepository.save(defaultPreferences);
+        invalidateAfterCommit(userId);
         
         return convertToDto(defaultPreferences);
     }
@@ -71,73 +79,46 @@ public class NotificationPreferencesService {
      * Check if a specific notification type is enabled for a user and channel
      */
     public boolean isNotificationEnabled(Long userId, String notificationType, String channel) {
-        Optional<NotificationPreferences> preferences = preferencesRepository.findByUserId(userId);
-        
-        if (preferences.isPresent()) {
-            return preferences.get().isNotificationEnabled(
-                com.codewithudo.backend.entity.Notification.NotificationType.valueOf(notificationType), 
-                channel
-            );
-        }
-        
-        // Default to enabled if no preferences exist
-        return true;
+        return deliveryRouter.snapshot(userId).isEnabled(
+            com.codewithudo.backend.entity.Notification.NotificationType.valueOf(notificationType),
+            channel
+        );
     }
     
     /**
-     * Check if quiet hours are active for a user
+     * Check if quiet hours are active for a user, in the user's timezone
      */
     public boolean isInQuietHours(Long userId) {
-        Optional<NotificationPreferences> preferences = preferencesRepository.findByUserId(userId);
-        
-        if (preferences.isPresent() && preferences.get().getQuietHoursEnabled()) {
-            return isCurrentTimeInQuietHours(preferences.get());
-        }
-        
-        return false;
+        return deliveryRouter.isInQuietHours(userId);
     }
     
     /**
      * Get user's timezone
      */
     public String getUserTimezone(Long userId) {
-        Optional<NotificationPreferences> preferences = preferencesRepository.findByUserId(userId);
-        return preferences.map(NotificationPreferences::getTimezone).orElse("UTC");
+        return deliveryRouter.snapshot(userId).getZoneId().getId();
     }
     
     /**
      * Get user's language preference
      */
     public String getUserLanguage(Long userId) {
-        Optional<NotificationPreferences> preferences = preferencesRepository.findByUserId(userId);
-        return preferences.map(NotificationPreferences::getLanguage).orElse("en");
+        return deliveryRouter.snapshot(userId).getLanguage();
     }
     
     /**
-     * Check if current time is within quiet hours
+     * Drop the cached snapshot once the change is visible to other transactions
      */
-    private boolean isCurrentTimeInQuietHours(NotificationPreferences preferences) {
-        if (!preferences.getQuietHoursEnabled() || 
-            preferences.getQuietHoursStart() == null || 
-            preferences.getQuietHoursEnd() == null) {
-            return false;
-        }
-        
-        try {
-            java.time.LocalTime now = java.time.LocalTime.now();
-            java.time.LocalTime start = java.time.LocalTime.parse(preferences.getQuietHoursStart());
-            java.time.LocalTime end = java.time.LocalTime.parse(preferences.getQuietHoursEnd());
-            
-            if (start.isBefore(end)) {
-                // Same day quiet hours (e.g., 22:00 to 08:00)
-                return now.isAfter(start) && now.isBefore(end);
-            } else {
-                // Overnight quiet hours (e.g., 22:00 to 08:00)
-                return now.isAfter(start) || now.isBefore(end);
-            }
-        } catch (Exception e) {
-            // If parsing fails, assume not in quiet hours
-            return false;
+    private void invalidateAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliveryRouter.invalidate(userId);
+                }
+            });
+        } else {
+            deliveryRouter.invalidate(userId);
         }
     }
     
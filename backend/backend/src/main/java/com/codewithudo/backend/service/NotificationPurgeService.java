@@ -0,0 +1,183 @@
+package com.codewithudo.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Removes expired notifications and read notifications past the read-retention window. Rows
+ * are picked through the {@code expires_at} / {@code read_at} indexes and deleted one bounded
+ * batch per transaction, with a short pause between batches so user traffic on the
+ * {@code notifications} table is never blocked for long.
+ *
+ * <p>Unread rows that expire are subtracted from the in-memory unread counters of their users.
+ */
+@Service
+@Slf4j
+public class NotificationPurgeService {
+
+    private static final String EXPIRED_BATCH_SQL =
+            "SELECT id, user_id, is_read FROM notifications WHERE expires_at < ? ORDER BY expires_at LIMIT ?";
+    private static final String OLD_READ_BATCH_SQL =
+            "SELECT id, user_id, is_read FROM notifications WHERE is_read = TRUE AND read_at < ? ORDER BY read_at LIMIT ?";
+    private static final String DELETE_SQL = "DELETE FROM notifications WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCountCache unreadCountCache;
+    private final int readRetentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<String> phase = new AtomicReference<>("idle");
+    private final AtomicLong runDeleted = new AtomicLong();
+    private final AtomicLong runBatches = new AtomicLong();
+    private final LongAdder expiredDeleted = new LongAdder();
+    private final LongAdder readDeleted = new LongAdder();
+    private final AtomicLong lastRunAt = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    public NotificationPurgeService(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    UnreadCountCache unreadCountCache,
+                                    @Value("${app.notifications.purge.read-retention-days:30}") int readRetentionDays,
+                                    @Value("${app.notifications.purge.batch-size:1000}") int batchSize,
+                                    @Value("${app.notifications.purge.max-batches-per-run:500}") int maxBatchesPerRun,
+                                    @Value("${app.notifications.purge.pause-ms:50}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCountCache = unreadCountCache;
+        this.readRetentionDays = readRetentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.purge.interval-ms:900000}",
+            initialDelayString = "${app.notifications.purge.interval-ms:900000}")
+    public void purgeScheduled() {
+        // A manual run in progress already does this tick's work
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        Map<String, Object> result = runPurge();
+        log.debug("Notification purge finished: {}", result);
+    }
+
+    /**
+     * Deletes expired and old read notifications, up to {@code maxBatchesPerRun} batches each.
+     */
+    public Map<String, Object> purge() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Notification purge is already running");
+        }
+        return runPurge();
+    }
+
+    // Caller has set running; it is cleared when the run ends
+    private Map<String, Object> runPurge() {
+        long start = System.currentTimeMillis();
+        runDeleted.set(0);
+        runBatches.set(0);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            phase.set("expired");
+            long expired = runBatches(EXPIRED_BATCH_SQL, now);
+            expiredDeleted.add(expired);
+
+            long read = 0;
+            if (readRetentionDays > 0) {
+                phase.set("read");
+                read = runBatches(OLD_READ_BATCH_SQL, now.minusDays(readRetentionDays));
+                readDeleted.add(read);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("expiredDeleted", expired);
+            result.put("readDeleted", read);
+            result.put("batches", runBatches.get());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Notification purge interrupted", e);
+        } finally {
+            phase.set("idle");
+            lastRunAt.set(System.currentTimeMillis());
+            lastRunMillis.set(System.currentTimeMillis() - start);
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("phase", phase.get());
+        stats.put("currentRunDeleted", runDeleted.get());
+        stats.put("currentRunBatches", runBatches.get());
+        stats.put("expiredDeleted", expiredDeleted.sum());
+        stats.put("readDeleted", readDeleted.sum());
+        stats.put("readRetentionDays", readRetentionDays);
+        stats.put("batchSize", batchSize);
+        stats.put("lastRunAt", lastRunAt.get());
+        stats.put("lastRunMillis", lastRunMillis.get());
+        return stats;
+    }
+
+    private long runBatches(String selectSql, LocalDateTime cutoff) throws InterruptedException {
+        long total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer deleted = transactionTemplate.execute(status -> deleteBatch(selectSql, cutoff));
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            total += deleted;
+            runDeleted.addAndGet(deleted);
+            runBatches.incrementAndGet();
+            // Let user transactions waiting on these rows through before the next batch
+            Thread.sleep(pauseMs);
+        }
+        return total;
+    }
+
+    private int deleteBatch(String selectSql, LocalDateTime cutoff) {
+        List<Object[]> rows = jdbcTemplate.query(selectSql, (rs, rowNum) -> new Object[] {
+                rs.getLong(1), rs.getLong(2), rs.getBoolean(3)
+        }, cutoff, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        int[] deleted = jdbcTemplate.batchUpdate(DELETE_SQL, rows.stream()
+                .map(row -> new Object[] {row[0]})
+                .collect(Collectors.toList()));
+
+        // Only rows this node actually removed count against the unread counters
+        Map<Long, Long> unreadRemoved = new HashMap<>();
+        int total = 0;
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] > 0) {
+                total++;
+                if (!(Boolean) rows.get(i)[2]) {
+                    unreadRemoved.merge((Long) rows.get(i)[1], 1L, Long::sum);
+                }
+            }
+        }
+        unreadRemoved.forEach((userId, count) -> unreadCountCache.increment(userId, -count));
+        return total;
+    }
+}
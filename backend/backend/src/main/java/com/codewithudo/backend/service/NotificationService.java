@@ -6,14 +6,17 @@ import com.codewithudo.backend.entity.Notification;
 import com.codewithudo.backend.entity.Notification.NotificationType;
 import com.codewithudo.backend.entity.Notification.NotificationPriority;
 import com.codewithudo.backend.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -21,13 +24,26 @@ import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Slf4j
 public class NotificationService {
     
     @Autowired
     private NotificationRepository notificationRepository;
     
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeDeliveryGate realtimeDeliveryGate;
+    
+    @Autowired
+    private UnreadCountCache unreadCountCache;
+    
+    @Autowired
+    private NotificationDeliveryRouter deliveryRouter;
+    
+    @Autowired
+    private QuietHoursScheduler quietHoursScheduler;
+    
+    @Autowired
+    private NotificationDigestService digestService;
     
     // Create notification
     public NotificationDto createNotification(CreateNotificationDto createDto) {
@@ -42,20 +58,50 @@ public class NotificationService {
         notification.setExpiresAt(createDto.getExpiresAt());
         
         notification = notificationRepository.save(notification);
+        unreadCountCache.increment(notification.getUserId(), 1);
         
-        // Send real-time notification via WebSocket
+        // Send real-time notification via WebSocket, or hold it until the user's quiet hours end
         NotificationDto notificationDto = convertToDto(notification);
-        sendRealTimeNotification(notificationDto);
+        NotificationPreferenceSnapshot preferences = deliveryRouter.snapshot(notification.getUserId());
+        Instant now = Instant.now();
+        if (quietHoursScheduler.shouldDefer(preferences, notification, now)) {
+            quietHoursScheduler.defer(List.of(new QuietHoursScheduler.Deferral(
+                notification, List.of(NotificationChannelSender.CHANNEL_IN_APP), preferences.quietHoursEnd(now))));
+        } else {
+            sendRealTimeNotification(notificationDto);
+        }
         
         return notificationDto;
     }
     
+    // Create notification, or fold it into the user's open digest for this type; returns null when folded
+    public NotificationDto createCoalescedNotification(CreateNotificationDto createDto) {
+        if (digestService.absorb(createDto)) {
+            return null;
+        }
+        return createNotification(createDto);
+    }
+    
+    // Emit digests for closed windows; runs outside a transaction so one failure does not roll back the rest
+    @Scheduled(fixedDelayString = "${app.notifications.digest.flush-interval-ms:5000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void flushDigests() {
+        for (CreateNotificationDto digest : digestService.drainDue()) {
+            try {
+                createNotification(digest);
+            } catch (Exception e) {
+                log.error("Failed to create digest notification for user {}", digest.getUserId(), e);
+            }
+        }
+    }
+    
     // Send real-time notification via WebSocket
     private void sendRealTimeNotification(NotificationDto notification) {
-        messagingTemplate.convertAndSendToUser(
-            notification.getUserId().toString(),
+        realtimeDeliveryGate.sendToUser(
+            notification.getUserId(),
             "/queue/notifications",
-            notification
+            notification,
+            notification.getPriority()
         );
     }
     
@@ -74,38 +120,42 @@ public class NotificationService {
                 .collect(Collectors.toList());
     }
     
-    // Get unread count
+    // Get unread count, served from memory
     public Long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCountCache.get(userId);
     }
     
-    // Mark notification as read
+    // Mark notification as read; reading an already read notification succeeds without changing the count
     public boolean markAsRead(Long notificationId, Long userId) {
         int updated = notificationRepository.markAsRead(notificationId, userId, LocalDateTime.now());
-        
-        if (updated > 0) {
-            // Send updated count via WebSocket
-            Long unreadCount = getUnreadCount(userId);
-            messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                "/queue/unread-count",
-                unreadCount
-            );
+        if (updated == 0) {
+            return notificationRepository.existsByIdAndUserId(notificationId, userId);
         }
         
-        return updated > 0;
+        // Send updated count via WebSocket
+        Long unreadCount = unreadCountCache.decrement(userId);
+        // Only the latest count matters, so slow clients get it coalesced
+        realtimeDeliveryGate.sendToUser(
+            userId,
+            "/queue/unread-count",
+            unreadCount,
+            NotificationPriority.MEDIUM
+        );
+        return true;
     }
     
     // Mark all notifications as read
     public int markAllAsRead(Long userId) {
         int updated = notificationRepository.markAllAsRead(userId, LocalDateTime.now());
         
+        unreadCountCache.reset(userId);
         if (updated > 0) {
             // Send updated count via WebSocket
-            messagingTemplate.convertAndSendToUser(
-                userId.toString(),
+            realtimeDeliveryGate.sendToUser(
+                userId,
                 "/queue/unread-count",
-                0L
+                0L,
+                NotificationPriority.MEDIUM
             );
         }
         
@@ -134,17 +184,14 @@ public class NotificationService {
         Optional<Notification> notification = notificationRepository.findById(notificationId);
         if (notification.isPresent() && notification.get().getUserId().equals(userId)) {
             notificationRepository.deleteById(notificationId);
+            if (!Boolean.TRUE.equals(notification.get().getIsRead())) {
+                unreadCountCache.decrement(userId);
+            }
             return true;
         }
         return false;
     }
     
-    // Clean up expired notifications
-    @Transactional
-    public int cleanupExpiredNotifications() {
-        return notificationRepository.deleteExpiredNotifications(LocalDateTime.now());
-    }
-    
     // Helper methods for creating specific notification types
     public NotificationDto createMatchNotification(Long userId, String matchName) {
         CreateNotificationDto dto = new CreateNotificationDto(
@@ -167,7 +214,7 @@ public class NotificationService {
             NotificationPriority.MEDIUM
         );
         dto.setActionUrl("/messages");
-        return createNotification(dto);
+        return createCoalescedNotification(dto);
     }
     
     public NotificationDto createMeetingNotification(Long userId, String meetingTitle, LocalDateTime meetingTime) {
@@ -191,7 +238,7 @@ public class NotificationService {
             NotificationPriority.MEDIUM
         );
         dto.setActionUrl("/profile");
-        return createNotification(dto);
+        return createCoalescedNotification(dto);
     }
     
     // Convert entity to DTO
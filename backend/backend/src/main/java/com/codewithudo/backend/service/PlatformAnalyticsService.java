@@ -0,0 +1,159 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.PlatformAnalytics;
+import com.codewithudo.backend.repository.LoungeMessageRepository;
+import com.codewithudo.backend.repository.LoungeRepository;
+import com.codewithudo.backend.repository.MatchFeedbackRepository;
+import com.codewithudo.backend.repository.MatchRepository;
+import com.codewithudo.backend.repository.PlatformAnalyticsRepository;
+import com.codewithudo.backend.repository.ScheduledMeetingRepository;
+import com.codewithudo.backend.repository.UserBehaviorRepository;
+import com.codewithudo.backend.repository.UserInteractionRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Builds the daily {@link PlatformAnalytics} snapshot. Each source table is aggregated
+ * with a single grouped query, and the resulting row is upserted by date so the job can be
+ * re-run or back-filled safely. Readers only ever see stored snapshots.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlatformAnalyticsService {
+
+    private final PlatformAnalyticsRepository platformAnalyticsRepository;
+    private final UserRepository userRepository;
+    private final MatchRepository matchRepository;
+    private final ScheduledMeetingRepository scheduledMeetingRepository;
+    private final LoungeRepository loungeRepository;
+    private final LoungeMessageRepository loungeMessageRepository;
+    private final UserInteractionRepository userInteractionRepository;
+    private final MatchFeedbackRepository matchFeedbackRepository;
+    private final UserBehaviorRepository userBehaviorRepository;
+
+    // Runs nightly and snapshots the day that just ended
+    @Scheduled(cron = "${app.analytics.platform.snapshot-cron:0 15 1 * * ?}")
+    public void buildNightlySnapshot() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        log.info("Building platform analytics snapshot for {}", yesterday);
+        buildSnapshot(yesterday);
+        log.info("Platform analytics snapshot for {} completed", yesterday);
+    }
+
+    @Transactional
+    public PlatformAnalytics buildSnapshot(LocalDate date) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+
+        PlatformAnalytics snapshot = platformAnalyticsRepository.findByDate(date)
+                .orElseGet(PlatformAnalytics::new);
+        snapshot.setDate(date);
+
+        applyUserStats(snapshot, date, dayStart, dayEnd);
+        applyMatchStats(snapshot, dayStart, dayEnd);
+        applyMeetingStats(snapshot, dayStart, dayEnd);
+        applyLoungeStats(snapshot, dayStart, dayEnd);
+        applyEngagementStats(snapshot, dayStart, dayEnd);
+
+        return platformAnalyticsRepository.save(snapshot);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PlatformAnalytics> getSnapshots(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return platformAnalyticsRepository.findTop30ByOrderByDateDesc();
+        }
+        return platformAnalyticsRepository.findByDateBetweenOrderByDateDesc(startDate, endDate);
+    }
+
+    @Transactional(readOnly = true)
+    public PlatformAnalytics getSnapshot(LocalDate date) {
+        return platformAnalyticsRepository.findByDate(date).orElse(null);
+    }
+
+    private void applyUserStats(PlatformAnalytics snapshot, LocalDate date,
+                                LocalDateTime dayStart, LocalDateTime dayEnd) {
+        Object[] row = singleRow(userRepository.getPlatformSnapshotStats(
+                dayStart, dayEnd,
+                date.minusDays(6).atStartOfDay(),
+                date.minusDays(29).atStartOfDay(),
+                date.minusDays(7).atStartOfDay(), date.minusDays(6).atStartOfDay(),
+                date.minusDays(30).atStartOfDay(), date.minusDays(29).atStartOfDay()));
+
+        long totalUsers = asLong(row[0]);
+        long newUsers = asLong(row[1]);
+        snapshot.setTotalUsers(totalUsers);
+        snapshot.setNewUsersToday(newUsers);
+        snapshot.setActiveUsersToday(asLong(row[2]));
+        snapshot.setActiveUsersWeek(asLong(row[3]));
+        snapshot.setActiveUsersMonth(asLong(row[4]));
+        snapshot.setUserGrowthRate(percentage(newUsers, totalUsers - newUsers));
+        snapshot.setRetentionRate7Day(percentage(asLong(row[6]), asLong(row[5])));
+        snapshot.setRetentionRate30Day(percentage(asLong(row[8]), asLong(row[7])));
+    }
+
+    private void applyMatchStats(PlatformAnalytics snapshot, LocalDateTime dayStart, LocalDateTime dayEnd) {
+        Object[] row = singleRow(matchRepository.getPlatformSnapshotStats(dayStart, dayEnd));
+
+        snapshot.setTotalMatches(asLong(row[0]));
+        snapshot.setMatchesCreatedToday(asLong(row[1]));
+        snapshot.setMatchesAcceptedToday(asLong(row[2]));
+        snapshot.setMatchesCompletedToday(asLong(row[3]));
+        snapshot.setMatchSuccessRate(percentage(asLong(row[4]), asLong(row[5])));
+    }
+
+    private void applyMeetingStats(PlatformAnalytics snapshot, LocalDateTime dayStart, LocalDateTime dayEnd) {
+        Object[] row = singleRow(scheduledMeetingRepository.getPlatformSnapshotStats(dayStart, dayEnd));
+
+        long completed = asLong(row[1]);
+        snapshot.setMeetingsScheduledToday(asLong(row[0]));
+        snapshot.setMeetingsCompletedToday(completed);
+        snapshot.setMeetingCompletionRate(percentage(completed, asLong(row[2])));
+        snapshot.setAverageMeetingDuration(asDouble(row[3]) / 60.0);
+    }
+
+    private void applyLoungeStats(PlatformAnalytics snapshot, LocalDateTime dayStart, LocalDateTime dayEnd) {
+        Object[] row = singleRow(loungeMessageRepository.getPlatformSnapshotStats(dayStart, dayEnd));
+
+        snapshot.setTotalLounges(asLong(loungeRepository.countByIsActiveTrue()));
+        snapshot.setMessagesSentToday(asLong(row[0]));
+        snapshot.setLoungeParticipantsToday(asLong(row[1]));
+        snapshot.setActiveLoungestoday(asLong(row[2]));
+    }
+
+    private void applyEngagementStats(PlatformAnalytics snapshot, LocalDateTime dayStart, LocalDateTime dayEnd) {
+        Object[] feedback = singleRow(matchFeedbackRepository.getPlatformSnapshotStats(dayStart, dayEnd));
+
+        snapshot.setUserInteractionsToday(asLong(userInteractionRepository.countCreatedInRange(dayStart, dayEnd)));
+        snapshot.setFeedbackSubmissionsToday(asLong(feedback[0]));
+        snapshot.setAverageFeedbackRating(asDouble(feedback[1]));
+        snapshot.setAverageSessionDuration(
+                asDouble(userBehaviorRepository.getAverageSessionDurationSeconds(dayStart, dayEnd)) / 60.0);
+    }
+
+    // Ungrouped aggregate queries always yield exactly one row
+    private Object[] singleRow(List<Object[]> rows) {
+        return rows.get(0);
+    }
+
+    private long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private double asDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    private double percentage(long part, long whole) {
+        return whole > 0 ? (part * 100.0) / whole : 0.0;
+    }
+}
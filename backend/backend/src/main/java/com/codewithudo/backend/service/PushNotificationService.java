@@ -2,19 +2,25 @@ package com.codewithudo.backend.service;
 
 import com.codewithudo.backend.entity.Notification;
 import com.codewithudo.backend.entity.User;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@Slf4j
 public class PushNotificationService {
     
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RealtimeDeliveryGate realtimeDeliveryGate;
+    
+    @Autowired
+    private PushSubscriptionRegistry subscriptionRegistry;
     
     @Value("${app.notifications.push.enabled:true}")
     private boolean pushEnabled;
@@ -25,23 +31,34 @@ public class PushNotificationService {
     @Value("${app.notifications.push.vapid.private-key:}")
     private String vapidPrivateKey;
     
-    // Store user push subscription tokens (in production, use database)
-    private final Map<Long, String> userPushTokens = new ConcurrentHashMap<>();
-    
     /**
-     * Register push subscription for a user
+     * Register push subscription for a user; each device registers its own token
      */
     public void registerPushSubscription(Long userId, String subscriptionToken) {
+        registerPushSubscription(userId, subscriptionToken, null, null, null);
+    }
+    
+    /**
+     * Register a Web Push subscription with its encryption keys
+     */
+    public void registerPushSubscription(Long userId, String endpoint, String p256dhKey, String authKey, String deviceLabel) {
         if (pushEnabled) {
-            userPushTokens.put(userId, subscriptionToken);
+            subscriptionRegistry.register(userId, endpoint, p256dhKey, authKey, deviceLabel);
         }
     }
     
     /**
-     * Unregister push subscription for a user
+     * Unregister one device of a user
+     */
+    public void unregisterPushSubscription(Long userId, String endpoint) {
+        subscriptionRegistry.unregister(userId, endpoint);
+    }
+    
+    /**
+     * Unregister all devices of a user
      */
     public void unregisterPushSubscription(Long userId) {
-        userPushTokens.remove(userId);
+        subscriptionRegistry.unregisterAll(userId);
     }
     
     /**
@@ -55,11 +72,19 @@ public class PushNotificationService {
         // Send via WebSocket for real-time delivery
         sendWebSocketNotification(userId, notification);
         
-        // Send push notification if user has registered
-        String pushToken = userPushTokens.get(userId);
-        if (pushToken != null) {
-            sendBrowserPushNotification(userId, pushToken, notification);
+        // Send push notification to every registered device
+        sendToDevices(subscriptionRegistry.endpoints(userId), notification);
+    }
+    
+    /**
+     * Send only the browser push for a user, for callers that deliver the WebSocket copy themselves
+     */
+    public void sendBrowserPush(Long userId, Notification notification) {
+        if (!pushEnabled) {
+            return;
         }
+        
+        sendToDevices(subscriptionRegistry.endpoints(userId), notification);
     }
     
     /**
@@ -70,8 +95,23 @@ public class PushNotificationService {
             return;
         }
         
-        for (Long userId : userIds) {
-            sendPushNotification(userId, notification);
+        // Resolve every recipient's devices with one query
+        List<Long> recipients = new ArrayList<>();
+        userIds.forEach(recipients::add);
+        Map<Long, List<PushSubscriptionRegistry.PushEndpoint>> endpoints = subscriptionRegistry.endpoints(recipients);
+        
+        for (Long userId : recipients) {
+            sendWebSocketNotification(userId, notification);
+            sendToDevices(endpoints.getOrDefault(userId, List.of()), notification);
+        }
+    }
+    
+    /**
+     * Warm the subscription cache for a batch of recipients with a single query
+     */
+    public void preloadSubscriptions(Collection<Long> userIds) {
+        if (pushEnabled) {
+            subscriptionRegistry.endpoints(userIds);
         }
     }
     
@@ -169,36 +209,44 @@ public class PushNotificationService {
      * Send WebSocket notification for real-time delivery
      */
     private void sendWebSocketNotification(Long userId, Notification notification) {
-        try {
-            messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                "/queue/notifications",
-                notification
-            );
-        } catch (Exception e) {
-            // Log error but don't fail the notification
-            System.err.println("Failed to send WebSocket notification: " + e.getMessage());
+        // Failures and slow-consumer shedding are counted by the gate
+        Notification.NotificationPriority priority = notification.getPriority() != null
+            ? notification.getPriority()
+            : Notification.NotificationPriority.MEDIUM;
+        realtimeDeliveryGate.sendToUser(userId, "/queue/notifications", notification, priority);
+    }
+    
+    private void sendToDevices(List<PushSubscriptionRegistry.PushEndpoint> endpoints, Notification notification) {
+        for (PushSubscriptionRegistry.PushEndpoint endpoint : endpoints) {
+            int status;
+            try {
+                status = sendBrowserPushNotification(endpoint, notification);
+            } catch (Exception e) {
+                log.debug("Browser push to subscription {} failed", endpoint.id(), e);
+                subscriptionRegistry.reportFailure(endpoint, false);
+                continue;
+            }
+            if (status >= 200 && status < 300) {
+                subscriptionRegistry.reportSuccess(endpoint);
+            } else {
+                // The push service answers 404/410 for subscriptions the browser has dropped
+                subscriptionRegistry.reportFailure(endpoint, status == 404 || status == 410);
+            }
         }
     }
     
     /**
-     * Send browser push notification
+     * Send browser push notification to one device and return the push service's HTTP status
      */
-    private void sendBrowserPushNotification(Long userId, String pushToken, Notification notification) {
-        try {
-            // In a production environment, you would:
-            // 1. Use a service like Firebase Cloud Messaging
-            // 2. Or implement VAPID protocol for web push
-            // 3. Send the notification to the browser's push service
-            
-            // For now, we'll just log the intent
-            System.out.println("Sending push notification to user " + userId + 
-                             " with token " + pushToken + 
-                             " for notification: " + notification.getTitle());
-            
-        } catch (Exception e) {
-            System.err.println("Failed to send browser push notification: " + e.getMessage());
-        }
+    protected int sendBrowserPushNotification(PushSubscriptionRegistry.PushEndpoint endpoint, Notification notification) {
+        // In a production environment, you would:
+        // 1. Use a service like Firebase Cloud Messaging
+        // 2. Or implement VAPID protocol for web push
+        // 3. Send the notification to the browser's push service and return its status code
+        
+        // For now, we'll just log the intent and report the push as accepted
+        log.debug("Sending push notification {} to subscription {}", notification.getId(), endpoint.id());
+        return 201;
     }
     
     /**
@@ -218,7 +266,7 @@ public class PushNotificationService {
     /**
      * Get number of registered push subscriptions
      */
-    public int getRegisteredSubscriptionCount() {
-        return userPushTokens.size();
+    public long getRegisteredSubscriptionCount() {
+        return subscriptionRegistry.countSubscriptions();
     }
 }
@@ -0,0 +1,253 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.PushSubscription;
+import com.codewithudo.backend.repository.PushSubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent push subscriptions, several per user. Lookups go through a read-through cache
+ * with a TTL (so registrations on other nodes are picked up), and bulk lookups load every
+ * cache miss with a single query. Successful sends are recorded in memory and written back in
+ * batches; endpoints reported gone by the push service are removed at once, and endpoints
+ * that keep failing or stay unused are pruned periodically.
+ */
+@Service
+@Slf4j
+public class PushSubscriptionRegistry {
+
+    private static final String MARK_SUCCESS_SQL =
+            "UPDATE push_subscriptions SET last_success_at = ?, failure_count = 0 WHERE id = ?";
+    private static final String MARK_FAILURE_SQL =
+            "UPDATE push_subscriptions SET failure_count = failure_count + 1 WHERE id = ?";
+
+    private final PushSubscriptionRepository subscriptionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final int maxDevicesPerUser;
+    private final int maxFailures;
+    private final int staleDays;
+
+    private final Map<Long, CachedEndpoints> cache = new ConcurrentHashMap<>();
+    private final Set<Long> succeeded = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder removedGone = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+
+    public record PushEndpoint(Long id, Long userId, String endpoint, String p256dhKey, String authKey) {
+    }
+
+    public PushSubscriptionRegistry(PushSubscriptionRepository subscriptionRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Value("${app.notifications.push.registry.ttl-ms:300000}") long ttlMs,
+                                    @Value("${app.notifications.push.registry.max-entries:200000}") int maxEntries,
+                                    @Value("${app.notifications.push.registry.max-devices-per-user:10}") int maxDevicesPerUser,
+                                    @Value("${app.notifications.push.registry.max-failures:5}") int maxFailures,
+                                    @Value("${app.notifications.push.registry.stale-days:60}") int staleDays) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.maxDevicesPerUser = maxDevicesPerUser;
+        this.maxFailures = maxFailures;
+        this.staleDays = staleDays;
+    }
+
+    public List<PushEndpoint> endpoints(Long userId) {
+        CachedEndpoints cached = cache.get(userId);
+        if (isFresh(cached)) {
+            hits.increment();
+            return cached.endpoints;
+        }
+        misses.increment();
+        List<PushEndpoint> endpoints = subscriptionRepository.findByUserId(userId).stream()
+                .map(PushSubscriptionRegistry::toEndpoint)
+                .collect(Collectors.toList());
+        put(userId, endpoints);
+        return endpoints;
+    }
+
+    /**
+     * Endpoints for a batch of users, loading all misses with a single query. Users without
+     * a subscription are absent from the result.
+     */
+    public Map<Long, List<PushEndpoint>> endpoints(Collection<Long> userIds) {
+        Map<Long, List<PushEndpoint>> result = new HashMap<>(userIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            CachedEndpoints cached = cache.get(userId);
+            if (isFresh(cached)) {
+                if (!cached.endpoints.isEmpty()) {
+                    result.put(userId, cached.endpoints);
+                }
+            } else {
+                missing.add(userId);
+            }
+        }
+        hits.add(userIds.size() - missing.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            Map<Long, List<PushEndpoint>> loaded = subscriptionRepository.findByUserIdIn(missing).stream()
+                    .map(PushSubscriptionRegistry::toEndpoint)
+                    .collect(Collectors.groupingBy(PushEndpoint::userId));
+            for (Long userId : missing) {
+                List<PushEndpoint> endpoints = loaded.getOrDefault(userId, List.of());
+                put(userId, endpoints);
+                if (!endpoints.isEmpty()) {
+                    result.put(userId, endpoints);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds or refreshes a device. An endpoint already registered to another user moves to
+     * this one; beyond {@code max-devices-per-user} the least recently used device is dropped.
+     */
+    @Transactional
+    public void register(Long userId, String endpoint, String p256dhKey, String authKey, String deviceLabel) {
+        PushSubscription subscription = subscriptionRepository.findByEndpoint(endpoint).orElseGet(() -> {
+            PushSubscription created = new PushSubscription();
+            created.setEndpoint(endpoint);
+            created.setCreatedAt(LocalDateTime.now());
+            return created;
+        });
+        if (subscription.getUserId() != null && !subscription.getUserId().equals(userId)) {
+            invalidate(subscription.getUserId());
+        }
+        subscription.setUserId(userId);
+        subscription.setP256dhKey(p256dhKey);
+        subscription.setAuthKey(authKey);
+        subscription.setDeviceLabel(deviceLabel);
+        subscription.setFailureCount(0);
+        subscriptionRepository.save(subscription);
+
+        List<PushSubscription> devices = subscriptionRepository.findByUserId(userId);
+        if (devices.size() > maxDevicesPerUser) {
+            devices.sort(Comparator.comparing((PushSubscription device) ->
+                    device.getLastSuccessAt() != null ? device.getLastSuccessAt() : device.getCreatedAt()));
+            subscriptionRepository.deleteAllInBatch(devices.stream()
+                    .filter(device -> !device.getEndpoint().equals(endpoint))
+                    .limit(devices.size() - maxDevicesPerUser)
+                    .collect(Collectors.toList()));
+        }
+        invalidate(userId);
+    }
+
+    @Transactional
+    public void unregister(Long userId, String endpoint) {
+        subscriptionRepository.deleteByUserIdAndEndpoint(userId, endpoint);
+        invalidate(userId);
+    }
+
+    @Transactional
+    public void unregisterAll(Long userId) {
+        subscriptionRepository.deleteByUserId(userId);
+        invalidate(userId);
+    }
+
+    public void reportSuccess(PushEndpoint endpoint) {
+        succeeded.add(endpoint.id());
+    }
+
+    /**
+     * {@code gone} means the push service reported the subscription expired or unknown
+     * (HTTP 404/410), so it can never succeed again.
+     */
+    public void reportFailure(PushEndpoint endpoint, boolean gone) {
+        if (gone) {
+            subscriptionRepository.deleteAllByIdInBatch(List.of(endpoint.id()));
+            removedGone.increment();
+            invalidate(endpoint.userId());
+        } else {
+            jdbcTemplate.update(MARK_FAILURE_SQL, endpoint.id());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.push.registry.flush-interval-ms:60000}")
+    public void flushSuccesses() {
+        if (succeeded.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(succeeded);
+        succeeded.removeAll(ids);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_SUCCESS_SQL, ids.stream()
+                .map(id -> new Object[] {now, id})
+                .collect(Collectors.toList()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.push.registry.prune-interval-ms:3600000}")
+    public void pruneDeadEndpoints() {
+        // Write back pending successes first so recently used endpoints are not taken for stale
+        flushSuccesses();
+        List<PushSubscription> dead = subscriptionRepository.findPrunable(maxFailures,
+                LocalDateTime.now().minusDays(staleDays));
+        if (dead.isEmpty()) {
+            return;
+        }
+        subscriptionRepository.deleteAllInBatch(dead);
+        dead.stream().map(PushSubscription::getUserId).distinct().forEach(this::invalidate);
+        pruned.add(dead.size());
+        log.info("Pruned {} dead push subscriptions", dead.size());
+    }
+
+    public long countSubscriptions() {
+        return subscriptionRepository.count();
+    }
+
+    public void invalidate(Long userId) {
+        cache.remove(userId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cachedUsers", cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("removedGone", removedGone.sum());
+        stats.put("pruned", pruned.sum());
+        return stats;
+    }
+
+    private boolean isFresh(CachedEndpoints cached) {
+        return cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMs;
+    }
+
+    private void put(Long userId, List<PushEndpoint> endpoints) {
+        if (cache.size() >= maxEntries) {
+            log.debug("Push subscription cache full ({} entries), clearing", cache.size());
+            cache.clear();
+        }
+        cache.put(userId, new CachedEndpoints(List.copyOf(endpoints), System.currentTimeMillis()));
+    }
+
+    private static PushEndpoint toEndpoint(PushSubscription subscription) {
+        return new PushEndpoint(subscription.getId(), subscription.getUserId(), subscription.getEndpoint(),
+                subscription.getP256dhKey(), subscription.getAuthKey());
+    }
+
+    private record CachedEndpoints(List<PushEndpoint> endpoints, long loadedAt) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.DeferredNotification;
+import com.codewithudo.backend.entity.Notification;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.DeferredNotificationRepository;
+import com.codewithudo.backend.repository.NotificationRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Holds real-time delivery of notifications whose recipient is in quiet hours and releases
+ * them in batches once the window closes in the recipient's timezone. The notification row
+ * itself is stored immediately; only the WebSocket/push/email delivery waits.
+ *
+ * <p>Every held delivery is persisted in {@code deferred_notifications}, and each tick polls
+ * the table for rows whose release time has passed, whichever node deferred them. A release
+ * claims each row by deleting it before sending, so a delivery is sent at most once even when
+ * several nodes pick up the same due rows.
+ */
+@Service
+@Slf4j
+public class QuietHoursScheduler {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO deferred_notifications (notification_id, user_id, channels, release_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String CLAIM_SQL = "DELETE FROM deferred_notifications WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeferredNotificationRepository deferredNotificationRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final NotificationChannelSender channelSender;
+    private final int releaseBatchSize;
+    private final long tickMs;
+
+    private final LongAdder deferredCount = new LongAdder();
+    private final LongAdder releasedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private ScheduledExecutorService releaser;
+
+    public record Deferral(Notification notification, List<String> channels, Instant releaseAt) {
+    }
+
+    public QuietHoursScheduler(JdbcTemplate jdbcTemplate,
+                               DeferredNotificationRepository deferredNotificationRepository,
+                               NotificationRepository notificationRepository,
+                               UserRepository userRepository,
+                               NotificationChannelSender channelSender,
+                               @Value("${app.notifications.quiet-hours.release-batch-size:500}") int releaseBatchSize,
+                               @Value("${app.notifications.quiet-hours.tick-ms:15000}") long tickMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deferredNotificationRepository = deferredNotificationRepository;
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.channelSender = channelSender;
+        this.releaseBatchSize = releaseBatchSize;
+        this.tickMs = tickMs;
+    }
+
+    @PostConstruct
+    void start() {
+        releaser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quiet-hours-release");
+            thread.setDaemon(true);
+            return thread;
+        });
+        releaser.scheduleWithFixedDelay(this::releaseDueSafely, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        releaser.shutdown();
+        releaser.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Urgent notifications always go out immediately.
+     */
+    public boolean shouldDefer(NotificationPreferenceSnapshot preferences, Notification notification, Instant now) {
+        return notification.getPriority() != Notification.NotificationPriority.URGENT
+                && preferences.isInQuietHours(now);
+    }
+
+    /**
+     * Persists the deferrals with one batch insert; the next tick after their release time sends them.
+     */
+    public void defer(List<Deferral> deferrals) {
+        if (deferrals.isEmpty()) {
+            return;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<DeferredNotification> rows = new ArrayList<>(deferrals.size());
+        for (Deferral deferral : deferrals) {
+            rows.add(new DeferredNotification(null, deferral.notification().getId(),
+                    deferral.notification().getUserId(), String.join(",", deferral.channels()),
+                    LocalDateTime.ofInstant(deferral.releaseAt(), ZoneId.systemDefault()), createdAt));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        DeferredNotification row = rows.get(i);
+                        ps.setLong(1, row.getNotificationId());
+                        ps.setLong(2, row.getUserId());
+                        ps.setString(3, row.getChannels());
+                        ps.setTimestamp(4, Timestamp.valueOf(row.getReleaseAt()));
+                        ps.setTimestamp(5, Timestamp.valueOf(row.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+        deferredCount.add(rows.size());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", deferredNotificationRepository.count());
+        stats.put("deferred", deferredCount.sum());
+        stats.put("released", releasedCount.sum());
+        stats.put("skipped", skippedCount.sum());
+        stats.put("failed", failedCount.sum());
+        return stats;
+    }
+
+    private void releaseDueSafely() {
+        try {
+            List<DeferredNotification> due;
+            do {
+                due = deferredNotificationRepository.findByReleaseAtLessThanEqualOrderByReleaseAtAsc(
+                        LocalDateTime.now(), PageRequest.of(0, releaseBatchSize));
+                release(due);
+            } while (due.size() == releaseBatchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Releasing deferred notifications failed", e);
+        }
+    }
+
+    private void release(List<DeferredNotification> batch) throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int[] claimed = jdbcTemplate.batchUpdate(CLAIM_SQL, batch.stream()
+                .map(row -> new Object[] {row.getId()})
+                .collect(Collectors.toList()));
+        List<DeferredNotification> owned = new ArrayList<>(batch.size());
+        for (int i = 0; i < claimed.length; i++) {
+            if (claimed[i] > 0) {
+                owned.add(batch.get(i));
+            }
+        }
+        if (owned.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Notification> notifications = notificationRepository.findAllById(owned.stream()
+                        .map(DeferredNotification::getNotificationId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Notification::getId, Function.identity()));
+        boolean needsUsers = owned.stream().anyMatch(row -> row.getChannels().contains(NotificationChannelSender.CHANNEL_EMAIL));
+        Map<Long, User> users = needsUsers
+                ? userRepository.findAllById(owned.stream().map(DeferredNotification::getUserId).distinct()
+                        .collect(Collectors.toList())).stream().collect(Collectors.toMap(User::getId, Function.identity()))
+                : Map.of();
+
+        for (DeferredNotification row : owned) {
+            Notification notification = notifications.get(row.getNotificationId());
+            // Deleted or already read in the app while held: nothing left to announce
+            if (notification == null || Boolean.TRUE.equals(notification.getIsRead())) {
+                skippedCount.increment();
+                continue;
+            }
+            for (String channel : channels(row)) {
+                try {
+                    channelSender.send(channel, notification, users.get(row.getUserId()));
+                    releasedCount.increment();
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failedCount.increment();
+                    log.debug("Deferred delivery via {} of notification {} failed", channel, row.getNotificationId(), e);
+                }
+            }
+        }
+    }
+
+    private Collection<String> channels(DeferredNotification row) {
+        return Arrays.asList(row.getChannels().split(","));
+    }
+}
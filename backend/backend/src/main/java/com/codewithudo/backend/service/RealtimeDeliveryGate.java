@@ -0,0 +1,113 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.config.OutboundBacklogTracker;
+import com.codewithudo.backend.entity.Notification.NotificationPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single entry point for per-user WebSocket sends, applying a flow-control policy for slow
+ * consumers. While the send buffer of one of the user's sessions on this node holds more than
+ * the threshold, urgent and high-priority messages still go out, medium-priority messages are
+ * coalesced so only the latest per destination is sent once the buffer drains, and
+ * low-priority messages are dropped. Callers that cannot afford to lose a message must keep
+ * their own copy; stored notifications are refetched on reconnect, but pushes such as the
+ * unread count are not stored anywhere.
+ */
+@Service
+@Slf4j
+public class RealtimeDeliveryGate {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final OutboundBacklogTracker backlogTracker;
+    private final int congestedBufferBytes;
+
+    private final Map<PendingKey, Object> coalesced = new ConcurrentHashMap<>();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    public RealtimeDeliveryGate(SimpMessagingTemplate messagingTemplate,
+                                OutboundBacklogTracker backlogTracker,
+                                @Value("${app.websocket.flow-control.congested-buffer-bytes:131072}") int congestedBufferBytes) {
+        this.messagingTemplate = messagingTemplate;
+        this.backlogTracker = backlogTracker;
+        this.congestedBufferBytes = congestedBufferBytes;
+    }
+
+    /**
+     * Sends, coalesces or drops {@code payload} for the user. Returns {@code true} if it was
+     * handed to the outbound channel now.
+     */
+    public boolean sendToUser(Long userId, String destination, Object payload, NotificationPriority priority) {
+        String user = userId.toString();
+        if (backlogTracker.backlog(user) >= congestedBufferBytes) {
+            switch (priority) {
+                case LOW -> {
+                    droppedCount.increment();
+                    return false;
+                }
+                case MEDIUM -> {
+                    if (coalesced.put(new PendingKey(user, destination), payload) != null) {
+                        coalescedCount.increment();
+                    }
+                    return false;
+                }
+                default -> {
+                    // High and urgent always go out
+                }
+            }
+        }
+        return send(user, destination, payload);
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.flow-control.flush-interval-ms:1000}")
+    public void flushCoalesced() {
+        for (PendingKey key : coalesced.keySet()) {
+            if (backlogTracker.backlog(key.user()) < congestedBufferBytes) {
+                Object payload = coalesced.remove(key);
+                if (payload != null) {
+                    send(key.user(), key.destination(), payload);
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sent", sentCount.sum());
+        stats.put("dropped", droppedCount.sum());
+        stats.put("coalesced", coalescedCount.sum());
+        stats.put("failed", failedCount.sum());
+        stats.put("pendingCoalesced", coalesced.size());
+        stats.put("bufferedBytes", backlogTracker.totalBacklog());
+        stats.put("backloggedSessions", backlogTracker.backloggedSessions());
+        return stats;
+    }
+
+    private boolean send(String user, String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSendToUser(user, destination, payload);
+            sentCount.increment();
+            return true;
+        } catch (MessagingException e) {
+            // Outbound executor full or broker unavailable
+            failedCount.increment();
+            log.debug("WebSocket send to user {} on {} failed: {}", user, destination, e.getMessage());
+            return false;
+        }
+    }
+
+    private record PendingKey(String user, String destination) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.codewithudo.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps {@code activity_logs} and {@code user_behaviors} bounded. Raw rows older than the
+ * retention window are folded into per-user daily aggregates and then deleted, one bounded
+ * id range per transaction, so no run holds long locks or builds a huge undo log.
+ *
+ * <p>Each batch adds its counts to the aggregate rows and deletes exactly the rows it counted.
+ * If another node removed some of them first, the delete count no longer matches and the batch
+ * rolls back instead of counting those rows twice.
+ */
+@Service
+@Slf4j
+public class RetentionService {
+
+    // The insight engine keeps a 30-day daily window over raw behaviors
+    private static final int MIN_RETENTION_DAYS = 31;
+
+    private static final String ACTIVITY_BATCH_END_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM activity_logs WHERE created_at < ? ORDER BY id LIMIT ?) batch";
+    private static final String ACTIVITY_AGGREGATE_SQL =
+            "SELECT user_id, CAST(created_at AS DATE), activity_type, COUNT(*), COALESCE(SUM(points_earned), 0) " +
+            "FROM activity_logs WHERE id <= ? AND created_at < ? " +
+            "GROUP BY user_id, CAST(created_at AS DATE), activity_type";
+    private static final String ACTIVITY_UPDATE_SQL =
+            "UPDATE activity_log_daily_aggregates SET event_count = event_count + ?, points_earned = points_earned + ? " +
+            "WHERE activity_date = ? AND user_id = ? AND activity_type = ?";
+    private static final String ACTIVITY_INSERT_SQL =
+            "INSERT INTO activity_log_daily_aggregates (event_count, points_earned, activity_date, user_id, activity_type) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String ACTIVITY_DELETE_SQL =
+            "DELETE FROM activity_logs WHERE id <= ? AND created_at < ?";
+
+    private static final String BEHAVIOR_BATCH_END_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM user_behaviors WHERE timestamp < ? ORDER BY id LIMIT ?) batch";
+    private static final String BEHAVIOR_AGGREGATE_SQL =
+            "SELECT user_id, CAST(timestamp AS DATE), behavior_type, COUNT(*), " +
+            "COALESCE(SUM(duration_seconds), 0), COUNT(duration_seconds), " +
+            "COALESCE(SUM(intensity_score), 0), COUNT(intensity_score) " +
+            "FROM user_behaviors WHERE id <= ? AND timestamp < ? " +
+            "GROUP BY user_id, CAST(timestamp AS DATE), behavior_type";
+    private static final String BEHAVIOR_UPDATE_SQL =
+            "UPDATE user_behavior_daily_aggregates SET event_count = event_count + ?, " +
+            "total_duration_seconds = total_duration_seconds + ?, duration_samples = duration_samples + ?, " +
+            "intensity_sum = intensity_sum + ?, intensity_samples = intensity_samples + ? " +
+            "WHERE activity_date = ? AND user_id = ? AND behavior_type = ?";
+    private static final String BEHAVIOR_INSERT_SQL =
+            "INSERT INTO user_behavior_daily_aggregates (event_count, total_duration_seconds, duration_samples, " +
+            "intensity_sum, intensity_samples, activity_date, user_id, behavior_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String BEHAVIOR_DELETE_SQL =
+            "DELETE FROM user_behaviors WHERE id <= ? AND timestamp < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final LongAdder compactedActivityLogs = new LongAdder();
+    private final LongAdder compactedBehaviors = new LongAdder();
+    private final LongAdder abortedBatches = new LongAdder();
+    private final AtomicLong lastRunAt = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    public RetentionService(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.retention.raw-days:90}") int retentionDays,
+                            @Value("${app.retention.batch-size:5000}") int batchSize,
+                            @Value("${app.retention.max-batches-per-run:2000}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        if (retentionDays < MIN_RETENTION_DAYS) {
+            log.warn("Raw retention of {} days is below the minimum; using {} days", retentionDays, MIN_RETENTION_DAYS);
+        }
+        this.retentionDays = Math.max(retentionDays, MIN_RETENTION_DAYS);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${app.retention.compaction-cron:0 45 2 * * ?}")
+    public void compactNightly() {
+        Map<String, Object> result = compact();
+        log.info("Retention compaction finished: {}", result);
+    }
+
+    /**
+     * Compacts everything older than the retention window, up to {@code maxBatchesPerRun}
+     * batches per table. Returns the number of raw rows compacted from each table.
+     */
+    public Map<String, Object> compact() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Retention compaction is already running");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // Day-aligned cutoff so a day is never split between raw rows and aggregates for long
+            LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+
+            long activityLogs = runBatches("activity_logs", () -> compactActivityLogBatch(cutoff));
+            long behaviors = runBatches("user_behaviors", () -> compactBehaviorBatch(cutoff));
+            compactedActivityLogs.add(activityLogs);
+            compactedBehaviors.add(behaviors);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("cutoff", cutoff);
+            result.put("activityLogsCompacted", activityLogs);
+            result.put("behaviorsCompacted", behaviors);
+            return result;
+        } finally {
+            lastRunAt.set(System.currentTimeMillis());
+            lastRunMillis.set(System.currentTimeMillis() - start);
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("retentionDays", retentionDays);
+        stats.put("batchSize", batchSize);
+        stats.put("compactedActivityLogs", compactedActivityLogs.sum());
+        stats.put("compactedBehaviors", compactedBehaviors.sum());
+        stats.put("abortedBatches", abortedBatches.sum());
+        stats.put("running", running.get());
+        stats.put("lastRunAt", lastRunAt.get());
+        stats.put("lastRunMillis", lastRunMillis.get());
+        return stats;
+    }
+
+    private long runBatches(String table, BatchStep step) {
+        long total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer compacted = transactionTemplate.execute(status -> {
+                int rows = step.run();
+                if (rows < 0) {
+                    status.setRollbackOnly();
+                }
+                return rows;
+            });
+            if (compacted == null || compacted <= 0) {
+                if (compacted != null && compacted < 0) {
+                    abortedBatches.increment();
+                    log.warn("Compaction batch on {} rolled back after a concurrent delete", table);
+                }
+                break;
+            }
+            total += compacted;
+        }
+        return total;
+    }
+
+    // Returns rows compacted, 0 when nothing is left, or -1 when the batch must roll back
+    private int compactActivityLogBatch(LocalDateTime cutoff) {
+        Long batchEnd = jdbcTemplate.queryForObject(ACTIVITY_BATCH_END_SQL, Long.class, cutoff, batchSize);
+        if (batchEnd == null) {
+            return 0;
+        }
+
+        List<Object[]> groups = jdbcTemplate.query(ACTIVITY_AGGREGATE_SQL, (rs, rowNum) -> new Object[] {
+                rs.getLong(4), rs.getLong(5), rs.getObject(2, LocalDate.class), rs.getLong(1), rs.getString(3)
+        }, batchEnd, cutoff);
+        long counted = groups.stream().mapToLong(group -> (Long) group[0]).sum();
+
+        upsert(groups, ACTIVITY_UPDATE_SQL, ACTIVITY_INSERT_SQL,
+                new int[] {Types.BIGINT, Types.BIGINT, Types.DATE, Types.BIGINT, Types.VARCHAR});
+
+        int deleted = jdbcTemplate.update(ACTIVITY_DELETE_SQL, batchEnd, cutoff);
+        return deleted == counted ? deleted : -1;
+    }
+
+    private int compactBehaviorBatch(LocalDateTime cutoff) {
+        Long batchEnd = jdbcTemplate.queryForObject(BEHAVIOR_BATCH_END_SQL, Long.class, cutoff, batchSize);
+        if (batchEnd == null) {
+            return 0;
+        }
+
+        List<Object[]> groups = jdbcTemplate.query(BEHAVIOR_AGGREGATE_SQL, (rs, rowNum) -> new Object[] {
+                rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getDouble(7), rs.getLong(8),
+                rs.getObject(2, LocalDate.class), rs.getLong(1), rs.getString(3)
+        }, batchEnd, cutoff);
+        long counted = groups.stream().mapToLong(group -> (Long) group[0]).sum();
+
+        upsert(groups, BEHAVIOR_UPDATE_SQL, BEHAVIOR_INSERT_SQL,
+                new int[] {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DOUBLE, Types.BIGINT,
+                        Types.DATE, Types.BIGINT, Types.VARCHAR});
+
+        int deleted = jdbcTemplate.update(BEHAVIOR_DELETE_SQL, batchEnd, cutoff);
+        return deleted == counted ? deleted : -1;
+    }
+
+    // Adds to existing aggregate rows in one batch and inserts only the keys that were missing
+    private void upsert(List<Object[]> groups, String updateSql, String insertSql, int[] types) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(updateSql, groups, types);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(groups.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(insertSql, missing, types);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchStep {
+        int run();
+    }
+}
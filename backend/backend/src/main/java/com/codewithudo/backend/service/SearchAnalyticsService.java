@@ -0,0 +1,425 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.PopularSearch;
+import com.codewithudo.backend.entity.RecentSearch;
+import com.codewithudo.backend.repository.PopularSearchRepository;
+import com.codewithudo.backend.repository.RecentSearchRepository;
+import com.codewithudo.backend.util.CountMinSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Popular and recent searches.
+ *
+ * <p>Popular searches are counted per company (users without one share company 0) in a
+ * count-min sketch, with the current heavy hitters kept in a small top-K table, so a tenant
+ * costs the same fixed memory however many distinct queries it sees. Counts decay with a
+ * configurable half-life, letting yesterday's burst make way for today's. Only searches that
+ * found something count toward popularity.
+ *
+ * <p>Recent searches are a short ring per user, most recent first, with repeats moved to the
+ * front. Users' rings are loaded on first use and dropped again once written back.
+ *
+ * <p>Both are written back to the database on a schedule. After a restart the top-K rows
+ * reseed their company's sketch; the long tail below them starts again from zero.
+ */
+@Service
+@Slf4j
+public class SearchAnalyticsService {
+
+    private static final long NO_COMPANY = 0L;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final String POPULAR_DELETE_SQL = "DELETE FROM popular_searches WHERE company_id = ?";
+    private static final String POPULAR_INSERT_SQL =
+            "INSERT INTO popular_searches (company_id, query, score, updated_at) VALUES (?, ?, ?, ?)";
+    private static final String RECENT_DELETE_SQL = "DELETE FROM recent_searches WHERE user_id = ?";
+    private static final String RECENT_INSERT_SQL =
+            "INSERT INTO recent_searches (user_id, query, list_position, updated_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PopularSearchRepository popularSearchRepository;
+    private final RecentSearchRepository recentSearchRepository;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int topK;
+    private final long halfLifeMs;
+    private final long decayIntervalMs;
+    private final int recentPerUser;
+    private final int maxCachedUsers;
+
+    private final Map<Long, PopularCounter> popular = new ConcurrentHashMap<>();
+    private final Map<Long, RecentRing> recent = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushedCompanies = new LongAdder();
+    private final LongAdder flushedUsers = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final AtomicLong lastFlushAt = new AtomicLong();
+
+    public SearchAnalyticsService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  PopularSearchRepository popularSearchRepository,
+                                  RecentSearchRepository recentSearchRepository,
+                                  @Value("${app.search.analytics.sketch-depth:4}") int sketchDepth,
+                                  @Value("${app.search.analytics.sketch-width:1024}") int sketchWidth,
+                                  @Value("${app.search.analytics.top-k:50}") int topK,
+                                  @Value("${app.search.analytics.half-life-ms:86400000}") long halfLifeMs,
+                                  @Value("${app.search.analytics.decay-interval-ms:300000}") long decayIntervalMs,
+                                  @Value("${app.search.analytics.recent-per-user:20}") int recentPerUser,
+                                  @Value("${app.search.analytics.max-cached-users:10000}") int maxCachedUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.popularSearchRepository = popularSearchRepository;
+        this.recentSearchRepository = recentSearchRepository;
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.topK = topK;
+        this.halfLifeMs = halfLifeMs;
+        this.decayIntervalMs = decayIntervalMs;
+        this.recentPerUser = Math.max(1, recentPerUser);
+        this.maxCachedUsers = maxCachedUsers;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            List<PopularSearch> rows = popularSearchRepository.findAll();
+            rows.forEach(row -> counterFor(row.getCompanyId()).add(normalize(row.getQuery()), row.getQuery(), row.getScore()));
+            log.info("Search analytics seeded {} popular queries for {} companies", rows.size(), popular.size());
+        } catch (Exception e) {
+            log.error("Loading popular searches failed", e);
+        }
+    }
+
+    /**
+     * Records one search. Blank queries are ignored.
+     */
+    public void record(Long userId, Long companyId, String query, int resultCount) {
+        String display = clean(query);
+        if (display.isEmpty()) {
+            return;
+        }
+        recorded.increment();
+        if (resultCount > 0) {
+            counterFor(companyId).add(normalize(display), display, 1.0);
+        }
+        if (userId != null) {
+            ringFor(userId).add(display);
+        }
+    }
+
+    public List<String> getPopular(Long companyId, int limit) {
+        PopularCounter counter = popular.get(companyId != null ? companyId : NO_COMPANY);
+        return counter == null || limit <= 0 ? List.of() : counter.top(limit);
+    }
+
+    public List<String> getRecent(Long userId, int limit) {
+        if (userId == null || limit <= 0) {
+            return List.of();
+        }
+        return ringFor(userId).list(limit);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.analytics.decay-interval-ms:300000}")
+    public void decay() {
+        double factor = Math.pow(0.5, (double) decayIntervalMs / halfLifeMs);
+        popular.values().forEach(counter -> counter.scale(factor));
+    }
+
+    /**
+     * Writes back every company and user changed since the last flush, each in its own
+     * transaction, then drops cached rings beyond the limit that are already saved.
+     */
+    @Scheduled(fixedDelayString = "${app.search.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            popular.forEach((companyId, counter) -> {
+                List<Map.Entry<String, Double>> snapshot = counter.takeIfDirty();
+                if (snapshot != null && !write(() -> writePopular(companyId, snapshot))) {
+                    counter.markDirty();
+                }
+            });
+            recent.forEach((userId, ring) -> {
+                List<String> snapshot = ring.takeIfDirty();
+                if (snapshot != null && !write(() -> writeRecent(userId, snapshot))) {
+                    ring.markDirty();
+                }
+            });
+            evictClean();
+            lastFlushAt.set(System.currentTimeMillis());
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("companies", popular.size());
+        stats.put("trackedQueries", popular.values().stream().mapToInt(PopularCounter::size).sum());
+        stats.put("bytesPerCompany", (long) sketchDepth * sketchWidth * Double.BYTES);
+        stats.put("cachedUsers", recent.size());
+        stats.put("recorded", recorded.sum());
+        stats.put("flushedCompanies", flushedCompanies.sum());
+        stats.put("flushedUsers", flushedUsers.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("lastFlushAt", lastFlushAt.get());
+        return stats;
+    }
+
+    private PopularCounter counterFor(Long companyId) {
+        return popular.computeIfAbsent(companyId != null ? companyId : NO_COMPANY,
+                id -> new PopularCounter(new CountMinSketch(sketchDepth, sketchWidth), topK));
+    }
+
+    // Loaded outside computeIfAbsent so the query does not hold up other users' updates
+    private RecentRing ringFor(Long userId) {
+        RecentRing ring = recent.get(userId);
+        if (ring != null) {
+            return ring;
+        }
+        RecentRing loaded = new RecentRing(recentPerUser);
+        List<RecentSearch> rows = recentSearchRepository.findByUserIdOrderByPositionAsc(userId);
+        for (int i = Math.min(rows.size(), recentPerUser) - 1; i >= 0; i--) {
+            loaded.restore(rows.get(i).getQuery());
+        }
+        RecentRing existing = recent.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private boolean write(Runnable work) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+            return true;
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.warn("Writing search analytics failed; will retry on the next flush", e);
+            return false;
+        }
+    }
+
+    private void writePopular(Long companyId, List<Map.Entry<String, Double>> snapshot) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(POPULAR_DELETE_SQL, companyId);
+        jdbcTemplate.batchUpdate(POPULAR_INSERT_SQL, snapshot.stream()
+                .map(entry -> new Object[]{companyId, entry.getKey(), entry.getValue(), now})
+                .collect(Collectors.toList()));
+        flushedCompanies.increment();
+    }
+
+    private void writeRecent(Long userId, List<String> snapshot) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            rows.add(new Object[]{userId, snapshot.get(i), i, now});
+        }
+        jdbcTemplate.update(RECENT_DELETE_SQL, userId);
+        jdbcTemplate.batchUpdate(RECENT_INSERT_SQL, rows);
+        flushedUsers.increment();
+    }
+
+    private void evictClean() {
+        Iterator<RecentRing> rings = recent.values().iterator();
+        while (recent.size() > maxCachedUsers && rings.hasNext()) {
+            if (!rings.next().isDirty()) {
+                rings.remove();
+            }
+        }
+    }
+
+    private static String clean(String query) {
+        if (query == null) {
+            return "";
+        }
+        String cleaned = WHITESPACE.matcher(query.trim()).replaceAll(" ");
+        return cleaned.length() > MAX_QUERY_LENGTH ? cleaned.substring(0, MAX_QUERY_LENGTH) : cleaned;
+    }
+
+    private static String normalize(String query) {
+        return clean(query).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One company's sketch and heavy hitters. A query enters the top-K table once its
+     * estimate beats the weakest entry there, which it then replaces.
+     */
+    private static final class PopularCounter {
+
+        private final CountMinSketch sketch;
+        private final int capacity;
+        private final Map<String, Heavy> top = new HashMap<>();
+        private boolean dirty;
+
+        private PopularCounter(CountMinSketch sketch, int capacity) {
+            this.sketch = sketch;
+            this.capacity = capacity;
+        }
+
+        synchronized void add(String key, String display, double amount) {
+            double estimate = sketch.add(key, amount);
+            Heavy heavy = top.get(key);
+            if (heavy != null) {
+                heavy.display = display;
+                heavy.score = estimate;
+            } else if (top.size() < capacity) {
+                top.put(key, new Heavy(display, estimate));
+            } else {
+                Map.Entry<String, Heavy> weakest = top.entrySet().stream()
+                        .min(Comparator.comparingDouble(entry -> entry.getValue().score))
+                        .orElseThrow();
+                if (estimate <= weakest.getValue().score) {
+                    return;
+                }
+                top.remove(weakest.getKey());
+                top.put(key, new Heavy(display, estimate));
+            }
+            dirty = true;
+        }
+
+        synchronized void scale(double factor) {
+            sketch.scale(factor);
+            top.values().forEach(heavy -> heavy.score *= factor);
+            dirty |= !top.isEmpty();
+        }
+
+        synchronized List<String> top(int limit) {
+            return top.values().stream()
+                    .sorted(Comparator.comparingDouble((Heavy heavy) -> heavy.score).reversed())
+                    .limit(limit)
+                    .map(heavy -> heavy.display)
+                    .collect(Collectors.toList());
+        }
+
+        synchronized List<Map.Entry<String, Double>> takeIfDirty() {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return top.values().stream()
+                    .map(heavy -> Map.entry(heavy.display, heavy.score))
+                    .collect(Collectors.toList());
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized int size() {
+            return top.size();
+        }
+    }
+
+    private static final class Heavy {
+
+        private String display;
+        private double score;
+
+        private Heavy(String display, double score) {
+            this.display = display;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Fixed-size ring of one user's searches, newest at {@code head}. A new query overwrites
+     * the oldest slot; a repeated one is moved to the front instead of stored twice.
+     */
+    private static final class RecentRing {
+
+        private final String[] items;
+        private int head;
+        private int count;
+        private boolean dirty;
+
+        private RecentRing(int capacity) {
+            this.items = new String[capacity];
+        }
+
+        synchronized void add(String query) {
+            push(query);
+            dirty = true;
+        }
+
+        // Rebuilding from the database, oldest first, leaves the ring clean
+        synchronized void restore(String query) {
+            push(query);
+        }
+
+        synchronized List<String> list(int limit) {
+            int size = Math.min(limit, count);
+            List<String> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(items[slot(i)]);
+            }
+            return result;
+        }
+
+        synchronized List<String> takeIfDirty() {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return list(count);
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+
+        private void push(String query) {
+            int existing = -1;
+            for (int i = 0; i < count; i++) {
+                if (items[slot(i)].equalsIgnoreCase(query)) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing < 0) {
+                head = (head - 1 + items.length) % items.length;
+                items[head] = query;
+                count = Math.min(count + 1, items.length);
+                return;
+            }
+            for (int i = existing; i > 0; i--) {
+                items[slot(i)] = items[slot(i - 1)];
+            }
+            items[head] = query;
+        }
+
+        private int slot(int position) {
+            return (head + position) % items.length;
+        }
+    }
+}
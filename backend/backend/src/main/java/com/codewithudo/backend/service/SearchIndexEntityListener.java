@@ -0,0 +1,63 @@
+package com.codewithudo.backend.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link SearchIndexService} and {@link AutocompleteService} in step with entity writes.
+ * Changes are applied after the surrounding transaction commits, so rolled-back writes never
+ * reach them.
+ */
+@Component
+@Slf4j
+public class SearchIndexEntityListener {
+
+    // Resolved lazily: listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+    private final ObjectProvider<AutocompleteService> autocompleteService;
+
+    public SearchIndexEntityListener(ObjectProvider<SearchIndexService> searchIndexService,
+                                     ObjectProvider<AutocompleteService> autocompleteService) {
+        this.searchIndexService = searchIndexService;
+        this.autocompleteService = autocompleteService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        afterCommit(() -> searchIndexService.getObject().index(entity));
+        afterCommit(() -> autocompleteService.getObject().update(entity));
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        afterCommit(() -> searchIndexService.getObject().remove(entity));
+        afterCommit(() -> autocompleteService.getObject().remove(entity));
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable safeAction = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("Updating search indexes failed", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safeAction.run();
+                }
+            });
+        } else {
+            safeAction.run();
+        }
+    }
+}
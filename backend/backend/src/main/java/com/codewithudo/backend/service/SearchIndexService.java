@@ -0,0 +1,652 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.entity.CompanyAnnouncement;
+import com.codewithudo.backend.entity.Lounge;
+import com.codewithudo.backend.entity.SearchIndexMarker;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.CompanyAnnouncementRepository;
+import com.codewithudo.backend.repository.LoungeRepository;
+import com.codewithudo.backend.repository.SearchIndexMarkerRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiBits;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * In-process Lucene index over users, lounges and company announcements, stored under
+ * {@code app.search.index.dir}. Every type lives in one index, so a global search ranks all
+ * of them together (BM25) in a single query. Entity writes are applied incrementally through
+ * {@link SearchIndexEntityListener} once their transaction commits; searches see them after
+ * the next refresh, at most {@code refresh-interval-ms} later.
+ *
+ * <p>Only searchable rows are indexed: active users, active non-private lounges and active
+ * announcements. Announcements are visible only to members of their company.
+ *
+ * <p>Each commit records the marker of the database it was built from. On startup the index
+ * is rebuilt when it is empty or its marker does not match the current database, e.g. after
+ * an in-memory database was recreated and hands out the indexed ids to different rows.
+ *
+ * <p>A rebuild rewrites the live index in place, so searches keep working while it runs.
+ * Entities changed while it runs are re-read from the database once the pass ends, so a
+ * stale row read by the rebuild never outlives a newer incremental update.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    public enum DocType {
+        USER, LOUNGE, ANNOUNCEMENT
+    }
+
+    public record Hit(DocType type, Long id, float score) {
+    }
+
+    /**
+     * How {@link #search} reports the number of matches. Counting walks every match, so it
+     * can cost more than the page itself; slice-style callers only need {@code hasMore}.
+     */
+    public enum Totals {
+        EXACT,
+        // Counted at most once per query within the cache TTL
+        CACHED,
+        NONE
+    }
+
+    /**
+     * One page of hits, whether more follow, and the total number of matches of each
+     * requested type ({@code totals} is empty when they were not counted).
+     */
+    public record SearchHits(List<Hit> hits, Map<DocType, Integer> totals, boolean hasMore) {
+
+        public int total() {
+            return totals.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        public boolean counted() {
+            return !totals.isEmpty();
+        }
+    }
+
+    private record CachedTotals(Map<DocType, Integer> totals, long expiresAt) {
+    }
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_ID = "entityId";
+    private static final String FIELD_AUDIENCE = "audience";
+    private static final String FIELD_VISIBLE_FROM = "visibleFrom";
+    private static final String AUDIENCE_ALL = "all";
+    private static final String COMMIT_DATABASE_MARKER = "databaseMarker";
+
+    public static final String FIELD_TITLE = "title";
+    public static final String FIELD_SKILLS = "skills";
+    public static final String FIELD_INDUSTRY = "industry";
+    public static final String FIELD_INTERESTS = "interests";
+    public static final String FIELD_TOPIC = "topic";
+    public static final String FIELD_TAGS = "tags";
+    public static final String FIELD_BODY = "body";
+
+    // Name/title matches rank above keyword matches, which rank above free-text matches
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            FIELD_TITLE, 3.0f,
+            FIELD_SKILLS, 2.0f,
+            FIELD_INDUSTRY, 2.0f,
+            FIELD_TOPIC, 2.0f,
+            FIELD_TAGS, 2.0f,
+            FIELD_INTERESTS, 1.5f,
+            FIELD_BODY, 1.0f);
+
+    private final UserRepository userRepository;
+    private final LoungeRepository loungeRepository;
+    private final CompanyAnnouncementRepository announcementRepository;
+    private final SearchIndexMarkerRepository markerRepository;
+    private final Path indexDir;
+    private final boolean rebuildOnStartup;
+    private final int rebuildBatchSize;
+    private final long totalsCacheTtlMs;
+    private final int totalsCacheMaxEntries;
+
+    private final Map<String, CachedTotals> totalsCache = new ConcurrentHashMap<>();
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Keys written incrementally while a rebuild is running
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder countedSearches = new LongAdder();
+    private final LongAdder totalsCacheHits = new LongAdder();
+
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public SearchIndexService(UserRepository userRepository,
+                              LoungeRepository loungeRepository,
+                              CompanyAnnouncementRepository announcementRepository,
+                              SearchIndexMarkerRepository markerRepository,
+                              @Value("${app.search.index.dir:data/search-index}") String indexDir,
+                              @Value("${app.search.index.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                              @Value("${app.search.index.rebuild-batch-size:1000}") int rebuildBatchSize,
+                              @Value("${app.search.index.totals-cache-ttl-ms:30000}") long totalsCacheTtlMs,
+                              @Value("${app.search.index.totals-cache-max-entries:10000}") int totalsCacheMaxEntries) {
+        this.userRepository = userRepository;
+        this.loungeRepository = loungeRepository;
+        this.announcementRepository = announcementRepository;
+        this.markerRepository = markerRepository;
+        this.indexDir = Path.of(indexDir);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.totalsCacheTtlMs = totalsCacheTtlMs;
+        this.totalsCacheMaxEntries = totalsCacheMaxEntries;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(indexDir);
+        directory = FSDirectory.open(indexDir);
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.commit();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * The database is the source of truth; rebuild when asked to, when the index is empty or
+     * when it was built from another database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        String indexedMarker = committedDatabaseMarker();
+        String currentMarker = databaseMarker();
+        boolean otherDatabase = !currentMarker.equals(indexedMarker);
+        if (otherDatabase && writer.getDocStats().numDocs > 0) {
+            log.info("Search index was built from database {}, current database is {}; rebuilding",
+                    indexedMarker, currentMarker);
+        }
+        if (rebuildOnStartup || writer.getDocStats().numDocs == 0 || otherDatabase) {
+            Thread thread = new Thread(this::rebuildSafely, "search-index-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Re-indexes every row and drops documents whose row no longer exists, without clearing
+     * the index first.
+     */
+    public void rebuildSafely() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        changedDuringRebuild.clear();
+        try {
+            long started = System.currentTimeMillis();
+            Set<String> seen = new HashSet<>();
+            int users = reindex(DocType.USER, userRepository::findByIdGreaterThanOrderByIdAsc, User::getId, seen);
+            int lounges = reindex(DocType.LOUNGE, loungeRepository::findByIdGreaterThanOrderByIdAsc, Lounge::getId, seen);
+            int announcements = reindex(DocType.ANNOUNCEMENT, announcementRepository::findByIdGreaterThanOrderByIdAsc,
+                    CompanyAnnouncement::getId, seen);
+            int stale = removeUnseen(seen);
+            reloadChanged();
+            rebuilding.set(false);
+            // Writers that saw the flag just before it cleared may still have marked keys
+            reloadChanged();
+            // Recorded only now, so an interrupted rebuild is retried on the next start
+            writer.setLiveCommitData(Map.of(COMMIT_DATABASE_MARKER, databaseMarker()).entrySet());
+            writer.commit();
+            searcherManager.maybeRefresh();
+            log.info("Search index rebuilt in {} ms: {} users, {} lounges, {} announcements, {} stale documents removed",
+                    System.currentTimeMillis() - started, users, lounges, announcements, stale);
+        } catch (Exception e) {
+            log.error("Rebuilding search index failed", e);
+        } finally {
+            rebuilding.set(false);
+            changedDuringRebuild.clear();
+        }
+    }
+
+    /**
+     * Adds, replaces or removes the entity's document depending on whether it is searchable.
+     */
+    public void index(Object entity) {
+        markChanged(entity);
+        apply(entity);
+    }
+
+    public void remove(Object entity) {
+        markChanged(entity);
+        try {
+            if (entity instanceof User user) {
+                write(DocType.USER, user.getId(), null);
+            } else if (entity instanceof Lounge lounge) {
+                write(DocType.LOUNGE, lounge.getId(), null);
+            } else if (entity instanceof CompanyAnnouncement announcement) {
+                write(DocType.ANNOUNCEMENT, announcement.getId(), null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ranked search over the given types. Every token of {@code text} must match some field
+     * (the last one as a prefix, for search-as-you-type); {@code fieldFilters} further require
+     * all tokens of each value to match that specific field. A blank text matches everything.
+     *
+     * @param companyId the caller's company, which unlocks that company's announcements
+     * @param totals whether and how to count all matches, see {@link Totals}
+     */
+    public SearchHits search(String text, Set<DocType> types, Long companyId,
+                             Map<String, String> fieldFilters, int offset, int limit, Totals totals) {
+        searches.increment();
+        Query query = buildQuery(text, types, companyId, fieldFilters);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // One hit past the page tells whether another page follows without counting
+                TopDocs top = searcher.search(query, Math.max(1, offset + limit + 1));
+                List<Hit> hits = new ArrayList<>(limit);
+                ScoreDoc[] scoreDocs = top.scoreDocs;
+                for (int i = offset; i < scoreDocs.length && hits.size() < limit; i++) {
+                    Document document = searcher.storedFields().document(scoreDocs[i].doc);
+                    hits.add(new Hit(DocType.valueOf(document.get(FIELD_TYPE)),
+                            document.getField(FIELD_ID).numericValue().longValue(), scoreDocs[i].score));
+                }
+                boolean hasMore = scoreDocs.length > offset + limit;
+
+                Map<DocType, Integer> counts = switch (totals) {
+                    case EXACT -> count(searcher, query, types);
+                    case CACHED -> cachedCount(searcher, query, text, types, companyId, fieldFilters);
+                    case NONE -> Map.of();
+                };
+                return new SearchHits(hits, counts, hasMore);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Makes recent writes searchable and periodically persists them to disk.
+     */
+    @Scheduled(fixedDelayString = "${app.search.index.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Refreshing search index failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.index.commit-interval-ms:30000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.warn("Committing search index failed", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("documents", writer.getDocStats().numDocs);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("indexed", indexed.sum());
+        stats.put("removed", removed.sum());
+        stats.put("searches", searches.sum());
+        stats.put("countedSearches", countedSearches.sum());
+        stats.put("totalsCacheHits", totalsCacheHits.sum());
+        stats.put("totalsCacheSize", totalsCache.size());
+        return stats;
+    }
+
+    private Map<DocType, Integer> count(IndexSearcher searcher, Query query, Set<DocType> types) throws IOException {
+        countedSearches.increment();
+        Map<DocType, Integer> counts = new EnumMap<>(DocType.class);
+        if (types.size() == 1) {
+            counts.put(types.iterator().next(), searcher.count(query));
+        } else {
+            for (DocType type : types) {
+                counts.put(type, searcher.count(new BooleanQuery.Builder()
+                        .add(query, BooleanClause.Occur.MUST)
+                        .add(new TermQuery(new Term(FIELD_TYPE, type.name())), BooleanClause.Occur.FILTER)
+                        .build()));
+            }
+        }
+        return counts;
+    }
+
+    // Keyed on the analyzed tokens so differently cased or spaced queries share an entry
+    private Map<DocType, Integer> cachedCount(IndexSearcher searcher, Query query, String text, Set<DocType> types,
+                                              Long companyId, Map<String, String> fieldFilters) throws IOException {
+        String key = new TreeSet<>(types) + "|" + companyId + "|" + new TreeMap<>(fieldFilters) + "|" + String.join(" ", analyze(text));
+        long now = System.currentTimeMillis();
+        CachedTotals cached = totalsCache.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            totalsCacheHits.increment();
+            return cached.totals();
+        }
+        Map<DocType, Integer> counts = count(searcher, query, types);
+        if (totalsCache.size() >= totalsCacheMaxEntries) {
+            totalsCache.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (totalsCache.size() >= totalsCacheMaxEntries) {
+                totalsCache.clear();
+            }
+        }
+        totalsCache.put(key, new CachedTotals(counts, now + totalsCacheTtlMs));
+        return counts;
+    }
+
+    private String committedDatabaseMarker() {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (COMMIT_DATABASE_MARKER.equals(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private String databaseMarker() {
+        return markerRepository.findFirstByOrderByIdAsc()
+                .orElseGet(() -> {
+                    markerRepository.save(new SearchIndexMarker(UUID.randomUUID().toString(),
+                            System.currentTimeMillis()));
+                    // Re-read, in case another node created one at the same time
+                    return markerRepository.findFirstByOrderByIdAsc().orElseThrow();
+                })
+                .getId();
+    }
+
+    private void apply(Object entity) {
+        try {
+            if (entity instanceof User user) {
+                write(DocType.USER, user.getId(), Boolean.TRUE.equals(user.getIsActive()) ? toDocument(user) : null);
+            } else if (entity instanceof Lounge lounge) {
+                boolean searchable = Boolean.TRUE.equals(lounge.getIsActive())
+                        && lounge.getVisibility() != Lounge.Visibility.PRIVATE;
+                write(DocType.LOUNGE, lounge.getId(), searchable ? toDocument(lounge) : null);
+            } else if (entity instanceof CompanyAnnouncement announcement) {
+                write(DocType.ANNOUNCEMENT, announcement.getId(),
+                        Boolean.TRUE.equals(announcement.getIsActive()) ? toDocument(announcement) : null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Marked before the write, so a rebuild that overwrites it with an older row reloads it afterwards
+    private void markChanged(Object entity) {
+        if (!rebuilding.get()) {
+            return;
+        }
+        if (entity instanceof User user) {
+            changedDuringRebuild.add(key(DocType.USER, user.getId()));
+        } else if (entity instanceof Lounge lounge) {
+            changedDuringRebuild.add(key(DocType.LOUNGE, lounge.getId()));
+        } else if (entity instanceof CompanyAnnouncement announcement) {
+            changedDuringRebuild.add(key(DocType.ANNOUNCEMENT, announcement.getId()));
+        }
+    }
+
+    private <T> int reindex(DocType type, BiFunction<Long, PageRequest, List<T>> nextBatch, Function<T, Long> idOf,
+                            Set<String> seen) {
+        int count = 0;
+        long afterId = 0;
+        List<T> batch;
+        // Keyset paging so each batch is an index range scan regardless of table size
+        while (!(batch = nextBatch.apply(afterId, PageRequest.of(0, rebuildBatchSize))).isEmpty()) {
+            for (T entity : batch) {
+                apply(entity);
+                seen.add(key(type, idOf.apply(entity)));
+            }
+            afterId = idOf.apply(batch.get(batch.size() - 1));
+            count += batch.size();
+        }
+        return count;
+    }
+
+    // Deletes documents whose row the rebuild did not find, i.e. rows deleted while the index was not listening
+    private int removeUnseen(Set<String> seen) throws IOException {
+        List<Term> stale = new ArrayList<>();
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            StoredFields storedFields = reader.storedFields();
+            Bits liveDocs = MultiBits.getLiveDocs(reader);
+            Set<String> fields = Set.of(FIELD_TYPE, FIELD_ID);
+            for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                Document document = storedFields.document(doc, fields);
+                String key = key(DocType.valueOf(document.get(FIELD_TYPE)),
+                        document.getField(FIELD_ID).numericValue().longValue());
+                if (!seen.contains(key)) {
+                    stale.add(new Term(FIELD_KEY, key));
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            writer.deleteDocuments(stale.toArray(new Term[0]));
+            removed.add(stale.size());
+        }
+        return stale.size();
+    }
+
+    // Re-reads entities changed during the rebuild, so their current row wins over the one the rebuild read
+    private void reloadChanged() throws IOException {
+        for (String key : List.copyOf(changedDuringRebuild)) {
+            changedDuringRebuild.remove(key);
+            int separator = key.indexOf(':');
+            DocType type = DocType.valueOf(key.substring(0, separator));
+            Long id = Long.valueOf(key.substring(separator + 1));
+            Object entity = switch (type) {
+                case USER -> userRepository.findById(id).orElse(null);
+                case LOUNGE -> loungeRepository.findById(id).orElse(null);
+                case ANNOUNCEMENT -> announcementRepository.findById(id).orElse(null);
+            };
+            if (entity == null) {
+                write(type, id, null);
+            } else {
+                apply(entity);
+            }
+        }
+    }
+
+    private void write(DocType type, Long id, Document document) throws IOException {
+        Term key = new Term(FIELD_KEY, key(type, id));
+        if (document == null) {
+            writer.deleteDocuments(key);
+            removed.increment();
+        } else {
+            writer.updateDocument(key, document);
+            indexed.increment();
+        }
+    }
+
+    private Document toDocument(User user) {
+        Document document = baseDocument(DocType.USER, user.getId(), AUDIENCE_ALL, 0);
+        addText(document, FIELD_TITLE, user.getName());
+        addText(document, FIELD_SKILLS, user.getSkills());
+        addText(document, FIELD_INDUSTRY, user.getIndustry());
+        addText(document, FIELD_INTERESTS, user.getInterests());
+        addText(document, FIELD_BODY, user.getEmail());
+        return document;
+    }
+
+    private Document toDocument(Lounge lounge) {
+        Document document = baseDocument(DocType.LOUNGE, lounge.getId(), AUDIENCE_ALL, 0);
+        addText(document, FIELD_TITLE, lounge.getTitle());
+        addText(document, FIELD_TOPIC, lounge.getTopic());
+        addText(document, FIELD_TAGS, lounge.getTags());
+        addText(document, FIELD_BODY, lounge.getDescription());
+        return document;
+    }
+
+    private Document toDocument(CompanyAnnouncement announcement) {
+        long visibleFrom = announcement.getPublishedAt() != null
+                ? announcement.getPublishedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0;
+        Document document = baseDocument(DocType.ANNOUNCEMENT, announcement.getId(),
+                companyAudience(announcement.getCompanyId()), visibleFrom);
+        addText(document, FIELD_TITLE, announcement.getTitle());
+        addText(document, FIELD_BODY, announcement.getContent());
+        return document;
+    }
+
+    private Document baseDocument(DocType type, Long id, String audience, long visibleFrom) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_KEY, key(type, id), Field.Store.NO));
+        document.add(new StringField(FIELD_TYPE, type.name(), Field.Store.YES));
+        document.add(new StoredField(FIELD_ID, id));
+        document.add(new StringField(FIELD_AUDIENCE, audience, Field.Store.NO));
+        document.add(new LongPoint(FIELD_VISIBLE_FROM, visibleFrom));
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            // Comma-separated lists (skills, tags) tokenize the same as free text
+            document.add(new TextField(field, value.replace(',', ' '), Field.Store.NO));
+        }
+    }
+
+    private Query buildQuery(String text, Collection<DocType> types, Long companyId, Map<String, String> fieldFilters) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        List<String> tokens = analyze(text);
+        if (tokens.isEmpty()) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            List<Query> perField = new ArrayList<>(FIELD_BOOSTS.size());
+            for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+                Term term = new Term(field.getKey(), tokens.get(i));
+                Query match = last ? new PrefixQuery(term) : new TermQuery(term);
+                perField.add(new BoostQuery(match, field.getValue()));
+            }
+            builder.add(new DisjunctionMaxQuery(perField, 0.1f), BooleanClause.Occur.MUST);
+        }
+
+        for (Map.Entry<String, String> filter : fieldFilters.entrySet()) {
+            for (String token : analyze(filter.getValue())) {
+                builder.add(new TermQuery(new Term(filter.getKey(), token)), BooleanClause.Occur.FILTER);
+            }
+        }
+
+        BooleanQuery.Builder typeFilter = new BooleanQuery.Builder();
+        for (DocType type : types) {
+            typeFilter.add(new TermQuery(new Term(FIELD_TYPE, type.name())), BooleanClause.Occur.SHOULD);
+        }
+        builder.add(typeFilter.build(), BooleanClause.Occur.FILTER);
+
+        BooleanQuery.Builder audienceFilter = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(FIELD_AUDIENCE, AUDIENCE_ALL)), BooleanClause.Occur.SHOULD);
+        if (companyId != null) {
+            audienceFilter.add(new TermQuery(new Term(FIELD_AUDIENCE, companyAudience(companyId))), BooleanClause.Occur.SHOULD);
+        }
+        builder.add(audienceFilter.build(), BooleanClause.Occur.FILTER);
+        builder.add(LongPoint.newRangeQuery(FIELD_VISIBLE_FROM, Long.MIN_VALUE, System.currentTimeMillis()),
+                BooleanClause.Occur.FILTER);
+        return builder.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        try (TokenStream stream = analyzer.tokenStream(FIELD_BODY, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private static String key(DocType type, Long id) {
+        return type.name() + ":" + id;
+    }
+
+    private static String companyAudience(Long companyId) {
+        return "company:" + companyId;
+    }
+}
@@ -1,17 +1,24 @@
 package com.codewithudo.backend.service;
 
+import com.codewithudo.backend.dto.CompanyAnnouncementDTO;
 import com.codewithudo.backend.dto.SearchResultDto;
 import com.codewithudo.backend.dto.UserDto;
+import com.codewithudo.backend.entity.CompanyAnnouncement;
 import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.CompanyAnnouncementRepository;
 import com.codewithudo.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,8 +27,27 @@ public class SearchService {
     @Autowired
     private UserRepository userRepository;
     
-    // Global search across all content types
-    public SearchResultDto globalSearch(String query, int page, int size) {
+    @Autowired
+    private CompanyAnnouncementRepository announcementRepository;
+    
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private LoungeService loungeService;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private SearchAnalyticsService searchAnalyticsService;
+    
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int UNKNOWN_TOTAL = -1;
+    
+    // Global search across all content types, ranked together in one index query
+    public SearchResultDto globalSearch(String query, Long userId, Long companyId, int page, int size,
+                                        boolean slice, boolean includeTotals) {
         SearchResultDto result = new SearchResultDto();
         result.setQuery(query);
         result.setTotalResults(0);
@@ -34,125 +60,120 @@ public class SearchService {
             return result;
         }
         
-        // Search users with basic query
-        SearchResultDto userResults = searchUsers(query, null, null, null, page, size);
-        result.setUsers(userResults.getUsers());
-        result.setTotalUsers(userResults.getTotalUsers());
-        result.setTotalResults(userResults.getTotalUsers());
+        SearchIndexService.SearchHits hits = searchIndexService.search(query,
+                EnumSet.allOf(SearchIndexService.DocType.class), companyId, Map.of(), page * size, size,
+                totalsMode(slice, includeTotals));
         
-        // TODO: Add other search types (lounges, meetings, etc.)
+        result.setUsers(loadUsers(idsOf(hits, SearchIndexService.DocType.USER)));
+        result.setLounges(new ArrayList<>(loungeService.getLoungesByIds(idsOf(hits, SearchIndexService.DocType.LOUNGE), userId)));
+        result.setAnnouncements(new ArrayList<>(loadAnnouncements(idsOf(hits, SearchIndexService.DocType.ANNOUNCEMENT), companyId)));
+        result.setTotalUsers(hits.counted() ? hits.totals().getOrDefault(SearchIndexService.DocType.USER, 0) : UNKNOWN_TOTAL);
+        result.setTotalResults(hits.counted() ? hits.total() : UNKNOWN_TOTAL);
+        setPaging(result, hits, page, size);
         
         return result;
     }
     
     // Advanced user search with filters
     public SearchResultDto searchUsers(String query, String industry, String skills, 
-                                      String location, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<User> users;
-        
-        if (hasFilters(industry, skills, location)) {
-            users = userRepository.findUsersWithFilters(
-                query != null ? "%" + query.toLowerCase() + "%" : "%",
-                industry != null ? "%" + industry.toLowerCase() + "%" : "%",
-                skills != null ? "%" + skills.toLowerCase() + "%" : "%",
-                location != null ? "%" + location.toLowerCase() + "%" : "%",
-                pageable
-            );
-        } else if (query != null && !query.trim().isEmpty()) {
-            users = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-                query, query, pageable
-            );
-        } else {
-            users = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
-                query, query, pageable);
+                                      String location, int page, int size,
+                                      boolean slice, boolean includeTotals) {
+        // Location is not part of the user profile, so it cannot narrow the results
+        Map<String, String> filters = new HashMap<>();
+        if (industry != null && !industry.trim().isEmpty()) {
+            filters.put(SearchIndexService.FIELD_INDUSTRY, industry);
+        }
+        if (skills != null && !skills.trim().isEmpty()) {
+            filters.put(SearchIndexService.FIELD_SKILLS, skills);
         }
         
+        SearchIndexService.SearchHits hits = searchIndexService.search(query,
+                Set.of(SearchIndexService.DocType.USER), null, filters, page * size, size,
+                totalsMode(slice, includeTotals));
+        
         SearchResultDto result = new SearchResultDto();
         result.setQuery(query);
-        result.setUsers(users.getContent().stream()
-                .map(this::convertUserToDto)
-                .collect(Collectors.toList()));
-        result.setTotalUsers((int) users.getTotalElements());
-        result.setTotalPages(users.getTotalPages());
-        result.setCurrentPage(users.getNumber());
-        result.setHasNext(users.hasNext());
-        result.setHasPrevious(users.hasPrevious());
+        result.setUsers(loadUsers(idsOf(hits, SearchIndexService.DocType.USER)));
+        result.setLounges(new ArrayList<>());
+        result.setMeetings(new ArrayList<>());
+        result.setAnnouncements(new ArrayList<>());
+        result.setTotalUsers(hits.counted() ? hits.total() : UNKNOWN_TOTAL);
+        setPaging(result, hits, page, size);
         
         return result;
     }
     
-    // Smart search suggestions
-    public List<String> getSearchSuggestions(String query, int limit) {
-        List<String> suggestions = new ArrayList<>();
-        
-        if (query == null || query.length() < 2) {
-            return suggestions;
+    // Autocomplete from the in-memory trie, limited to terms the caller's company may see
+    public List<String> getSearchSuggestions(String query, Long companyId, int limit) {
+        if (query == null || query.trim().length() < 2) {
+            return new ArrayList<>();
         }
-        
-        // Get user name suggestions
-        List<User> users = userRepository.findTop5ByNameContainingIgnoreCaseAndIsActiveTrue(query);
-        suggestions.addAll(users.stream()
-                .map(User::getName)
-                .collect(Collectors.toList()));
-        
-        // Add industry suggestions
-        List<String> industries = List.of(
-            "Technology", "Healthcare", "Finance", "Education", "Marketing",
-            "Sales", "Engineering", "Design", "Operations", "Consulting"
-        );
-        suggestions.addAll(industries.stream()
-                .filter(industry -> industry.toLowerCase().contains(query.toLowerCase()))
-                .collect(Collectors.toList()));
-        
-        // Add skill suggestions
-        List<String> skillSuggestions = List.of(
-            "Java", "Python", "JavaScript", "React", "Angular", "Node.js",
-            "Project Management", "Data Analysis", "Machine Learning",
-            "Cloud Computing", "DevOps", "UI/UX Design"
-        );
-        suggestions.addAll(skillSuggestions.stream()
-                .filter(skill -> skill.toLowerCase().contains(query.toLowerCase()))
-                .collect(Collectors.toList()));
-        
-        return suggestions.stream().distinct().limit(10).collect(Collectors.toList());
+        return autocompleteService.suggest(query, companyId, Math.min(limit, MAX_SUGGESTIONS));
     }
     
-    // Popular searches
-    public List<String> getPopularSearches(int limit) {
-        return List.of(
-            "Software Engineer",
-            "Product Manager",
-            "Data Scientist",
-            "UX Designer",
-            "Marketing Manager",
-            "Business Analyst",
-            "DevOps Engineer",
-            "Frontend Developer"
-        );
+    // Most searched queries in the caller's company, decayed so recent interest ranks first
+    public List<String> getPopularSearches(Long companyId, int limit) {
+        return searchAnalyticsService.getPopular(companyId, limit);
     }
     
-    // Recent searches for user
-    public List<String> getRecentSearches(int limit) {
-        // TODO: Implement search history storage and retrieval
-        return List.of(
-            "Java Developer",
-            "Project Manager",
-            "San Francisco"
-        );
+    // Recent searches for user, newest first
+    public List<String> getRecentSearches(Long userId, int limit) {
+        return searchAnalyticsService.getRecent(userId, limit);
     }
     
     // Save search query for analytics
-    public void saveSearchQuery(Long userId, String query, String type, int resultCount) {
-        // TODO: Implement search analytics storage
-        System.out.println("Search logged: User " + userId + " searched for '" + query + 
-                          "' in " + type + " with " + resultCount + " results");
+    public void saveSearchQuery(Long userId, Long companyId, String query, String type, int resultCount) {
+        searchAnalyticsService.record(userId, companyId, query, resultCount);
+    }
+    
+    // Slice mode skips counting every match; totals are then cached estimates or omitted
+    private SearchIndexService.Totals totalsMode(boolean slice, boolean includeTotals) {
+        if (!slice) {
+            return SearchIndexService.Totals.EXACT;
+        }
+        return includeTotals ? SearchIndexService.Totals.CACHED : SearchIndexService.Totals.NONE;
+    }
+    
+    private void setPaging(SearchResultDto result, SearchIndexService.SearchHits hits, int page, int size) {
+        int total = hits.total();
+        result.setTotalPages(!hits.counted() ? UNKNOWN_TOTAL : size > 0 ? (total + size - 1) / size : 0);
+        result.setCurrentPage(page);
+        result.setHasNext(hits.hasMore());
+        result.setHasPrevious(page > 0);
+    }
+    
+    private List<Long> idsOf(SearchIndexService.SearchHits hits, SearchIndexService.DocType type) {
+        return hits.hits().stream()
+                .filter(hit -> hit.type() == type)
+                .map(SearchIndexService.Hit::id)
+                .collect(Collectors.toList());
+    }
+    
+    // Entities in ranking order; rows deleted since they were indexed are skipped
+    // Rows are re-checked against the index filters, in case a document is stale
+    private List<UserDto> loadUsers(List<Long> ids) {
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .filter(user -> Boolean.TRUE.equals(user.getIsActive()))
+                .map(this::convertUserToDto)
+                .collect(Collectors.toList());
     }
     
-    private boolean hasFilters(String industry, String skills, String location) {
-        return (industry != null && !industry.trim().isEmpty()) ||
-               (skills != null && !skills.trim().isEmpty()) ||
-               (location != null && !location.trim().isEmpty());
+    private List<CompanyAnnouncementDTO> loadAnnouncements(List<Long> ids, Long companyId) {
+        Map<Long, CompanyAnnouncement> announcements = announcementRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(CompanyAnnouncement::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        return ids.stream()
+                .map(announcements::get)
+                .filter(Objects::nonNull)
+                .filter(announcement -> Boolean.TRUE.equals(announcement.getIsActive())
+                        && companyId != null && companyId.equals(announcement.getCompanyId())
+                        && (announcement.getPublishedAt() == null || !announcement.getPublishedAt().isAfter(now)))
+                .map(CompanyAnnouncementDTO::fromEntity)
+                .collect(Collectors.toList());
     }
     
     private UserDto convertUserToDto(User user) {
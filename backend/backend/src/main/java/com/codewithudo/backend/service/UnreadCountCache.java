@@ -0,0 +1,166 @@
+package com.codewithudo.backend.service;
+
+import com.codewithudo.backend.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user unread notification counters. A user's counter is loaded from the database on
+ * first use and afterwards maintained in memory: incremented on create, decremented on read
+ * and reset on read-all. Lookups never touch the {@code notifications} table.
+ *
+ * <p>Counters for users that were never loaded are not created by increments, since the
+ * first load will see the new rows anyway. Drift from rows changed outside this service,
+ * or from other nodes, is corrected by a periodic grouped reconcile.
+ *
+ * <p>Loads count outside the map and install the counter with {@code putIfAbsent}, so no
+ * database round trip holds a map bin lock. A change for a user without a counter bumps a
+ * striped change stamp; a load that sees its stripe's stamp move while it counts returns its
+ * count but does not cache it, since it cannot tell whether the change is included. The next
+ * read loads again.
+ */
+@Service
+@Slf4j
+public class UnreadCountCache {
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    private static final int CHANGE_STAMP_STRIPES = 1024;
+
+    private final NotificationRepository notificationRepository;
+    private final int maxEntries;
+
+    private final Map<Long, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicLongArray changeStamps = new AtomicLongArray(CHANGE_STAMP_STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private final LongAdder uncachedLoads = new LongAdder();
+
+    public UnreadCountCache(NotificationRepository notificationRepository,
+                            @Value("${app.notifications.unread-cache.max-entries:200000}") int maxEntries) {
+        this.notificationRepository = notificationRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(Long userId) {
+        LongAdder counter = counters.get(userId);
+        if (counter != null) {
+            hits.increment();
+            return Math.max(0, counter.sum());
+        }
+        return Math.max(0, load(userId));
+    }
+
+    public void increment(Long userId, long delta) {
+        LongAdder counter = counters.get(userId);
+        if (counter != null) {
+            counter.add(delta);
+        } else {
+            changed(userId);
+        }
+    }
+
+    /**
+     * Applies a single read and returns the new count.
+     */
+    public long decrement(Long userId) {
+        LongAdder counter = counters.get(userId);
+        if (counter == null) {
+            changed(userId);
+            return get(userId);
+        }
+        counter.decrement();
+        return Math.max(0, counter.sum());
+    }
+
+    public void reset(Long userId) {
+        LongAdder counter = counters.get(userId);
+        if (counter != null) {
+            counter.reset();
+        } else {
+            changed(userId);
+        }
+    }
+
+    // Bulk deletes do not report which users they touched
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < CHANGE_STAMP_STRIPES; stripe++) {
+            changeStamps.incrementAndGet(stripe);
+        }
+        counters.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.unread-cache.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        List<Long> userIds = new ArrayList<>(counters.keySet());
+        for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+            Map<Long, Long> actual = new HashMap<>();
+            for (Object[] row : notificationRepository.countUnreadByUserIds(batch)) {
+                actual.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            for (Long userId : batch) {
+                LongAdder counter = counters.get(userId);
+                if (counter == null) {
+                    continue;
+                }
+                long expected = actual.getOrDefault(userId, 0L);
+                long current = counter.sum();
+                if (current != expected) {
+                    // Moves the counter to the counted value. A create or read that lands between
+                    // the count query and this add is absorbed, so the counter can stay off by
+                    // that change until the next reconcile.
+                    counter.add(expected - current);
+                    corrections.increment();
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", counters.size());
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("corrections", corrections.sum());
+        stats.put("uncachedLoads", uncachedLoads.sum());
+        return stats;
+    }
+
+    private long load(Long userId) {
+        if (counters.size() >= maxEntries) {
+            log.debug("Unread count cache full ({} entries), clearing", counters.size());
+            counters.clear();
+        }
+        loads.increment();
+        int stripe = stripeOf(userId);
+        long stampBefore = changeStamps.get(stripe);
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        if (changeStamps.get(stripe) != stampBefore) {
+            uncachedLoads.increment();
+            return count;
+        }
+        LongAdder counter = new LongAdder();
+        counter.add(count);
+        LongAdder existing = counters.putIfAbsent(userId, counter);
+        return existing != null ? existing.sum() : count;
+    }
+
+    private void changed(Long userId) {
+        changeStamps.incrementAndGet(stripeOf(userId));
+    }
+
+    private static int stripeOf(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), CHANGE_STAMP_STRIPES);
+    }
+}
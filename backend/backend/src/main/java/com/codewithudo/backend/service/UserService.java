@@ -4,11 +4,12 @@ import com.codewithudo.backend.dto.UserProfileDto;
 import com.codewithudo.backend.dto.UserRegistrationDto;
 import com.codewithudo.backend.entity.User;
 import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.security.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -16,13 +17,13 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private TokenRevocationRegistry tokenRevocationRegistry;
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -40,15 +41,33 @@ public class UserService implements UserDetailsService {
                 .build();
     }
     
-    public UserProfileDto registerUser(UserRegistrationDto registrationDto) {
-        if (userRepository.existsByEmail(registrationDto.getEmail())) {
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+        User user = findByEmail(userDetails.getUsername());
+        user.setPasswordHash(newPasswordHash);
+        userRepository.save(user);
+        return org.springframework.security.core.userdetails.User
+                .withUserDetails(userDetails)
+                .password(newPasswordHash)
+                .build();
+    }
+    
+    public void requireEmailAvailable(String email) {
+        if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email already registered");
         }
+    }
+    
+    /**
+     * Registers with a password hashed beforehand on the password hashing pool
+     */
+    public UserProfileDto registerUser(UserRegistrationDto registrationDto, String passwordHash) {
+        requireEmailAvailable(registrationDto.getEmail());
         
         User user = new User();
         user.setName(registrationDto.getName());
         user.setEmail(registrationDto.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(registrationDto.getPassword()));
+        user.setPasswordHash(passwordHash);
         user.setIndustry(registrationDto.getIndustry());
         user.setSkills(registrationDto.getSkills());
         user.setInterests(registrationDto.getInterests());
@@ -113,6 +132,17 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setIsActive(false);
         userRepository.save(user);
+        // Tokens already issued would otherwise stay valid until they expire
+        tokenRevocationRegistry.revokeAllForUser(userId);
+    }
+    
+    public Optional<User> findActiveByEmail(String email) {
+        return userRepository.findByEmailAndIsActiveTrue(email);
+    }
+    
+    public void updatePasswordHash(User user, String passwordHash) {
+        user.setPasswordHash(passwordHash);
+        userRepository.save(user);
     }
     
     public User findByEmail(String email) {
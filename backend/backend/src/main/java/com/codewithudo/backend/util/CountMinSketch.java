@@ -0,0 +1,89 @@
+package com.codewithudo.backend.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-min sketch with conservative update: approximate counts for an unbounded set of
+ * keys in fixed memory ({@code depth * width} counters). Estimates never undercount and
+ * overcount by at most about {@code e/width} of the total weight with probability
+ * {@code 1 - e^-depth}. Counters are doubles so the whole sketch can be decayed with
+ * {@link #scale}. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final double[][] counts;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new double[depth][width];
+    }
+
+    /**
+     * Adds {@code amount} to the key and returns its new estimate. Only the counters that
+     * are below the new estimate are raised, which keeps collisions from inflating the rest.
+     */
+    public double add(String key, double amount) {
+        long hash = hash(key);
+        int[] buckets = new int[depth];
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            buckets[row] = bucket(hash, row);
+            estimate = Math.min(estimate, counts[row][buckets[row]]);
+        }
+        double updated = estimate + amount;
+        for (int row = 0; row < depth; row++) {
+            if (counts[row][buckets[row]] < updated) {
+                counts[row][buckets[row]] = updated;
+            }
+        }
+        return updated;
+    }
+
+    public double estimate(String key) {
+        long hash = hash(key);
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row][bucket(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Multiplies every counter by {@code factor}, e.g. to let old counts fade out.
+     */
+    public void scale(double factor) {
+        for (double[] row : counts) {
+            for (int i = 0; i < width; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    // Kirsch-Mitzenmacher: rows derive their bucket from two halves of one 64-bit hash
+    private int bucket(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, width);
+    }
+
+    // FNV-1a over UTF-8 followed by the murmur3 finalizer
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,143 @@
+package com.codewithudo.backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable set of half-open {@code [start, end)} intervals on a long axis (e.g. epoch
+ * millis), kept sorted and merged so no two intervals overlap or touch. Intersection and
+ * subtraction are single linear sweeps over both sets, so their cost depends on the number
+ * of intervals, not on the length of time they span.
+ */
+public final class IntervalSet {
+
+    public record Interval(long start, long end) {
+    }
+
+    public static final IntervalSet EMPTY = new IntervalSet(new long[0], 0);
+
+    // start0, end0, start1, end1, ...
+    private final long[] bounds;
+    private final int size;
+
+    private IntervalSet(long[] bounds, int size) {
+        this.bounds = bounds;
+        this.size = size;
+    }
+
+    /**
+     * Union of the given intervals; empty or inverted ones are ignored.
+     */
+    public static IntervalSet of(Collection<Interval> intervals) {
+        List<Interval> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparingLong(Interval::start));
+        Builder builder = new Builder(sorted.size());
+        sorted.forEach(interval -> builder.add(interval.start(), interval.end()));
+        return builder.build();
+    }
+
+    public static IntervalSet of(long start, long end) {
+        return new Builder(1).add(start, end).build();
+    }
+
+    public IntervalSet intersect(IntervalSet other) {
+        Builder builder = new Builder(Math.max(size, other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            builder.add(Math.max(start(i), other.start(j)), Math.min(end(i), other.end(j)));
+            if (end(i) < other.end(j)) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * This set with every point covered by {@code other} removed.
+     */
+    public IntervalSet subtract(IntervalSet other) {
+        Builder builder = new Builder(size + other.size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            long cursor = start(i);
+            long end = end(i);
+            while (j < other.size && other.end(j) <= cursor) {
+                j++;
+            }
+            // A removed interval may reach into the next interval of this set, so j stays on it
+            int k = j;
+            while (k < other.size && other.start(k) < end && cursor < end) {
+                builder.add(cursor, other.start(k));
+                cursor = Math.max(cursor, other.end(k));
+                if (other.end(k) <= end) {
+                    k++;
+                }
+            }
+            builder.add(cursor, end);
+            j = k;
+        }
+        return builder.build();
+    }
+
+    public List<Interval> intervals() {
+        List<Interval> intervals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            intervals.add(new Interval(start(i), end(i)));
+        }
+        return intervals;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private long start(int index) {
+        return bounds[2 * index];
+    }
+
+    private long end(int index) {
+        return bounds[2 * index + 1];
+    }
+
+    // Accepts intervals in ascending start order and merges overlapping or touching ones
+    private static final class Builder {
+
+        private long[] bounds;
+        private int size;
+
+        private Builder(int expected) {
+            bounds = new long[Math.max(2, 2 * expected)];
+        }
+
+        private Builder add(long start, long end) {
+            if (start >= end) {
+                return this;
+            }
+            if (size > 0 && start <= bounds[2 * size - 1]) {
+                bounds[2 * size - 1] = Math.max(bounds[2 * size - 1], end);
+                return this;
+            }
+            if (2 * size + 2 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[2 * size] = start;
+            bounds[2 * size + 1] = end;
+            size++;
+            return this;
+        }
+
+        private IntervalSet build() {
+            return size == 0 ? EMPTY : new IntervalSet(bounds, size);
+        }
+    }
+}
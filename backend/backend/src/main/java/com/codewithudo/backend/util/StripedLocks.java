@@ -0,0 +1,69 @@
+package com.codewithudo.backend.util;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of locks that keys hash onto, so any number of keys can be locked without a
+ * lock object per key. Several keys are always locked in ascending stripe order, which rules
+ * out deadlocks between callers locking overlapping sets; keys sharing a stripe just
+ * serialize a little more than strictly needed.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLocks(int minStripes) {
+        int size = 1;
+        while (size < minStripes) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Runs {@code action} holding the stripes of all {@code keys}. Throws if they cannot all be
+     * acquired within {@code timeoutMs}.
+     */
+    public <T> T withLocks(Collection<?> keys, long timeoutMs, Supplier<T> action) {
+        int[] indexes = keys.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw new RuntimeException("Timed out waiting for a reservation lock");
+                }
+                acquired++;
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for a reservation lock", e);
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+
+    // Spread the hash so keys that differ only in high bits still land on different stripes
+    private int stripeOf(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & mask;
+    }
+}
@@ -0,0 +1,66 @@
+package com.codewithudo.backend.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that refills continuously at a fixed rate up to its capacity. Callers
+ * either take tokens without waiting ({@link #tryAcquire()}) or block until one is
+ * available ({@link #acquire()}); sleeping happens outside the lock.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public boolean tryAcquire() {
+        return tryTake(1) == 0;
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryTake(1)) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes {@code permits} tokens if available and returns 0; otherwise takes nothing and
+     * returns the nanoseconds until they would be.
+     */
+    public synchronized long tryTake(int permits) {
+        refill();
+        if (tokens >= permits) {
+            tokens -= permits;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((permits - tokens) / refillPerNano));
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
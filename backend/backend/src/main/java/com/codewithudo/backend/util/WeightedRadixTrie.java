@@ -0,0 +1,195 @@
+package com.codewithudo.backend.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed (radix) trie of weighted keys that returns the heaviest keys under a prefix.
+ * Every node knows the largest weight in its subtree, so a top-k lookup is a best-first
+ * walk that only expands the most promising branches: its cost depends on k and the prefix
+ * length, not on how many keys share the prefix. Reads share a lock; writes are exclusive.
+ */
+public class WeightedRadixTrie {
+
+    public record Entry(String value, long weight) {
+    }
+
+    private final Node root = new Node("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Adds {@code delta} to the key's weight, creating it with {@code value} if absent. A key
+     * whose weight drops to zero or below is removed.
+     */
+    public void add(String key, String value, long delta) {
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    if (delta <= 0) {
+                        return;
+                    }
+                    child = new Node(key.substring(i));
+                    node.children.put(key.charAt(i), child);
+                    i = key.length();
+                } else {
+                    int common = commonPrefix(child.edge, key, i);
+                    if (common < child.edge.length()) {
+                        if (delta <= 0) {
+                            return;
+                        }
+                        child = split(node, child, common);
+                    }
+                    i += common;
+                }
+                node = child;
+                path.add(node);
+            }
+
+            long weight = (node.value != null ? node.weight : 0) + delta;
+            if (weight > 0) {
+                if (node.value == null) {
+                    node.value = value;
+                    size++;
+                }
+                node.weight = weight;
+            } else if (node.value != null) {
+                node.value = null;
+                node.weight = 0;
+                size--;
+            }
+
+            for (int p = path.size() - 1; p >= 0; p--) {
+                Node current = path.get(p);
+                if (p > 0 && current.value == null && current.children.isEmpty()) {
+                    path.get(p - 1).children.remove(current.edge.charAt(0));
+                } else {
+                    current.recomputeMaxWeight();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries whose key starts with {@code prefix}, heaviest first.
+     */
+    public List<Entry> top(String prefix, int limit) {
+        List<Entry> result = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            Node start = find(prefix);
+            if (start == null) {
+                return result;
+            }
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(new Candidate(start, false, start.maxWeight));
+            while (!queue.isEmpty() && result.size() < limit) {
+                Candidate candidate = queue.poll();
+                Node node = candidate.node;
+                if (candidate.terminal) {
+                    result.add(new Entry(node.value, node.weight));
+                    continue;
+                }
+                if (node.value != null) {
+                    queue.add(new Candidate(node, true, node.weight));
+                }
+                for (Node child : node.children.values()) {
+                    queue.add(new Candidate(child, false, child.maxWeight));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Node whose subtree holds exactly the keys starting with prefix
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.edge, prefix, i);
+            if (i + common < prefix.length() && common < child.edge.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.edge.substring(0, at));
+        child.edge = child.edge.substring(at);
+        middle.children.put(child.edge.charAt(0), child);
+        middle.maxWeight = child.maxWeight;
+        parent.children.put(middle.edge.charAt(0), middle);
+        return middle;
+    }
+
+    private static int commonPrefix(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        private String edge;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private String value;
+        private long weight;
+        private long maxWeight;
+
+        private Node(String edge) {
+            this.edge = edge;
+        }
+
+        private void recomputeMaxWeight() {
+            long max = value != null ? weight : 0;
+            for (Node child : children.values()) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    // Ties favour finished keys over subtrees that can only match their weight
+    private record Candidate(Node node, boolean terminal, long priority) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byPriority = Long.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Boolean.compare(other.terminal, terminal);
+        }
+    }
+}
@@ -8,14 +8,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+// Each cached test context needs its own search index directory (Lucene holds a write lock)
+@SpringBootTest(properties = "app.search.index.dir=target/search-index/auth-tests")
 @AutoConfigureMockMvc
 class AuthIntegrationTests {
 
@@ -32,9 +36,13 @@ class AuthIntegrationTests {
         reg.setEmail("test@example.com");
         reg.setPassword("password123");
 
-        mockMvc.perform(post("/api/auth/register")
+        // Register and login answer asynchronously once the hashing pool is done
+        MvcResult registered = mockMvc.perform(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(reg)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(registered))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.message").exists());
 
@@ -42,9 +50,12 @@ class AuthIntegrationTests {
         login.setEmail("test@example.com");
         login.setPassword("password123");
 
-        String token = mockMvc.perform(post("/api/auth/login")
+        MvcResult loggedIn = mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(login)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String token = mockMvc.perform(asyncDispatch(loggedIn))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.token").exists())
             .andReturn()
@@ -61,6 +72,34 @@ class AuthIntegrationTests {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.email").value("test@example.com"));
     }
+
+    @Test
+    void wrong_passwords_and_unknown_emails_are_rejected_alike() throws Exception {
+        UserRegistrationDto reg = new UserRegistrationDto();
+        reg.setName("Wrong Password User");
+        reg.setEmail("wrong-password@example.com");
+        reg.setPassword("password123");
+        MvcResult registered = mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reg)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(registered)).andExpect(status().isOk());
+
+        for (String email : new String[] {"wrong-password@example.com", "nobody@example.com"}) {
+            UserLoginDto login = new UserLoginDto();
+            login.setEmail(email);
+            login.setPassword("not-the-password");
+            MvcResult attempted = mockMvc.perform(post("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(login)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            mockMvc.perform(asyncDispatch(attempted))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid credentials"));
+        }
+    }
 }
 
 
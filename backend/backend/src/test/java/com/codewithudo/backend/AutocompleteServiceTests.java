@@ -0,0 +1,118 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.Lounge;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.LoungeRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.AutocompleteService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutocompleteServiceTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final LoungeRepository loungeRepository = mock(LoungeRepository.class);
+    private final AutocompleteService autocomplete = new AutocompleteService(userRepository, loungeRepository, 100);
+
+    @Test
+    void user_terms_stay_within_their_company() {
+        autocomplete.update(user(1L, "Zelda Quill", 10L));
+        autocomplete.update(user(2L, "Zeno Quartz", null));
+
+        assertEquals(List.of("Zelda Quill"), autocomplete.suggest("ze", 10L, 5));
+        assertEquals(List.of(), autocomplete.suggest("ze", 20L, 5));
+        // Without a company the user is suggested to nobody, not to everybody
+        assertEquals(List.of(), autocomplete.suggest("zeno", null, 5));
+        assertEquals(List.of(), autocomplete.suggest("zeno", 10L, 5));
+    }
+
+    @Test
+    void later_words_match_and_popular_terms_come_first() {
+        autocomplete.update(user(1L, "Quentin Zebulon", 10L));
+        User skilled = user(2L, "Ann Other", 10L);
+        skilled.setSkills("Zettelkasten");
+        autocomplete.update(skilled);
+        User alsoSkilled = user(3L, "Bea Other", 10L);
+        alsoSkilled.setSkills("Zettelkasten");
+        autocomplete.update(alsoSkilled);
+
+        assertEquals(List.of("Zettelkasten", "Quentin Zebulon"), autocomplete.suggest("ze", 10L, 5));
+    }
+
+    @Test
+    void an_update_takes_back_the_old_terms_and_a_removal_takes_back_all() {
+        User user = user(1L, "Zorro Old", 10L);
+        autocomplete.update(user);
+        user.setName("Zorro New");
+        autocomplete.update(user);
+
+        assertEquals(List.of("Zorro New"), autocomplete.suggest("zorro", 10L, 5));
+
+        autocomplete.remove(user);
+        assertEquals(List.of(), autocomplete.suggest("zorro", 10L, 5));
+    }
+
+    @Test
+    void private_lounges_contribute_nothing() {
+        Lounge lounge = new Lounge();
+        lounge.setId(1L);
+        lounge.setTopic("Zymurgy Club");
+        lounge.setVisibility(Lounge.Visibility.PRIVATE);
+        autocomplete.update(lounge);
+
+        assertEquals(List.of(), autocomplete.suggest("zym", 10L, 5));
+
+        lounge.setVisibility(Lounge.Visibility.PUBLIC);
+        autocomplete.update(lounge);
+        assertEquals(List.of("Zymurgy Club"), autocomplete.suggest("zym", 10L, 5));
+    }
+
+    @Test
+    void writes_during_the_initial_load_win_over_the_rows_it_read() throws Exception {
+        User deleted = user(1L, "Zara Gone", 10L);
+        User renamed = user(2L, "Zack Before", 10L);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            // Rows as they were when the load read them
+            return List.of(user(1L, "Zara Gone", 10L), user(2L, "Zack Before", 10L));
+        });
+
+        autocomplete.load();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        autocomplete.remove(deleted);
+        renamed.setName("Zack After");
+        autocomplete.update(renamed);
+        release.countDown();
+        waitForLoad();
+
+        assertEquals(List.of("Zack After"), autocomplete.suggest("za", 10L, 5));
+    }
+
+    private void waitForLoad() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (Boolean.TRUE.equals(autocomplete.getStats().get("loading")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static User user(Long id, String name, Long companyId) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setCompanyId(companyId);
+        return user;
+    }
+}
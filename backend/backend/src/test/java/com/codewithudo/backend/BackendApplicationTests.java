@@ -3,7 +3,7 @@ package com.codewithudo.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.search.index.dir=target/search-index/context-tests")
 class BackendApplicationTests {
 
     @Test
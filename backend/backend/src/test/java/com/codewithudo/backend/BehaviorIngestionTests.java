@@ -0,0 +1,108 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.dto.BehaviorEventDto;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.entity.UserBehavior.BehaviorType;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.BehaviorIngestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:behavior-ingestion-tests",
+        "app.search.index.dir=target/search-index/behavior-ingestion-tests",
+        "app.insights.ingest.batch-size=5",
+        // Long enough that only the size trigger flushes during a test
+        "app.insights.ingest.flush-interval-ms=600000"
+})
+class BehaviorIngestionTests {
+
+    @Autowired
+    private BehaviorIngestionService ingestionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void a_full_batch_is_flushed_without_waiting_for_the_interval() throws Exception {
+        User user = TestUsers.newUser(userRepository);
+
+        assertEquals(5, ingestionService.ingest(user.getId(), events(5)));
+
+        waitForRows(user.getId(), 5);
+        assertEquals(5, rows(user.getId()));
+    }
+
+    @Test
+    void an_invalid_event_rejects_the_whole_batch() {
+        User user = TestUsers.newUser(userRepository);
+        List<BehaviorEventDto> events = events(4);
+        events.add(2, new BehaviorEventDto());
+        long rejectedBefore = (long) ingestionService.getStats().get("rejectedEvents");
+        long acceptedBefore = (long) ingestionService.getStats().get("acceptedEvents");
+
+        assertThrows(RuntimeException.class, () -> ingestionService.ingest(user.getId(), events));
+
+        assertEquals(rejectedBefore + 5, ingestionService.getStats().get("rejectedEvents"));
+        assertEquals(acceptedBefore, ingestionService.getStats().get("acceptedEvents"));
+        assertEquals(0, ingestionService.getStats().get("queueDepth"));
+    }
+
+    @Test
+    void a_failing_row_does_not_drop_the_rest_of_its_batch() throws Exception {
+        User user = TestUsers.newUser(userRepository);
+        List<BehaviorEventDto> events = events(4);
+        // Longer than the target_type column, so only this row fails to insert
+        events.get(1).setTargetType("x".repeat(300));
+        events.add(newEvent());
+        long failedBefore = (long) ingestionService.getStats().get("failedEvents");
+
+        assertEquals(5, ingestionService.ingest(user.getId(), events));
+
+        waitForRows(user.getId(), 4);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((long) ingestionService.getStats().get("failedEvents") == failedBefore
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(4, rows(user.getId()));
+        assertEquals(failedBefore + 1, ingestionService.getStats().get("failedEvents"));
+    }
+
+    private void waitForRows(Long userId, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (rows(userId) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private int rows(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_behaviors WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private List<BehaviorEventDto> events(int count) {
+        List<BehaviorEventDto> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(newEvent());
+        }
+        return events;
+    }
+
+    private BehaviorEventDto newEvent() {
+        BehaviorEventDto event = new BehaviorEventDto();
+        event.setBehaviorType(BehaviorType.PROFILE_VIEW);
+        event.setTargetType("USER");
+        return event;
+    }
+}
@@ -0,0 +1,64 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.util.CountMinSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTests {
+
+    @Test
+    void estimates_never_undercount_and_stay_close_for_heavy_keys() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // A few heavy keys over a long tail
+            String key = random.nextInt(10) < 3 ? "heavy-" + random.nextInt(5) : "tail-" + random.nextInt(5_000);
+            sketch.add(key, 1);
+            exact.merge(key, 1, Integer::sum);
+        }
+
+        double allowedError = Math.E / 256 * 20_000;
+        exact.forEach((key, count) -> assertTrue(sketch.estimate(key) >= count, key + " was undercounted"));
+        for (int i = 0; i < 5; i++) {
+            String key = "heavy-" + i;
+            assertTrue(sketch.estimate(key) - exact.get(key) <= allowedError,
+                    key + " estimated " + sketch.estimate(key) + " for " + exact.get(key));
+        }
+    }
+
+    @Test
+    void add_returns_the_new_estimate_and_unseen_keys_are_zero() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+
+        assertEquals(0.0, sketch.estimate("java"));
+        assertEquals(2.0, sketch.add("java", 2));
+        assertEquals(3.5, sketch.add("java", 1.5));
+        assertEquals(3.5, sketch.estimate("java"));
+    }
+
+    @Test
+    void scale_decays_every_count() {
+        CountMinSketch sketch = new CountMinSketch(3, 64);
+        sketch.add("spring", 8);
+        sketch.add("kotlin", 2);
+
+        sketch.scale(0.5);
+
+        assertEquals(4.0, sketch.estimate("spring"), 1e-9);
+        assertTrue(sketch.estimate("kotlin") >= 1.0);
+    }
+
+    @Test
+    void dimensions_must_be_positive() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 0));
+    }
+}
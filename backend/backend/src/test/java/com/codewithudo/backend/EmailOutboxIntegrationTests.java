@@ -0,0 +1,85 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.EmailOutboxMessage.OutboxStatus;
+import com.codewithudo.backend.repository.EmailOutboxRepository;
+import com.codewithudo.backend.service.EmailService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        // Own database so workers of other cached test contexts cannot claim these rows
+        "spring.datasource.url=jdbc:h2:mem:email-outbox-tests",
+        "app.search.index.dir=target/search-index/email-outbox-tests",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=outbox@test.local",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "app.notifications.email.outbox.poll-interval-ms=100",
+        "app.notifications.email.outbox.batch-size=10"
+})
+class EmailOutboxIntegrationTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Test
+    void queued_emails_are_delivered_in_batches() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            emailService.sendSimpleEmail("user" + i + "@test.local", "Hello " + i, "Body " + i);
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 25));
+        waitForEmptyOutbox();
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void template_emails_are_rendered_by_the_worker() throws Exception {
+        emailService.sendTemplateEmail("ada@test.local", "Welcome", "outbox-test", Map.of("userName", "Ada"));
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Welcome", received.getSubject());
+        assertTrue(GreenMailUtil.getBody(received).contains("Hello Ada"));
+    }
+
+    @Test
+    void missing_template_fails_without_retrying() throws Exception {
+        emailService.sendTemplateEmail("bob@test.local", "Broken", "no-such-template", Map.of());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (outboxRepository.countByStatus(OutboxStatus.FAILED) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, outboxRepository.countByStatus(OutboxStatus.FAILED));
+        assertEquals(1, outboxRepository.findAll().get(0).getAttempts());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        outboxRepository.deleteAll();
+    }
+
+    private void waitForEmptyOutbox() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (outboxRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
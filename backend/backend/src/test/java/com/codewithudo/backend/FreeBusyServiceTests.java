@@ -0,0 +1,136 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.ScheduledMeeting;
+import com.codewithudo.backend.entity.UserPreferences;
+import com.codewithudo.backend.repository.ScheduledMeetingRepository;
+import com.codewithudo.backend.repository.UserPreferencesRepository;
+import com.codewithudo.backend.service.FreeBusyService;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FreeBusyServiceTests {
+
+    private static final ZoneId SERVER_ZONE = ZoneId.systemDefault();
+    private static final int BUFFER_MINUTES = 30;
+
+    private final ScheduledMeetingRepository meetingRepository = mock(ScheduledMeetingRepository.class);
+    private final UserPreferencesRepository preferencesRepository = mock(UserPreferencesRepository.class);
+
+    @Test
+    void a_new_york_berlin_pair_only_gets_slots_inside_both_working_days() {
+        when(preferencesRepository.findByUserIdIn(any())).thenReturn(List.of(
+                preferences(1L, "America/New_York", "09:00", "17:00"),
+                preferences(2L, "Europe/Berlin", "09:00", "17:00")));
+
+        List<FreeBusyService.Slot> slots = service(2).suggest(List.of(1L, 2L), 60, 6);
+
+        assertFalse(slots.isEmpty());
+        for (FreeBusyService.Slot slot : slots) {
+            assertWithin(slot, ZoneId.of("America/New_York"), "09:00", "17:00");
+            assertWithin(slot, ZoneId.of("Europe/Berlin"), "09:00", "17:00");
+            assertWeekday(slot, ZoneId.of("America/New_York"));
+            assertWeekday(slot, ZoneId.of("Europe/Berlin"));
+        }
+    }
+
+    @Test
+    void overnight_windows_cross_midnight_in_their_own_zone() {
+        when(preferencesRepository.findByUserIdIn(any())).thenReturn(List.of(
+                preferences(1L, "Asia/Tokyo", "22:00", "02:00"),
+                preferences(2L, "Europe/London", "09:00", "17:00")));
+
+        List<FreeBusyService.Slot> slots = service(2).suggest(List.of(1L, 2L), 30, 6);
+
+        assertFalse(slots.isEmpty());
+        for (FreeBusyService.Slot slot : slots) {
+            assertWithin(slot, ZoneId.of("Asia/Tokyo"), "22:00", "02:00");
+            assertWithin(slot, ZoneId.of("Europe/London"), "09:00", "17:00");
+        }
+    }
+
+    @Test
+    void meetings_and_their_buffer_are_never_offered() {
+        when(preferencesRepository.findByUserIdIn(any())).thenReturn(List.of(
+                preferences(1L, "America/New_York", "09:00", "17:00"),
+                preferences(2L, "Europe/Berlin", "09:00", "17:00")));
+        FreeBusyService service = service(2);
+        FreeBusyService.Slot taken = service.suggest(List.of(1L, 2L), 60, 1).get(0);
+
+        ScheduledMeeting meeting = new ScheduledMeeting();
+        meeting.setId(1L);
+        meeting.setScheduledStartTime(taken.startTime());
+        meeting.setScheduledEndTime(taken.endTime());
+        when(meetingRepository.findUsersMeetingsOverlapping(any(), any(), any())).thenReturn(List.of(meeting));
+
+        List<FreeBusyService.Slot> slots = service.suggest(List.of(1L, 2L), 60, 6);
+
+        for (FreeBusyService.Slot slot : slots) {
+            boolean clear = !slot.endTime().isAfter(taken.startTime().minusMinutes(BUFFER_MINUTES))
+                    || !slot.startTime().isBefore(taken.endTime().plusMinutes(BUFFER_MINUTES));
+            assertTrue(clear, "Slot " + slot + " is too close to the meeting at " + taken.startTime());
+        }
+    }
+
+    @Test
+    void the_most_central_slot_of_each_day_wins() {
+        String zone = SERVER_ZONE.getId();
+        when(preferencesRepository.findByUserIdIn(any())).thenReturn(List.of(
+                preferences(1L, zone, "09:00", "17:00"),
+                preferences(2L, zone, "09:00", "17:00")));
+
+        List<FreeBusyService.Slot> slots = service(1).suggest(List.of(1L, 2L), 60, 5);
+
+        assertEquals(5, slots.size());
+        // The first day may have started already; every later one offers its midday slot
+        for (FreeBusyService.Slot slot : slots.subList(1, slots.size())) {
+            assertEquals(LocalTime.of(12, 30), slot.startTime().toLocalTime());
+            assertEquals(1.0, slot.score(), 1e-9);
+        }
+        for (int i = 1; i < slots.size(); i++) {
+            assertTrue(slots.get(i - 1).startTime().toLocalDate().isBefore(slots.get(i).startTime().toLocalDate()));
+        }
+    }
+
+    private FreeBusyService service(int maxPerDay) {
+        return new FreeBusyService(meetingRepository, preferencesRepository, 14, 30, BUFFER_MINUTES, 60, maxPerDay, 20);
+    }
+
+    // The slot lies in the window that starts at windowStart local time, which may end after midnight
+    private static void assertWithin(FreeBusyService.Slot slot, ZoneId zone, String windowStart, String windowEnd) {
+        LocalTime start = LocalTime.parse(windowStart);
+        long windowMinutes = Math.floorMod(Duration.between(start, LocalTime.parse(windowEnd)).toMinutes(), 1440);
+        LocalTime local = slot.startTime().atZone(SERVER_ZONE).withZoneSameInstant(zone).toLocalTime();
+        long offset = Math.floorMod(Duration.between(start, local).toMinutes(), 1440);
+        long length = Duration.between(slot.startTime(), slot.endTime()).toMinutes();
+        assertTrue(offset + length <= windowMinutes,
+                "Slot " + slot + " starts at " + local + " in " + zone + ", outside " + windowStart + "-" + windowEnd);
+    }
+
+    private static void assertWeekday(FreeBusyService.Slot slot, ZoneId zone) {
+        ZonedDateTime local = slot.startTime().atZone(SERVER_ZONE).withZoneSameInstant(zone);
+        assertTrue(local.getDayOfWeek() != DayOfWeek.SATURDAY && local.getDayOfWeek() != DayOfWeek.SUNDAY,
+                "Slot " + slot + " falls on a weekend in " + zone);
+    }
+
+    private static UserPreferences preferences(Long userId, String zone, String start, String end) {
+        UserPreferences preferences = new UserPreferences();
+        preferences.setUserId(userId);
+        preferences.setPreferredTimezone(zone);
+        preferences.setAvailabilityStartTime(start);
+        preferences.setAvailabilityEndTime(end);
+        return preferences;
+    }
+}
@@ -0,0 +1,87 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.entity.UserBehavior.BehaviorType;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.InsightEngine;
+import com.codewithudo.backend.service.UserInsightsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:insight-engine-concurrency-tests",
+        "app.search.index.dir=target/search-index/insight-engine-concurrency-tests",
+        // Every eviction pass drops every user, so readers keep re-seeding while writes land
+        "app.insights.engine.idle-eviction-ms=0",
+        "app.insights.engine.lock-stripes=4"
+})
+class InsightEngineConcurrencyTests {
+
+    @Autowired
+    private InsightEngine insightEngine;
+
+    @Autowired
+    private UserInsightsService userInsightsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seeds_racing_with_writes_count_every_row_once() throws Exception {
+        User user = TestUsers.newUser(userRepository);
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        userInsightsService.trackBehavior(user.getId(), BehaviorType.PROFILE_VIEW, "race");
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    while (writing.get()) {
+                        insightEngine.evictIdleAggregates();
+                        insightEngine.snapshot(user.getId());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+
+        // Whichever seed survived, it and the writes applied after it add up to the stored rows
+        int rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_behaviors WHERE user_id = ?",
+                Integer.class, user.getId());
+        assertEquals(100, rows);
+        assertEquals(rows, insightEngine.snapshot(user.getId()).count(BehaviorType.PROFILE_VIEW));
+    }
+}
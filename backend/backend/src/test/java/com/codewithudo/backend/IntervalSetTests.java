@@ -0,0 +1,54 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.util.IntervalSet;
+import com.codewithudo.backend.util.IntervalSet.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalSetTests {
+
+    @Test
+    void overlapping_and_touching_intervals_merge_and_empty_ones_vanish() {
+        IntervalSet set = IntervalSet.of(List.of(
+                new Interval(30, 40), new Interval(0, 10), new Interval(10, 15),
+                new Interval(35, 50), new Interval(20, 20), new Interval(25, 22)));
+
+        assertEquals(List.of(new Interval(0, 15), new Interval(30, 50)), set.intervals());
+        assertTrue(IntervalSet.of(List.of()).isEmpty());
+    }
+
+    @Test
+    void intersect_keeps_only_points_in_both() {
+        IntervalSet a = IntervalSet.of(List.of(new Interval(0, 10), new Interval(20, 30), new Interval(40, 50)));
+        IntervalSet b = IntervalSet.of(List.of(new Interval(5, 25), new Interval(28, 45)));
+
+        assertEquals(List.of(new Interval(5, 10), new Interval(20, 25), new Interval(28, 30), new Interval(40, 45)),
+                a.intersect(b).intervals());
+        assertEquals(a.intersect(b).intervals(), b.intersect(a).intervals());
+        // Half-open: sets that only touch share nothing
+        assertTrue(IntervalSet.of(0, 10).intersect(IntervalSet.of(10, 20)).isEmpty());
+    }
+
+    @Test
+    void subtract_cuts_holes_and_trims_edges() {
+        IntervalSet day = IntervalSet.of(List.of(new Interval(0, 100), new Interval(200, 300)));
+        IntervalSet busy = IntervalSet.of(List.of(
+                new Interval(-10, 5), new Interval(40, 60), new Interval(90, 210), new Interval(250, 260)));
+
+        assertEquals(List.of(new Interval(5, 40), new Interval(60, 90), new Interval(210, 250), new Interval(260, 300)),
+                day.subtract(busy).intervals());
+    }
+
+    @Test
+    void subtracting_everything_or_nothing() {
+        IntervalSet day = IntervalSet.of(List.of(new Interval(0, 100), new Interval(200, 300)));
+
+        assertTrue(day.subtract(IntervalSet.of(-1, 301)).isEmpty());
+        assertEquals(day.intervals(), day.subtract(IntervalSet.EMPTY).intervals());
+        assertEquals(day.intervals(), day.subtract(IntervalSet.of(100, 200)).intervals());
+    }
+}
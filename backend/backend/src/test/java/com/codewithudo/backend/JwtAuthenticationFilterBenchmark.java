@@ -0,0 +1,94 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.security.JwtAuthenticationFilter;
+import com.codewithudo.backend.security.JwtTokenProvider;
+import com.codewithudo.backend.security.TokenRevocationRegistry;
+import com.codewithudo.backend.security.VerifiedTokenCache;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link JwtAuthenticationFilter} for a client replaying the same token, with the
+ * verified-token cache enabled and disabled. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.codewithudo.backend.JwtAuthenticationFilterBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET =
+            "E6y3V9QwN1rK8tP4sM7aB2cX5zL0dF3gH9jK2mR6pT1uW4xY7vZ3qL8nC5bD0eS2aG6hJ9kL2mP5qT8wZ1xC4vB7nM0";
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private final FilterChain chain = (request, response) -> { };
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("bench@example.com");
+        user.setRole(User.UserRole.USER);
+        user.setCompanyId(7L);
+
+        // The token carries the user id, so the repository is never consulted
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(tokenProvider, null,
+                new TokenRevocationRegistry(null, 3_600_000L), cacheEnabled, 300_000L, 100_000);
+        filter = new JwtAuthenticationFilter(tokenCache);
+
+        request = new MockHttpServletRequest("GET", "/api/notifications");
+        request.addHeader("Authorization", "Bearer " + tokenProvider.generateToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object filterReplayedToken() throws Exception {
+        filter.doFilter(request, response, chain);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.security.JwtTokenProvider;
+import com.codewithudo.backend.security.TokenRevocationRegistry;
+import com.codewithudo.backend.security.UserPrincipal;
+import com.codewithudo.backend.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jwt-claims-tests",
+        "app.search.index.dir=target/search-index/jwt-claims-tests"
+})
+class JwtClaimsAuthenticationTests {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    void tokens_carry_the_user_id_role_and_company() {
+        User user = TestUsers.newUser(userRepository, 42L);
+
+        UserPrincipal principal = tokenProvider.toPrincipal(tokenProvider.parseClaims(tokenProvider.generateToken(user)));
+
+        assertEquals(user.getId(), principal.getUserId());
+        assertEquals(user.getEmail(), principal.getEmail());
+        assertEquals(User.UserRole.USER, principal.getRole());
+        assertEquals(42L, principal.getCompanyId());
+        // The name matches the WebSocket user destinations
+        assertEquals(String.valueOf(user.getId()), principal.getName());
+    }
+
+    @Test
+    void a_current_token_authenticates_without_reading_the_user() {
+        User user = TestUsers.newUser(userRepository, null);
+        UserRepository users = mock(UserRepository.class);
+        VerifiedTokenCache cache = new VerifiedTokenCache(tokenProvider, users, revocationRegistry, true, 300_000L, 100);
+
+        UserPrincipal principal = cache.authenticate(tokenProvider.generateToken(user));
+
+        assertNotNull(principal);
+        assertEquals(user.getId(), principal.getUserId());
+        assertNull(principal.getCompanyId());
+        verifyNoInteractions(users);
+    }
+
+    @Test
+    void a_token_without_a_user_id_is_resolved_by_email_once() {
+        User user = TestUsers.newUser(userRepository, 7L);
+        UserRepository users = mock(UserRepository.class);
+        when(users.findByEmailAndIsActiveTrue(user.getEmail())).thenReturn(Optional.of(user));
+        VerifiedTokenCache cache = new VerifiedTokenCache(tokenProvider, users, revocationRegistry, true, 300_000L, 100);
+        String legacyToken = Jwts.builder()
+                .subject(user.getEmail())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()), Jwts.SIG.HS512)
+                .compact();
+
+        assertEquals(user.getId(), cache.authenticate(legacyToken).getUserId());
+        assertEquals(user.getId(), cache.authenticate(legacyToken).getUserId());
+
+        verify(users, times(1)).findByEmailAndIsActiveTrue(user.getEmail());
+    }
+
+    @Test
+    void tampered_tokens_are_rejected() {
+        User user = TestUsers.newUser(userRepository, null);
+        String token = tokenProvider.generateToken(user);
+        VerifiedTokenCache cache = new VerifiedTokenCache(tokenProvider, mock(UserRepository.class),
+                revocationRegistry, true, 300_000L, 100);
+
+        assertNull(cache.authenticate(token.substring(0, token.length() - 2) + "xx"));
+    }
+}
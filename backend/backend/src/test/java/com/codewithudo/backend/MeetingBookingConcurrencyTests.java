@@ -0,0 +1,191 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.Match;
+import com.codewithudo.backend.entity.ScheduledMeeting;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.MatchRepository;
+import com.codewithudo.backend.repository.ScheduledMeetingRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.MeetingSchedulingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:meeting-booking-tests",
+        "app.search.index.dir=target/search-index/meeting-booking-tests",
+        "app.meetings.suggestions.buffer-minutes=30"
+})
+class MeetingBookingConcurrencyTests {
+
+    private static final int BUFFER_MINUTES = 30;
+
+    @Autowired
+    private MeetingSchedulingService meetingSchedulingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private ScheduledMeetingRepository scheduledMeetingRepository;
+
+    @Test
+    void concurrent_bookings_of_the_same_slot_admit_exactly_one() throws Exception {
+        User organizer = TestUsers.newUser(userRepository);
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            matches.add(newMatch(organizer, TestUsers.newUser(userRepository)));
+        }
+        LocalDateTime start = LocalDate.now().plusYears(1).atTime(10, 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(matches.size());
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Match match : matches) {
+            results.add(pool.submit(() -> {
+                go.await();
+                return book(match.getId(), organizer.getId(), start, start.plusMinutes(30));
+            }));
+        }
+        go.countDown();
+
+        int booked = 0;
+        for (Future<Boolean> result : results) {
+            booked += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(1, booked);
+        assertEquals(1, meetingsOf(organizer.getId()).size());
+    }
+
+    @Test
+    void booking_inside_a_long_meeting_is_rejected() {
+        User organizer = TestUsers.newUser(userRepository);
+        Match first = newMatch(organizer, TestUsers.newUser(userRepository));
+        Match second = newMatch(organizer, TestUsers.newUser(userRepository));
+        LocalDateTime start = LocalDate.now().plusYears(1).plusDays(1).atTime(9, 0);
+
+        meetingSchedulingService.scheduleMeeting(first.getId(), organizer.getId(), start, start.plusHours(4),
+                ScheduledMeeting.MeetingType.VIRTUAL, null);
+
+        // Starts well after the long meeting does, so only an overlap check can catch it
+        assertThrows(RuntimeException.class, () -> meetingSchedulingService.scheduleMeeting(second.getId(),
+                organizer.getId(), start.plusHours(2), start.plusHours(2).plusMinutes(30),
+                ScheduledMeeting.MeetingType.VIRTUAL, null));
+        assertTrue(book(second.getId(), organizer.getId(), start.plusHours(5), start.plusHours(5).plusMinutes(30)));
+    }
+
+    @Test
+    void random_concurrent_bookings_never_double_book_anyone() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            users.add(TestUsers.newUser(userRepository));
+        }
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            for (int j = i + 1; j < users.size(); j++) {
+                matches.add(newMatch(users.get(i), users.get(j)));
+            }
+        }
+        LocalDateTime dayStart = LocalDate.now().plusYears(1).plusDays(2).atTime(8, 0);
+
+        int threads = 8;
+        int attemptsPerThread = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                go.await();
+                int booked = 0;
+                for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+                    Match match = matches.get(random.nextInt(matches.size()));
+                    Long organizerId = random.nextBoolean() ? match.getUser1Id() : match.getUser2Id();
+                    LocalDateTime start = dayStart.plusMinutes(15L * random.nextInt(32));
+                    LocalDateTime end = start.plusMinutes(random.nextBoolean() ? 30 : 60);
+                    booked += book(match.getId(), organizerId, start, end) ? 1 : 0;
+                }
+                return booked;
+            }));
+        }
+        go.countDown();
+
+        int booked = 0;
+        for (Future<Integer> result : results) {
+            booked += result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(booked > 0);
+        for (User user : users) {
+            List<ScheduledMeeting> meetings = meetingsOf(user.getId());
+            meetings.sort(Comparator.comparing(ScheduledMeeting::getScheduledStartTime));
+            for (int i = 1; i < meetings.size(); i++) {
+                ScheduledMeeting previous = meetings.get(i - 1);
+                ScheduledMeeting next = meetings.get(i);
+                assertFalse(next.getScheduledStartTime().isBefore(previous.getScheduledEndTime().plusMinutes(BUFFER_MINUTES)),
+                        "User " + user.getId() + " is double booked: " + previous.getId() + " and " + next.getId());
+            }
+        }
+    }
+
+    @Test
+    void pairwise_suggestions_require_access_to_the_other_calendar() {
+        User requester = TestUsers.newUser(userRepository);
+        User matched = TestUsers.newUser(userRepository);
+        User stranger = TestUsers.newUser(userRepository);
+        newMatch(requester, matched);
+
+        assertDoesNotThrow(() -> meetingSchedulingService.suggestMeetingTimes(requester.getId(),
+                matched.getId(), 30, 3));
+        assertThrows(RuntimeException.class, () -> meetingSchedulingService.suggestMeetingTimes(requester.getId(),
+                stranger.getId(), 30, 3));
+    }
+
+    private boolean book(Long matchId, Long organizerId, LocalDateTime start, LocalDateTime end) {
+        try {
+            meetingSchedulingService.scheduleMeeting(matchId, organizerId, start, end,
+                    ScheduledMeeting.MeetingType.VIRTUAL, null);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private List<ScheduledMeeting> meetingsOf(Long userId) {
+        return new ArrayList<>(scheduledMeetingRepository.findUsersMeetingsOverlapping(List.of(userId),
+                LocalDateTime.now(), LocalDateTime.now().plusYears(2)));
+    }
+
+    private Match newMatch(User first, User second) {
+        Match match = new Match();
+        match.setUser1Id(first.getId());
+        match.setUser2Id(second.getId());
+        match.setStatus(Match.MatchStatus.ACCEPTED);
+        return matchRepository.save(match);
+    }
+}
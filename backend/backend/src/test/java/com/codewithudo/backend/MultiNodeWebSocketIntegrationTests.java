@@ -0,0 +1,197 @@
+package com.codewithudo.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application nodes sharing one embedded STOMP broker (Artemis) in relay mode. A client
+ * connected to node A must receive topic broadcasts and user-destination messages sent from
+ * node B.
+ */
+class MultiNodeWebSocketIntegrationTests {
+
+    private static final String EMAIL = "multinode@test.local";
+    private static final String PASSWORD = "password123";
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        int stompPort = freePort();
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        configuration.addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort
+                + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+
+        nodeA = startNode("node-a", stompPort);
+        nodeB = startNode("node-b", stompPort);
+    }
+
+    @AfterAll
+    static void stopCluster() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void messages_sent_on_one_node_reach_clients_on_another() throws Exception {
+        // Each node has its own database in this harness, so the user exists on both
+        register(nodeA);
+        register(nodeB);
+        String token = login(nodeA);
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = connect(nodeA, token);
+        session.subscribe("/topic/lounge.multinode", collector(received));
+        session.subscribe("/user/queue/notifications", collector(received));
+
+        SimpMessagingTemplate messagingB = nodeB.getBean(SimpMessagingTemplate.class);
+        assertTrue(sendUntilReceived(() -> messagingB.convertAndSend("/topic/lounge.multinode", "lounge"),
+                received, "lounge"), "topic broadcast from node B did not reach node A");
+
+        // Node B learns about node A's sessions through the registry broadcast
+        SimpUserRegistry registryB = nodeB.getBean(SimpUserRegistry.class);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (registryB.getUserCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        assertTrue(registryB.getUserCount() > 0, "node B never saw the user connected to node A");
+
+        String userName = registryB.getUsers().iterator().next().getName();
+        assertTrue(sendUntilReceived(() -> messagingB.convertAndSendToUser(userName, "/queue/notifications", "direct"),
+                received, "direct"), "user destination from node B did not reach node A");
+
+        session.disconnect();
+    }
+
+    private static ConfigurableApplicationContext startNode(String name, int stompPort) {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .properties(Map.of(
+                        "server.port", "0",
+                        "spring.datasource.url", "jdbc:h2:mem:" + name,
+                        "app.search.index.dir", "target/search-index/" + name,
+                        "app.websocket.broker.mode", "relay",
+                        "app.websocket.broker.relay.host", "127.0.0.1",
+                        "app.websocket.broker.relay.port", String.valueOf(stompPort),
+                        "app.notifications.email.enabled", "false"))
+                .run();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private String baseUrl(ConfigurableApplicationContext node) {
+        return "http://localhost:" + node.getEnvironment().getProperty("local.server.port");
+    }
+
+    private void register(ConfigurableApplicationContext node) throws Exception {
+        post(node, "/api/auth/register", Map.of("name", "Multi Node", "email", EMAIL, "password", PASSWORD));
+    }
+
+    private String login(ConfigurableApplicationContext node) throws Exception {
+        String body = post(node, "/api/auth/login", Map.of("email", EMAIL, "password", PASSWORD));
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private String post(ConfigurableApplicationContext node, String path, Map<String, String> body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl(node) + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node, String token) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new StringMessageConverter());
+
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("Authorization", "Bearer " + token);
+        return client.connectAsync(baseUrl(node) + "/ws", headers, new StompHeaders(), new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private StompFrameHandler collector(BlockingQueue<String> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        };
+    }
+
+    // Subscriptions reach the broker asynchronously, so keep sending until one arrives
+    private boolean sendUntilReceived(Runnable send, BlockingQueue<String> received, String expected)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (System.currentTimeMillis() < deadline) {
+            send.run();
+            String message = received.poll(500, TimeUnit.MILLISECONDS);
+            while (message != null) {
+                if (expected.equals(message)) {
+                    return true;
+                }
+                message = received.poll();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.dto.NotificationDto;
+import com.codewithudo.backend.entity.Badge;
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.BadgeRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.BadgeService;
+import com.codewithudo.backend.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notification-coalescing-tests",
+        "app.search.index.dir=target/search-index/notification-coalescing-tests",
+        "app.notifications.digest.window-ms=1000",
+        "app.notifications.digest.flush-interval-ms=100"
+})
+class NotificationCoalescingTests {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private BadgeService badgeService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private BadgeRepository badgeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void a_burst_of_badges_yields_one_notification_then_one_digest() throws Exception {
+        User user = TestUsers.newUser(userRepository);
+
+        for (int i = 0; i < 3; i++) {
+            badgeService.awardBadge(user.getId(), newBadge());
+        }
+
+        List<NotificationDto> immediate = notifications(user.getId());
+        assertEquals(1, immediate.size());
+        assertEquals(NotificationType.BADGE_EARNED, immediate.get(0).getType());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (notifications(user.getId()).size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        List<NotificationDto> all = notifications(user.getId());
+        assertEquals(2, all.size());
+        assertTrue(all.stream().anyMatch(notification -> notification.getTitle().endsWith("(2)")),
+                "Expected a digest of the two folded badges");
+    }
+
+    private List<NotificationDto> notifications(Long userId) {
+        return notificationService.getUserNotifications(userId, 0, 20).getContent();
+    }
+
+    private Badge newBadge() {
+        Badge badge = new Badge();
+        badge.setName("Coalescing Badge " + SEQUENCE.incrementAndGet());
+        badge.setBadgeType(Badge.BadgeType.MILESTONE);
+        badge.setBadgeCategory(Badge.BadgeCategory.ENGAGEMENT);
+        return badgeRepository.save(badge);
+    }
+}
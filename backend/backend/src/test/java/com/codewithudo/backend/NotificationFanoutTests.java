@@ -0,0 +1,126 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.dto.NotificationDto;
+import com.codewithudo.backend.dto.NotificationFanoutDto;
+import com.codewithudo.backend.dto.NotificationPreferencesDto;
+import com.codewithudo.backend.entity.Notification.NotificationPriority;
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.NotificationFanoutService;
+import com.codewithudo.backend.service.NotificationPreferencesService;
+import com.codewithudo.backend.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notification-fanout-tests",
+        "app.search.index.dir=target/search-index/notification-fanout-tests",
+        "app.notifications.fanout.chunk-size=2",
+        "app.notifications.fanout.workers=2"
+})
+class NotificationFanoutTests {
+
+    @Autowired
+    private NotificationFanoutService fanoutService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationPreferencesService preferencesService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void every_recipient_gets_one_stored_notification_across_chunks() throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            userIds.add(TestUsers.newUser(userRepository).getId());
+        }
+        NotificationPreferencesDto inAppOff = new NotificationPreferencesDto();
+        inAppOff.setInAppEnabled(false);
+        preferencesService.updateUserPreferences(userIds.get(0), inAppOff);
+        // Cached counts are bumped by the fan-out rather than reloaded
+        userIds.forEach(userId -> assertEquals(0L, notificationService.getUnreadCount(userId)));
+
+        // The duplicate is delivered once
+        List<Long> requested = new ArrayList<>(userIds);
+        requested.add(userIds.get(1));
+        Map<String, Object> progress = waitForCompletion(fanoutService.submit(request(requested, List.of("in_app"))));
+
+        assertEquals(NotificationFanoutService.JobStatus.COMPLETED, progress.get("status"));
+        assertEquals(5, progress.get("totalRecipients"));
+        assertEquals(5L, progress.get("persisted"));
+        assertEquals(4L, progress.get("inAppDelivered"));
+        // The stored notification is kept for a user who turned the channel off
+        assertEquals(1L, progress.get("skipped"));
+        assertEquals(100.0, progress.get("percentComplete"));
+        for (Long userId : userIds) {
+            List<NotificationDto> notifications = notificationService.getUserNotifications(userId, 0, 10).getContent();
+            assertEquals(1, notifications.size());
+            assertEquals("Office closed on Friday", notifications.get(0).getTitle());
+            assertEquals(1L, notificationService.getUnreadCount(userId));
+        }
+    }
+
+    @Test
+    void explicit_ids_of_unknown_or_inactive_users_are_rejected_and_counted() throws Exception {
+        User active = TestUsers.newUser(userRepository);
+        User inactive = TestUsers.newUser(userRepository);
+        inactive.setIsActive(false);
+        userRepository.save(inactive);
+        long unknown = Long.MAX_VALUE;
+
+        Map<String, Object> progress = waitForCompletion(fanoutService.submit(
+                request(List.of(active.getId(), inactive.getId(), unknown), List.of("in_app"))));
+
+        assertEquals(NotificationFanoutService.JobStatus.COMPLETED, progress.get("status"));
+        assertEquals(1, progress.get("totalRecipients"));
+        assertEquals(2, progress.get("rejectedRecipients"));
+        assertEquals(1L, progress.get("persisted"));
+        assertEquals(0L, notificationService.getUnreadCount(inactive.getId()));
+        assertThrows(RuntimeException.class, () -> fanoutService.submit(request(List.of(unknown), null)));
+    }
+
+    @Test
+    void requests_need_exactly_one_selector_and_known_channels() {
+        NotificationFanoutDto twoSelectors = request(List.of(TestUsers.newUser(userRepository).getId()), null);
+        twoSelectors.setCompanyId(1L);
+        NotificationFanoutDto unknownChannel = request(List.of(TestUsers.newUser(userRepository).getId()), List.of("carrier_pigeon"));
+
+        assertThrows(RuntimeException.class, () -> fanoutService.submit(twoSelectors));
+        assertThrows(RuntimeException.class, () -> fanoutService.submit(unknownChannel));
+    }
+
+    private Map<String, Object> waitForCompletion(Map<String, Object> submitted) throws InterruptedException {
+        String jobId = (String) submitted.get("jobId");
+        long deadline = System.currentTimeMillis() + 10_000;
+        Map<String, Object> progress = fanoutService.getProgress(jobId);
+        while ((Long) progress.get("completedAt") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            progress = fanoutService.getProgress(jobId);
+        }
+        return progress;
+    }
+
+    private NotificationFanoutDto request(List<Long> userIds, List<String> channels) {
+        NotificationFanoutDto request = new NotificationFanoutDto();
+        request.setTitle("Office closed on Friday");
+        request.setMessage("The office is closed for maintenance.");
+        request.setType(NotificationType.COMPANY_ANNOUNCEMENT);
+        request.setPriority(NotificationPriority.MEDIUM);
+        request.setUserIds(userIds);
+        request.setChannels(channels);
+        return request;
+    }
+}
@@ -0,0 +1,142 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.dto.NotificationPreferencesDto;
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.codewithudo.backend.entity.NotificationPreferences;
+import com.codewithudo.backend.repository.NotificationPreferencesRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.NotificationDeliveryRouter;
+import com.codewithudo.backend.service.NotificationPreferenceSnapshot;
+import com.codewithudo.backend.service.NotificationPreferencesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notification-preference-routing-tests",
+        "app.search.index.dir=target/search-index/notification-preference-routing-tests"
+})
+class NotificationPreferenceRoutingTests {
+
+    @Autowired
+    private NotificationDeliveryRouter deliveryRouter;
+
+    @Autowired
+    private NotificationPreferencesService preferencesService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void defaults_enable_every_type_and_channel() {
+        for (NotificationType type : NotificationType.values()) {
+            for (String channel : NotificationPreferenceSnapshot.CHANNELS) {
+                assertTrue(NotificationPreferenceSnapshot.DEFAULTS.isEnabled(type, channel), type + "/" + channel);
+            }
+        }
+    }
+
+    @Test
+    void snapshots_agree_with_the_preferences_for_every_type_and_channel() {
+        NotificationPreferences preferences = new NotificationPreferences(1L);
+        preferences.setEmailEnabled(false);
+        preferences.setPushBadgeNotifications(false);
+
+        NotificationPreferenceSnapshot snapshot = NotificationPreferenceSnapshot.from(preferences);
+
+        for (NotificationType type : NotificationType.values()) {
+            for (String channel : NotificationPreferenceSnapshot.CHANNELS) {
+                assertEquals(preferences.isNotificationEnabled(type, channel), snapshot.isEnabled(type, channel),
+                        type + "/" + channel);
+            }
+        }
+        assertEquals(List.of("in_app", "sms"), deliveryRouter.route(snapshot, NotificationType.BADGE_EARNED,
+                List.of("email", "push", "in_app", "sms")));
+    }
+
+    @Test
+    void quiet_hours_follow_the_users_timezone_across_midnight() {
+        NotificationPreferences preferences = new NotificationPreferences(1L);
+        preferences.setQuietHoursEnabled(true);
+        preferences.setQuietHoursStart("22:00");
+        preferences.setQuietHoursEnd("07:00");
+        preferences.setTimezone("Asia/Tokyo");
+        NotificationPreferenceSnapshot tokyo = NotificationPreferenceSnapshot.from(preferences);
+        preferences.setTimezone("UTC");
+        NotificationPreferenceSnapshot utc = NotificationPreferenceSnapshot.from(preferences);
+
+        // 23:30 in Tokyo, 14:30 in UTC
+        Instant now = Instant.parse("2026-01-15T14:30:00Z");
+
+        assertTrue(tokyo.isInQuietHours(now));
+        assertEquals(Instant.parse("2026-01-15T22:00:00Z"), tokyo.quietHoursEnd(now));
+        assertFalse(utc.isInQuietHours(now));
+        assertEquals(now, utc.quietHoursEnd(now));
+    }
+
+    @Test
+    void unusable_quiet_hours_and_timezones_fall_back_to_none_and_utc() {
+        NotificationPreferences preferences = new NotificationPreferences(1L);
+        preferences.setQuietHoursEnabled(true);
+        preferences.setQuietHoursStart("08:00");
+        preferences.setQuietHoursEnd("08:00");
+        preferences.setTimezone("Not/AZone");
+
+        NotificationPreferenceSnapshot snapshot = NotificationPreferenceSnapshot.from(preferences);
+
+        assertFalse(snapshot.hasQuietHours());
+        assertEquals(ZoneOffset.UTC, snapshot.getZoneId());
+    }
+
+    @Test
+    void batches_load_all_misses_in_one_query_and_are_cached() {
+        NotificationPreferencesRepository repository = mock(NotificationPreferencesRepository.class);
+        NotificationPreferences stored = new NotificationPreferences(1L);
+        stored.setPushBadgeNotifications(false);
+        when(repository.findByUserIdIn(any())).thenReturn(List.of(stored));
+        NotificationDeliveryRouter router = new NotificationDeliveryRouter(repository, 600_000L, 100);
+
+        Map<Long, NotificationPreferenceSnapshot> first = router.snapshots(List.of(1L, 2L));
+        Map<Long, NotificationPreferenceSnapshot> second = router.snapshots(List.of(1L, 2L));
+
+        assertFalse(first.get(1L).isEnabled(NotificationType.BADGE_EARNED, "push"));
+        // Users without stored preferences get the defaults
+        assertSame(NotificationPreferenceSnapshot.DEFAULTS, first.get(2L));
+        assertSame(first.get(1L), second.get(1L));
+        assertSame(first.get(1L), router.snapshot(1L));
+        verify(repository, times(1)).findByUserIdIn(any());
+        verify(repository, never()).findByUserId(anyLong());
+        assertEquals(2L, router.getStats().get("misses"));
+        assertEquals(3L, router.getStats().get("hits"));
+    }
+
+    @Test
+    void updating_preferences_replaces_the_cached_snapshot() {
+        Long userId = TestUsers.newUser(userRepository).getId();
+        assertTrue(deliveryRouter.snapshot(userId).isEnabled(NotificationType.BADGE_EARNED, "push"));
+
+        NotificationPreferencesDto update = new NotificationPreferencesDto();
+        update.setPushBadgeNotifications(false);
+        preferencesService.updateUserPreferences(userId, update);
+
+        assertFalse(deliveryRouter.snapshot(userId).isEnabled(NotificationType.BADGE_EARNED, "push"));
+        assertTrue(deliveryRouter.snapshot(userId).isEnabled(NotificationType.BADGE_EARNED, "in_app"));
+    }
+}
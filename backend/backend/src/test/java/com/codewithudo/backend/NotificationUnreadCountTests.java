@@ -0,0 +1,60 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.dto.CreateNotificationDto;
+import com.codewithudo.backend.dto.NotificationDto;
+import com.codewithudo.backend.entity.Notification.NotificationPriority;
+import com.codewithudo.backend.entity.Notification.NotificationType;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notification-unread-count-tests",
+        "app.search.index.dir=target/search-index/notification-unread-count-tests"
+})
+class NotificationUnreadCountTests {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void reading_the_same_notification_twice_decrements_once() {
+        User user = TestUsers.newUser(userRepository);
+        NotificationDto first = notify(user);
+        notify(user);
+        assertEquals(2L, notificationService.getUnreadCount(user.getId()));
+
+        assertTrue(notificationService.markAsRead(first.getId(), user.getId()));
+        assertTrue(notificationService.markAsRead(first.getId(), user.getId()));
+
+        assertEquals(1L, notificationService.getUnreadCount(user.getId()));
+        assertEquals(1, notificationService.getUnreadNotifications(user.getId()).size());
+    }
+
+    @Test
+    void reading_someone_elses_notification_changes_nothing() {
+        User owner = TestUsers.newUser(userRepository);
+        User other = TestUsers.newUser(userRepository);
+        NotificationDto notification = notify(owner);
+
+        assertFalse(notificationService.markAsRead(notification.getId(), other.getId()));
+
+        assertEquals(1L, notificationService.getUnreadCount(owner.getId()));
+        assertEquals(0L, notificationService.getUnreadCount(other.getId()));
+    }
+
+    private NotificationDto notify(User user) {
+        return notificationService.createNotification(new CreateNotificationDto(user.getId(), "Hello",
+                "A notification", NotificationType.SYSTEM_ANNOUNCEMENT, NotificationPriority.MEDIUM));
+    }
+}
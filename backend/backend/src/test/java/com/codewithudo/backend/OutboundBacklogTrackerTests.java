@@ -0,0 +1,107 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.config.OutboundBacklogTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboundBacklogTrackerTests {
+
+    private static final Principal USER = () -> "42";
+
+    @Test
+    void backlog_is_the_unsent_bytes_of_the_users_slowest_session() throws Exception {
+        OutboundBacklogTracker tracker = new OutboundBacklogTracker();
+        CountDownLatch clientReads = new CountDownLatch(1);
+        ConcurrentWebSocketSessionDecorator session = connect(tracker, "s1", clientReads);
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        try {
+            // The first frame blocks in the socket write, so the next ones wait in the buffer
+            CountDownLatch writing = new CountDownLatch(1);
+            sender.submit(() -> {
+                writing.countDown();
+                session.sendMessage(new TextMessage("first"));
+                return null;
+            });
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            waitForBuffer(session, "first".length());
+            session.sendMessage(new TextMessage("second"));
+            session.sendMessage(new TextMessage("third"));
+
+            assertEquals(session.getBufferSize(), tracker.backlog(USER.getName()));
+            assertTrue(tracker.backlog(USER.getName()) >= "secondthird".length());
+            assertEquals(1, tracker.backloggedSessions());
+
+            clientReads.countDown();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (session.getBufferSize() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, tracker.backlog(USER.getName()));
+            assertEquals(0, tracker.totalBacklog());
+        } finally {
+            clientReads.countDown();
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void closed_sessions_are_forgotten() throws Exception {
+        OutboundBacklogTracker tracker = new OutboundBacklogTracker();
+        connect(tracker, "s2", new CountDownLatch(0));
+
+        Message<byte[]> message = stompMessage("s2");
+        tracker.onDisconnected(new SessionDisconnectEvent(this, message, "s2", CloseStatus.NORMAL, USER));
+
+        assertEquals(0, tracker.backlog(USER.getName()));
+        assertEquals(0, tracker.backloggedSessions());
+    }
+
+    private ConcurrentWebSocketSessionDecorator connect(OutboundBacklogTracker tracker, String sessionId,
+                                                       CountDownLatch clientReads) throws Exception {
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getId()).thenReturn(sessionId);
+        when(socket.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            clientReads.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(socket).sendMessage(any());
+        ConcurrentWebSocketSessionDecorator session = new ConcurrentWebSocketSessionDecorator(socket, 60_000, 1 << 20);
+        tracker.register(session);
+        tracker.onConnected(new SessionConnectedEvent(this, stompMessage(sessionId), USER));
+        return session;
+    }
+
+    private Message<byte[]> stompMessage(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private void waitForBuffer(ConcurrentWebSocketSessionDecorator session, int bytes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (session.getBufferSize() < bytes && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingExecutorTests {
+
+    @Test
+    void a_full_queue_fails_the_future_instead_of_blocking() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 5_000, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> busy = executor.submit(() -> {
+                running.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return "done";
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = executor.submit(() -> "queued");
+
+            CompletableFuture<String> rejected = executor.submit(() -> "rejected");
+
+            assertTrue(rejected.isCompletedExceptionally());
+            assertFailsWith(RejectedExecutionException.class, rejected);
+            release.countDown();
+            assertEquals("done", busy.get(5, TimeUnit.SECONDS));
+            assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+            assertEquals(1L, executor.getStats().get("rejected"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void a_task_still_queued_at_its_timeout_is_never_run() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 4, 500, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            executor.submit(() -> release.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = executor.submit(() -> ran.getAndSet(true));
+
+            assertFailsWith(TimeoutException.class, queued);
+            release.countDown();
+            // Give the worker a chance to dequeue the stale task
+            executor.submit(() -> true).get(5, TimeUnit.SECONDS);
+            assertFalse(ran.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void database_work_does_not_wait_for_busy_hashing_threads() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 5_000, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                running.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            String thread = executor.submitDatabaseWork(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+            assertTrue(thread.startsWith("auth-database-"), thread);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void assertFailsWith(Class<? extends Throwable> type, CompletableFuture<?> future) {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(type, failure.getCause());
+    }
+}
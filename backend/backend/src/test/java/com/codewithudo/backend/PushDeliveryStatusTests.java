@@ -0,0 +1,58 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.Notification;
+import com.codewithudo.backend.service.PushNotificationService;
+import com.codewithudo.backend.service.PushSubscriptionRegistry;
+import com.codewithudo.backend.service.PushSubscriptionRegistry.PushEndpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PushDeliveryStatusTests {
+
+    private static final Long USER_ID = 9L;
+
+    private final PushEndpoint accepted = endpoint(1L);
+    private final PushEndpoint gone = endpoint(2L);
+    private final PushEndpoint notFound = endpoint(3L);
+    private final PushEndpoint throttled = endpoint(4L);
+    private final PushEndpoint broken = endpoint(5L);
+
+    @Test
+    void push_service_statuses_decide_between_success_failure_and_removal() {
+        PushSubscriptionRegistry registry = mock(PushSubscriptionRegistry.class);
+        when(registry.endpoints(USER_ID)).thenReturn(List.of(accepted, gone, notFound, throttled, broken));
+        Map<Long, Integer> statuses = Map.of(1L, 201, 2L, 410, 3L, 404, 4L, 429);
+        PushNotificationService service = new PushNotificationService() {
+            @Override
+            protected int sendBrowserPushNotification(PushEndpoint endpoint, Notification notification) {
+                if (!statuses.containsKey(endpoint.id())) {
+                    throw new RuntimeException("connection reset");
+                }
+                return statuses.get(endpoint.id());
+            }
+        };
+        ReflectionTestUtils.setField(service, "subscriptionRegistry", registry);
+        ReflectionTestUtils.setField(service, "pushEnabled", true);
+
+        service.sendBrowserPush(USER_ID, new Notification());
+
+        verify(registry).reportSuccess(accepted);
+        verify(registry).reportFailure(gone, true);
+        verify(registry).reportFailure(notFound, true);
+        verify(registry).reportFailure(throttled, false);
+        verify(registry).reportFailure(broken, false);
+        verify(registry, never()).reportFailure(accepted, false);
+    }
+
+    private static PushEndpoint endpoint(Long id) {
+        return new PushEndpoint(id, USER_ID, "https://push.example.com/" + id, "key", "auth");
+    }
+}
@@ -0,0 +1,117 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.service.PushSubscriptionRegistry;
+import com.codewithudo.backend.service.PushSubscriptionRegistry.PushEndpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:push-subscription-tests",
+        "app.search.index.dir=target/search-index/push-subscription-tests",
+        "app.notifications.push.registry.max-devices-per-user=2",
+        "app.notifications.push.registry.max-failures=2",
+        "app.notifications.push.registry.ttl-ms=600000"
+})
+class PushSubscriptionRegistryTests {
+
+    private static final AtomicLong USER_IDS = new AtomicLong(50_000);
+
+    @Autowired
+    private PushSubscriptionRegistry registry;
+
+    @Test
+    void the_least_recently_used_device_is_evicted_beyond_the_limit() throws Exception {
+        long user = USER_IDS.incrementAndGet();
+        String phone = register(user);
+        String laptop = register(user);
+        // The phone received a push after the laptop registered, so the laptop is the stalest
+        registry.reportSuccess(endpoint(user, phone));
+        registry.flushSuccesses();
+
+        String tablet = register(user);
+
+        assertEquals(Set.of(phone, tablet), endpointUrls(user));
+        assertFalse(endpointUrls(user).contains(laptop));
+    }
+
+    @Test
+    void re_registering_an_endpoint_moves_it_to_the_new_user() throws Exception {
+        long first = USER_IDS.incrementAndGet();
+        long second = USER_IDS.incrementAndGet();
+        String shared = register(first);
+        assertEquals(Set.of(shared), endpointUrls(first));
+
+        registry.register(second, shared, "key", "auth", "Shared browser");
+
+        assertEquals(Set.of(), endpointUrls(first));
+        assertEquals(Set.of(shared), endpointUrls(second));
+    }
+
+    @Test
+    void bulk_lookups_serve_hits_from_cache_and_load_misses_together() throws Exception {
+        long cached = USER_IDS.incrementAndGet();
+        long uncached = USER_IDS.incrementAndGet();
+        long withoutDevices = USER_IDS.incrementAndGet();
+        String cachedEndpoint = register(cached);
+        String uncachedEndpoint = register(uncached);
+        registry.endpoints(cached);
+        long hitsBefore = (Long) registry.getStats().get("hits");
+        long missesBefore = (Long) registry.getStats().get("misses");
+
+        Map<Long, List<PushEndpoint>> found = registry.endpoints(List.of(cached, uncached, withoutDevices));
+
+        assertEquals(Set.of(cached, uncached), found.keySet());
+        assertEquals(cachedEndpoint, found.get(cached).get(0).endpoint());
+        assertEquals(uncachedEndpoint, found.get(uncached).get(0).endpoint());
+        assertEquals(hitsBefore + 1, registry.getStats().get("hits"));
+        assertEquals(missesBefore + 2, registry.getStats().get("misses"));
+    }
+
+    @Test
+    void gone_endpoints_go_at_once_and_failing_ones_at_the_next_prune() throws Exception {
+        long user = USER_IDS.incrementAndGet();
+        String gone = register(user);
+        String failing = register(user);
+
+        registry.reportFailure(endpoint(user, gone), true);
+        assertEquals(Set.of(failing), endpointUrls(user));
+
+        PushEndpoint failingEndpoint = endpoint(user, failing);
+        registry.reportFailure(failingEndpoint, false);
+        registry.reportFailure(failingEndpoint, false);
+        registry.pruneDeadEndpoints();
+
+        assertTrue(endpointUrls(user).isEmpty());
+    }
+
+    private String register(long userId) throws InterruptedException {
+        // Registration times order the devices, so keep them apart
+        Thread.sleep(5);
+        String endpoint = "https://push.example.com/" + UUID.randomUUID();
+        registry.register(userId, endpoint, "key", "auth", "Device");
+        return endpoint;
+    }
+
+    private PushEndpoint endpoint(long userId, String url) {
+        return registry.endpoints(userId).stream()
+                .filter(endpoint -> endpoint.endpoint().equals(url))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Set<String> endpointUrls(long userId) {
+        return registry.endpoints(userId).stream().map(PushEndpoint::endpoint).collect(Collectors.toSet());
+    }
+}
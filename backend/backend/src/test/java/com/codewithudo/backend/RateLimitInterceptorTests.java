@@ -0,0 +1,111 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.config.RateLimitInterceptor;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitInterceptorTests {
+
+    private final RateLimitInterceptor interceptor =
+            new RateLimitInterceptor("POST /api/things/*/messages 2 0.001, POST /api/other 1 0.001", 100);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void calls_beyond_the_burst_get_429_with_retry_hints() throws Exception {
+        assertEquals(200, call("POST", "/api/things/1/messages", "10.0.0.1").getStatus());
+        MockHttpServletResponse second = call("POST", "/api/things/2/messages", "10.0.0.1");
+        assertEquals("2", second.getHeader("X-RateLimit-Limit"));
+        assertEquals("0", second.getHeader("X-RateLimit-Remaining"));
+
+        MockHttpServletResponse rejected = call("POST", "/api/things/3/messages", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(rejected.getHeader("Retry-After")) >= 1);
+        assertEquals("0", rejected.getHeader("X-RateLimit-Remaining"));
+    }
+
+    @Test
+    void each_client_route_and_method_has_its_own_bucket() throws Exception {
+        call("POST", "/api/other", "10.0.0.1");
+        assertEquals(429, call("POST", "/api/other", "10.0.0.1").getStatus());
+
+        assertEquals(200, call("POST", "/api/other", "10.0.0.2").getStatus());
+        assertEquals(200, call("POST", "/api/things/1/messages", "10.0.0.1").getStatus());
+        assertEquals(200, call("GET", "/api/other", "10.0.0.1").getStatus());
+        assertEquals(200, call("POST", "/api/unlimited", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void signed_in_users_are_limited_by_id_wherever_they_call_from() throws Exception {
+        authenticate(7L);
+        call("POST", "/api/other", "10.0.0.1");
+
+        assertEquals(429, call("POST", "/api/other", "10.0.0.9").getStatus());
+
+        authenticate(8L);
+        assertEquals(200, call("POST", "/api/other", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void stats_count_allowed_and_rejected_calls_per_route() throws Exception {
+        call("POST", "/api/other", "10.0.0.1");
+        call("POST", "/api/other", "10.0.0.1");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> routes = (Map<String, Map<String, Object>>) interceptor.getStats().get("routes");
+        assertEquals(1L, routes.get("POST /api/other").get("allowed"));
+        assertEquals(1L, routes.get("POST /api/other").get("rejected"));
+    }
+
+    @Test
+    void the_sweep_evicts_only_buckets_that_refilled() throws Exception {
+        RateLimitInterceptor fastRefill = new RateLimitInterceptor("POST /api/other 1 1000", 100);
+        MockHttpServletRequest request = request("POST", "/api/other", "10.0.0.1");
+        fastRefill.preHandle(request, new MockHttpServletResponse(), null);
+        call("POST", "/api/other", "10.0.0.1");
+        Thread.sleep(20);
+
+        fastRefill.evictIdle();
+        interceptor.evictIdle();
+
+        assertEquals(0, fastRefill.getStats().get("buckets"));
+        assertEquals(1, interceptor.getStats().get("buckets"));
+    }
+
+    private MockHttpServletResponse call(String method, String path, String remoteAddress) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(request(method, path, remoteAddress), response, null);
+        assertEquals(proceed, response.getStatus() != 429);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static void authenticate(Long userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user" + userId + "@example.com", User.UserRole.USER, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
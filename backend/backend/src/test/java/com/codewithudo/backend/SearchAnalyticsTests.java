@@ -0,0 +1,116 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.RecentSearch;
+import com.codewithudo.backend.repository.PopularSearchRepository;
+import com.codewithudo.backend.repository.RecentSearchRepository;
+import com.codewithudo.backend.service.SearchAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-analytics-tests",
+        "app.search.index.dir=target/search-index/search-analytics-tests",
+        "app.search.analytics.top-k=3",
+        "app.search.analytics.recent-per-user=3",
+        "app.search.analytics.flush-interval-ms=600000",
+        "app.search.analytics.decay-interval-ms=600000"
+})
+class SearchAnalyticsTests {
+
+    private static final AtomicLong IDS = new AtomicLong(1_000);
+
+    @Autowired
+    private SearchAnalyticsService analytics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PopularSearchRepository popularSearchRepository;
+
+    @Autowired
+    private RecentSearchRepository recentSearchRepository;
+
+    @Test
+    void popular_searches_rank_per_company_and_ignore_empty_results() {
+        long company = IDS.incrementAndGet();
+        long otherCompany = IDS.incrementAndGet();
+        search(company, "Kotlin", 4);
+        search(company, "spring boot", 3);
+        // Same query once normalized; the latest spelling is the one shown
+        search(company, "  Spring   Boot ", 2);
+        search(company, "react", 2);
+        search(company, "nothing matches", 10, 0);
+        search(otherCompany, "Rust", 1);
+
+        assertEquals(List.of("Spring Boot", "Kotlin", "react"), analytics.getPopular(company, 10));
+        assertEquals(List.of("Spring Boot"), analytics.getPopular(company, 1));
+        assertEquals(List.of("Rust"), analytics.getPopular(otherCompany, 10));
+    }
+
+    @Test
+    void a_query_that_overtakes_the_weakest_heavy_hitter_replaces_it() {
+        long company = IDS.incrementAndGet();
+        search(company, "alpha", 5);
+        search(company, "beta", 4);
+        search(company, "gamma", 2);
+
+        search(company, "delta", 3);
+
+        assertEquals(List.of("alpha", "beta", "delta"), analytics.getPopular(company, 10));
+    }
+
+    @Test
+    void recent_searches_are_newest_first_without_repeats_and_bounded() {
+        long user = IDS.incrementAndGet();
+        for (String query : List.of("one", "two", "three", "TWO", "four")) {
+            analytics.record(user, null, query, 0);
+        }
+
+        assertEquals(List.of("four", "TWO", "three"), analytics.getRecent(user, 10));
+        assertEquals(List.of("four"), analytics.getRecent(user, 1));
+    }
+
+    @Test
+    void flushed_state_survives_a_restart() {
+        long company = IDS.incrementAndGet();
+        long user = IDS.incrementAndGet();
+        search(company, "graphql", 3);
+        search(company, "postgres", 2);
+        analytics.record(user, company, "graphql", 5);
+        analytics.record(user, company, "docker", 5);
+
+        analytics.flush();
+
+        assertEquals(List.of("docker", "graphql"), recentSearchRepository.findByUserIdOrderByPositionAsc(user).stream()
+                .map(RecentSearch::getQuery)
+                .collect(Collectors.toList()));
+        SearchAnalyticsService restarted = new SearchAnalyticsService(jdbcTemplate, transactionTemplate,
+                popularSearchRepository, recentSearchRepository, 4, 1024, 3, 86_400_000L, 300_000L, 3, 10_000);
+        restarted.load();
+        assertEquals(List.of("graphql", "postgres", "docker"), restarted.getPopular(company, 10));
+        assertEquals(List.of("docker", "graphql"), restarted.getRecent(user, 10));
+    }
+
+    private void search(long companyId, String query, int times) {
+        search(companyId, query, times, 1);
+    }
+
+    private void search(long companyId, String query, int times, int resultCount) {
+        for (int i = 0; i < times; i++) {
+            analytics.record(null, companyId, query, resultCount);
+        }
+    }
+}
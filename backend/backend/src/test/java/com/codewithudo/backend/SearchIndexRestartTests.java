@@ -0,0 +1,95 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.SearchIndexMarker;
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.CompanyAnnouncementRepository;
+import com.codewithudo.backend.repository.LoungeRepository;
+import com.codewithudo.backend.repository.SearchIndexMarkerRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.service.SearchIndexService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-index-restart-tests",
+        "app.search.index.dir=target/search-index/search-index-restart-tests"
+})
+class SearchIndexRestartTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoungeRepository loungeRepository;
+
+    @Autowired
+    private CompanyAnnouncementRepository announcementRepository;
+
+    @Test
+    void an_index_left_by_another_database_is_rebuilt() throws Exception {
+        String dir = "target/search-index/restart-" + UUID.randomUUID();
+        String name = uniqueWord();
+        SearchIndexService before = start(dir, "database-1");
+        before.rebuildSafely();
+        // A row of the old database that this one does not have
+        before.index(ghostUser(name));
+        stop(before);
+
+        SearchIndexService sameDatabase = start(dir, "database-1");
+        sameDatabase.rebuildIfNeeded();
+        assertEquals(1, hits(sameDatabase, name));
+        stop(sameDatabase);
+
+        SearchIndexService otherDatabase = start(dir, "database-2");
+        otherDatabase.rebuildIfNeeded();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (hits(otherDatabase, name) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, hits(otherDatabase, name));
+        stop(otherDatabase);
+    }
+
+    private SearchIndexService start(String dir, String marker) {
+        SearchIndexMarkerRepository markers = mock(SearchIndexMarkerRepository.class);
+        when(markers.findFirstByOrderByIdAsc()).thenReturn(Optional.of(new SearchIndexMarker(marker, 0L)));
+        SearchIndexService service = new SearchIndexService(userRepository, loungeRepository, announcementRepository,
+                markers, dir, false, 100, 30_000L, 100);
+        ReflectionTestUtils.invokeMethod(service, "open");
+        return service;
+    }
+
+    private void stop(SearchIndexService service) {
+        ReflectionTestUtils.invokeMethod(service, "close");
+    }
+
+    private int hits(SearchIndexService service, String text) {
+        service.refresh();
+        return service.search(text, Set.of(SearchIndexService.DocType.USER), null, Map.of(), 0, 10,
+                SearchIndexService.Totals.NONE).hits().size();
+    }
+
+    private User ghostUser(String name) {
+        User user = new User();
+        user.setId(Long.MAX_VALUE - 1);
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+
+    // Letters only, so the analyzer keeps it as one token
+    private static String uniqueWord() {
+        return "w" + UUID.randomUUID().toString().replaceAll("[^a-f]", "");
+    }
+}
@@ -0,0 +1,113 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.dto.LoungeDto;
+import com.codewithudo.backend.dto.SearchResultDto;
+import com.codewithudo.backend.entity.Lounge;
+import com.codewithudo.backend.repository.LoungeRepository;
+import com.codewithudo.backend.service.LoungeService;
+import com.codewithudo.backend.service.SearchIndexService;
+import com.codewithudo.backend.service.SearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:slice-paging-tests",
+        "app.search.index.dir=target/search-index/slice-paging-tests"
+})
+class SlicePagingTests {
+
+    @Autowired
+    private LoungeService loungeService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private LoungeRepository loungeRepository;
+
+    @Test
+    void lounge_slices_page_without_counting_and_skip_private_lounges() {
+        String category = uniqueWord();
+        List<Long> publicIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            publicIds.add(newLounge(category, Lounge.Visibility.PUBLIC, i).getId());
+        }
+        Lounge hidden = newLounge(category, Lounge.Visibility.PRIVATE, 10);
+
+        List<Long> seen = new ArrayList<>();
+        Slice<LoungeDto> slice;
+        int page = 0;
+        do {
+            slice = loungeService.getLoungeSlice(category, page++, 2, null);
+            slice.getContent().forEach(lounge -> seen.add(lounge.getId()));
+        } while (slice.hasNext());
+
+        assertEquals(3, page);
+        // Most recently active first, and the private lounge is never listed
+        assertEquals(publicIds, seen);
+        assertFalse(seen.contains(hidden.getId()));
+    }
+
+    @Test
+    void search_slices_report_more_pages_without_totals() throws Exception {
+        String topic = uniqueWord();
+        for (int i = 0; i < 3; i++) {
+            newLounge(null, Lounge.Visibility.PUBLIC, i, topic);
+        }
+        waitForSearchable(topic, 3);
+
+        SearchResultDto first = searchService.globalSearch(topic, null, null, 0, 2, true, false);
+        SearchResultDto second = searchService.globalSearch(topic, null, null, 1, 2, true, false);
+
+        assertEquals(2, first.getLounges().size());
+        assertTrue(first.isHasNext());
+        assertEquals(-1, first.getTotalResults());
+        assertEquals(1, second.getLounges().size());
+        assertFalse(second.isHasNext());
+    }
+
+    private void waitForSearchable(String topic, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            searchIndexService.refresh();
+            if (searchService.globalSearch(topic, null, null, 0, 10, false, true).getTotalResults() >= expected) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private Lounge newLounge(String category, Lounge.Visibility visibility, int minutesAgo) {
+        return newLounge(category, visibility, minutesAgo, "Paging");
+    }
+
+    private Lounge newLounge(String category, Lounge.Visibility visibility, int minutesAgo, String topic) {
+        Lounge lounge = new Lounge();
+        lounge.setTitle("Lounge " + uniqueWord());
+        lounge.setTopic(topic);
+        lounge.setCategory(category);
+        lounge.setCreatedBy(1L);
+        lounge.setVisibility(visibility);
+        lounge.setLastActivity(LocalDateTime.now().minusMinutes(minutesAgo));
+        return loungeRepository.save(lounge);
+    }
+
+    // Letters only, so the analyzer keeps it as one token that no earlier run's documents share
+    private static String uniqueWord() {
+        return "w" + UUID.randomUUID().toString().replaceAll("[^a-f]", "");
+    }
+}
@@ -0,0 +1,32 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saved users with unique names and emails for the integration tests. The sequence is shared
+ * by every test class, so users never collide even when classes share a database.
+ */
+final class TestUsers {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private TestUsers() {
+    }
+
+    static User newUser(UserRepository userRepository) {
+        return newUser(userRepository, null);
+    }
+
+    static User newUser(UserRepository userRepository, Long companyId) {
+        int n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setName("Test User " + n);
+        user.setEmail("test-user-" + n + "@example.com");
+        user.setPasswordHash("not-a-real-hash");
+        user.setCompanyId(companyId);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,52 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.util.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+    @Test
+    void a_full_bucket_allows_a_burst_of_its_capacity_then_reports_the_wait() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        long waitNanos = bucket.tryTake(1);
+        assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.SECONDS.toNanos(1), "Wait was " + waitNanos);
+    }
+
+    @Test
+    void tokens_refill_over_time_but_never_beyond_capacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 50);
+        assertEquals(0, bucket.tryTake(2));
+
+        Thread.sleep(100);
+
+        assertEquals(2.0, bucket.availableTokens(), 1e-9);
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    void a_failed_take_takes_nothing() {
+        TokenBucket bucket = new TokenBucket(2, 0.001);
+
+        assertTrue(bucket.tryTake(3) > 0);
+        assertEquals(0, bucket.tryTake(2));
+    }
+
+    @Test
+    void capacity_and_rate_must_be_positive() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
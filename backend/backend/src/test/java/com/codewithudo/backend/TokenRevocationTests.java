@@ -0,0 +1,96 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.entity.User;
+import com.codewithudo.backend.repository.RevokedTokenRepository;
+import com.codewithudo.backend.repository.UserRepository;
+import com.codewithudo.backend.security.JwtTokenProvider;
+import com.codewithudo.backend.security.TokenRevocationRegistry;
+import com.codewithudo.backend.security.VerifiedTokenCache;
+import com.codewithudo.backend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:token-revocation-tests",
+        "app.search.index.dir=target/search-index/token-revocation-tests"
+})
+class TokenRevocationTests {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void a_login_right_after_reactivation_is_not_revoked() {
+        User user = TestUsers.newUser(userRepository);
+        String before = tokenProvider.generateToken(user);
+        assertNotNull(tokenCache.authenticate(before));
+
+        userService.deactivateUser(user.getId());
+        nextMillisecond();
+        user.setIsActive(true);
+        user = userRepository.save(user);
+        // Within the same second as the revocation, but a later millisecond
+        String after = tokenProvider.generateToken(user);
+
+        assertNull(tokenCache.authenticate(before));
+        assertNotNull(tokenCache.authenticate(after));
+    }
+
+    @Test
+    void revocations_survive_a_restart() {
+        User user = TestUsers.newUser(userRepository);
+        String revoked = tokenProvider.generateToken(user);
+        userService.deactivateUser(user.getId());
+        nextMillisecond();
+        user.setIsActive(true);
+        user = userRepository.save(user);
+        String current = tokenProvider.generateToken(user);
+
+        // A fresh registry stands in for a restarted node or a second node
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(revokedTokenRepository, 3_600_000L);
+        ReflectionTestUtils.invokeMethod(registry, "load");
+        VerifiedTokenCache otherNode = new VerifiedTokenCache(tokenProvider, userRepository, registry, true, 300_000L, 1_000);
+
+        assertNull(otherNode.authenticate(revoked));
+        assertNotNull(otherNode.authenticate(current));
+    }
+
+    @Test
+    void a_logout_elsewhere_is_picked_up_by_the_next_sync() {
+        User user = TestUsers.newUser(userRepository);
+        String token = tokenProvider.generateToken(user);
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(revokedTokenRepository, 3_600_000L);
+        ReflectionTestUtils.invokeMethod(registry, "load");
+        VerifiedTokenCache otherNode = new VerifiedTokenCache(tokenProvider, userRepository, registry, true, 300_000L, 1_000);
+        assertNotNull(otherNode.authenticate(token));
+
+        tokenCache.revoke(token);
+        registry.sync();
+
+        assertNull(otherNode.authenticate(token));
+    }
+
+    private void nextMillisecond() {
+        long now = System.currentTimeMillis();
+        while (System.currentTimeMillis() <= now) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.repository.NotificationRepository;
+import com.codewithudo.backend.service.UnreadCountCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadCountCacheTests {
+
+    private static final Long USER_ID = 7L;
+
+    @Test
+    void loaded_counts_are_cached_and_follow_increments() {
+        NotificationRepository repository = mock(NotificationRepository.class);
+        when(repository.countByUserIdAndIsReadFalse(USER_ID)).thenReturn(3L);
+        UnreadCountCache cache = new UnreadCountCache(repository, 100);
+
+        assertEquals(3L, cache.get(USER_ID));
+        cache.increment(USER_ID, 2);
+
+        assertEquals(5L, cache.get(USER_ID));
+        verify(repository, times(1)).countByUserIdAndIsReadFalse(USER_ID);
+    }
+
+    @Test
+    void a_load_raced_by_an_increment_is_not_cached() {
+        NotificationRepository repository = mock(NotificationRepository.class);
+        UnreadCountCache cache = new UnreadCountCache(repository, 100);
+        AtomicLong rows = new AtomicLong(3);
+        // The new row commits after the count ran but its increment lands before the load installs
+        when(repository.countByUserIdAndIsReadFalse(USER_ID)).thenAnswer(invocation -> {
+            long counted = rows.get();
+            if (counted == 3) {
+                rows.incrementAndGet();
+                cache.increment(USER_ID, 1);
+            }
+            return counted;
+        });
+
+        assertEquals(3L, cache.get(USER_ID));
+        assertEquals(4L, cache.get(USER_ID));
+        assertEquals(4L, cache.get(USER_ID));
+
+        verify(repository, times(2)).countByUserIdAndIsReadFalse(USER_ID);
+        assertEquals(1L, cache.getStats().get("uncachedLoads"));
+    }
+}
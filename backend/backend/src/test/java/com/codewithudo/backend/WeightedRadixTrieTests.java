@@ -0,0 +1,52 @@
+package com.codewithudo.backend;
+
+import com.codewithudo.backend.util.WeightedRadixTrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeightedRadixTrieTests {
+
+    @Test
+    void top_returns_the_heaviest_keys_under_the_prefix() {
+        WeightedRadixTrie trie = new WeightedRadixTrie();
+        trie.add("java", "Java", 5);
+        trie.add("javascript", "JavaScript", 9);
+        trie.add("jav", "Jav", 1);
+        trie.add("python", "Python", 20);
+
+        assertEquals(List.of(new WeightedRadixTrie.Entry("JavaScript", 9), new WeightedRadixTrie.Entry("Java", 5)),
+                trie.top("ja", 2));
+        assertEquals(List.of("JavaScript", "Java", "Jav"), values(trie.top("jav", 10)));
+        assertEquals(List.of("JavaScript"), values(trie.top("javas", 10)));
+        assertEquals(List.of(), trie.top("jq", 10));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void weights_accumulate_and_keys_at_zero_disappear() {
+        WeightedRadixTrie trie = new WeightedRadixTrie();
+        trie.add("rust", "Rust", 1);
+        trie.add("ruby", "Ruby", 3);
+        trie.add("rust", "Rust", 3);
+
+        assertEquals(List.of(new WeightedRadixTrie.Entry("Rust", 4), new WeightedRadixTrie.Entry("Ruby", 3)),
+                trie.top("ru", 10));
+
+        trie.add("rust", "Rust", -4);
+        assertEquals(List.of("Ruby"), values(trie.top("ru", 10)));
+        assertEquals(1, trie.size());
+
+        // Taking weight from a key that is not there changes nothing
+        trie.add("rus", "Rus", -1);
+        trie.add("go", "Go", -1);
+        assertEquals(1, trie.size());
+        assertEquals(List.of("Ruby"), values(trie.top("", 10)));
+    }
+
+    private static List<String> values(List<WeightedRadixTrie.Entry> entries) {
+        return entries.stream().map(WeightedRadixTrie.Entry::value).toList();
+    }
+}